@@ -5,6 +5,7 @@ import com.cl.mysql.binlog.constant.BinlogEventTypeEnum;
 import com.cl.mysql.binlog.entity.Row;
 import com.cl.mysql.binlog.network.BinlogEnvironment;
 import com.cl.mysql.binlog.stream.ByteArrayIndexInputStream;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 
@@ -29,6 +30,17 @@ public abstract class AbstractRowEvent extends AbstractBinlogEvent {
      */
     protected final Integer width;
 
+    /**
+     * 行事件对应的表结构，在事件开始解析时就从缓存中取出来，后面出现同tableId的TableMapEvent也不影响本事件
+     */
+    protected final TableMapEvent tableMapEvent;
+
+    /**
+     * 开启{@link com.cl.mysql.binlog.network.ClientProperties#getParallelRowDecodeThreads()}时还没解析的行数据，解析完置空
+     */
+    @Getter(AccessLevel.NONE)
+    private ByteArrayIndexInputStream undecodedRows;
+
     /**
      * @param binlogEvent
      * @param in
@@ -39,6 +51,10 @@ public abstract class AbstractRowEvent extends AbstractBinlogEvent {
         super(environment, binlogEvent, in, bodyLength, checkSum);
 
         this.tableId = in.readLong(6);
+        this.tableMapEvent = environment.getTableMapCache().get(this.tableId);
+        if (this.tableMapEvent == null) {
+            throw new RuntimeException("tableId：" + this.tableId + "没有对应的TableMapEvent，可能是从事务中间开始监听，或者已被缓存淘汰（tableMapCacheSize太小）");
+        }
         this.flags = in.readInt(2);
 
         /**
@@ -54,13 +70,37 @@ public abstract class AbstractRowEvent extends AbstractBinlogEvent {
         }
         this.width = in.readLenencInteger().intValue();
 
-        parseColumnImageAndRows(new ByteArrayIndexInputStream(in.readBytes(in.available() - checkSum.getLength())));
+        ByteArrayIndexInputStream rowsInputStream = in.slice(in.available() - checkSum.getLength());
+        if (environment.getParallelRowDecodeThreads() > 0 && rowsInputStream.available() >= environment.getParallelRowDecodeMinBytes()) {
+            // 表结构已经在上面取好了，行数据留给解析线程池，见decodeRows()
+            this.undecodedRows = rowsInputStream;
+        } else {
+            parseColumnImageAndRows(rowsInputStream);
+        }
 
         if (in.available() != checkSum.getLength()) {
             throw new RuntimeException("解析updateRowEvent错误");
         }
     }
 
+    /**
+     * 解析延迟的行数据，连接器在分发事件之前调用，同一个事件只能在一个线程里调用
+     */
+    public void decodeRows() throws IOException {
+        ByteArrayIndexInputStream rowsInputStream = this.undecodedRows;
+        if (rowsInputStream != null) {
+            parseColumnImageAndRows(rowsInputStream);
+            this.undecodedRows = null;
+        }
+    }
+
+    /**
+     * @return false：行数据还没解析，见{@link #decodeRows()}
+     */
+    public boolean isRowsDecoded() {
+        return this.undecodedRows == null;
+    }
+
     /**
      * 解析 columnImages 和 rows
      *
@@ -0,0 +1,34 @@
+package com.cl.mysql.binlog.binlogEvent;
+
+import com.cl.mysql.binlog.constant.BinlogCheckSumEnum;
+import com.cl.mysql.binlog.constant.BinlogEventTypeEnum;
+import com.cl.mysql.binlog.network.BinlogEnvironment;
+import com.cl.mysql.binlog.stream.ByteArrayIndexInputStream;
+
+import java.io.IOException;
+
+/**
+ * @description: 事件体的构造器，参数与{@link AbstractBinlogEvent}的构造方法一致，一般直接传构造方法引用，例如 QueryEvent::new
+ * @author: liuzijian
+ * @time: 2023-09-21 15:20
+ */
+@FunctionalInterface
+public interface BinlogEventFactory {
+
+    /**
+     * @param environment binlog环境配置
+     * @param binlogEvent 事件类型
+     * @param in          输入流，已经读完了common header
+     * @param bodyLength  eventSize 减去 checkSum之后的值，而FormatDescriptionEvent事件会多减去一个1
+     * @param checkSum    checkSum类型
+     * @return 事件体
+     */
+    AbstractBinlogEvent create(
+            BinlogEnvironment environment,
+            BinlogEventTypeEnum binlogEvent,
+            ByteArrayIndexInputStream in,
+            int bodyLength,
+            BinlogCheckSumEnum checkSum
+    ) throws IOException;
+
+}
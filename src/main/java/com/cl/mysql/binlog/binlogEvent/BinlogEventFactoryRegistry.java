@@ -0,0 +1,62 @@
+package com.cl.mysql.binlog.binlogEvent;
+
+import com.cl.mysql.binlog.constant.BinlogEventTypeEnum;
+
+/**
+ * @description: 事件体构造器注册表，以事件类型的code作为数组下标，解析事件时直接按下标取出构造器，不再通过反射创建事件体
+ * <p>
+ * 可以通过{@link #register(BinlogEventTypeEnum, BinlogEventFactory)}给暂未支持的事件类型（如ROWS_QUERY_LOG_EVENT）注册解析器，
+ * 或者覆盖默认的解析器
+ * @author: liuzijian
+ * @time: 2023-09-21 15:32
+ */
+public class BinlogEventFactoryRegistry {
+
+    private final BinlogEventFactory[] factories = new BinlogEventFactory[BinlogEventTypeEnum.MAX_CODE + 1];
+
+    /**
+     * @return 注册了默认解析器的注册表
+     */
+    public static BinlogEventFactoryRegistry createDefault() {
+        BinlogEventFactoryRegistry registry = new BinlogEventFactoryRegistry();
+        registry.register(BinlogEventTypeEnum.QUERY_EVENT, QueryEvent::new);
+        registry.register(BinlogEventTypeEnum.ROTATE_EVENT, RotateEvent::new);
+        registry.register(BinlogEventTypeEnum.INTVAR_EVENT, IntvarEvent::new);
+        registry.register(BinlogEventTypeEnum.FORMAT_DESCRIPTION_EVENT, FormatDescriptionEvent::new);
+        registry.register(BinlogEventTypeEnum.XID_EVENT, XIDEvent::new);
+        registry.register(BinlogEventTypeEnum.TABLE_MAP_EVENT, TableMapEvent::deserialize);
+        registry.register(BinlogEventTypeEnum.UPDATE_ROWS_EVENT_V1, UpdateRowsEvent::new);
+        registry.register(BinlogEventTypeEnum.INCIDENT_EVENT, IncidentEvent::new);
+        registry.register(BinlogEventTypeEnum.WRITE_ROWS_EVENT_V2, WriteRowsEvent::new);
+        registry.register(BinlogEventTypeEnum.UPDATE_ROWS_EVENT_V2, UpdateRowsEvent::new);
+        registry.register(BinlogEventTypeEnum.DELETE_ROWS_EVENT_V2, DeleteRowsEvent::new);
+        registry.register(BinlogEventTypeEnum.PARTIAL_UPDATE_ROWS_EVENT, PartialUpdateRowsEvent::new);
+        registry.register(BinlogEventTypeEnum.GTID_LOG_EVENT, GtidEvent::new);
+        registry.register(BinlogEventTypeEnum.PREVIOUS_GTIDS_LOG_EVENT, PreviousGtidsEvent::new);
+        registry.register(BinlogEventTypeEnum.HEARTBEAT_LOG_EVENT_V2, HeartbeatLogEventV2::new);
+        registry.register(BinlogEventTypeEnum.TRANSACTION_PAYLOAD_EVENT, TransactionPayloadEvent::new);
+        return registry;
+    }
+
+    /**
+     * 注册或覆盖某个事件类型的解析器
+     *
+     * @param eventType 事件类型
+     * @param factory   解析器，传null表示不再解析该类型的事件体
+     */
+    public void register(BinlogEventTypeEnum eventType, BinlogEventFactory factory) {
+        if (eventType.getCode() < 0) {
+            throw new IllegalArgumentException("不支持注册的事件类型：" + eventType);
+        }
+        this.factories[eventType.getCode()] = factory;
+    }
+
+    /**
+     * @param eventType 事件类型
+     * @return 解析器，未注册返回null
+     */
+    public BinlogEventFactory get(BinlogEventTypeEnum eventType) {
+        int code = eventType.getCode();
+        return code < 0 ? null : this.factories[code];
+    }
+}
@@ -54,7 +54,7 @@ public class DeleteRowsEvent extends AbstractRowEvent {
         rows = new ArrayList<>();
         while (in.available() > 0) {
             rows.add(new RowEntry(
-                    new Row(environment.getTableInfo().get(this.tableId), in),
+                    new Row(this.tableMapEvent, in, environment.getRowDecodeMode(), this.columnsBeforeImage),
                     null
             ));
         }
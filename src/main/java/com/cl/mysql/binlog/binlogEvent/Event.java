@@ -1,25 +1,34 @@
 package com.cl.mysql.binlog.binlogEvent;
 
-import cn.hutool.core.util.ReflectUtil;
 import com.cl.mysql.binlog.constant.BinlogCheckSumEnum;
 import com.cl.mysql.binlog.constant.BinlogEventTypeEnum;
+import com.cl.mysql.binlog.constant.ChecksumFailurePolicyEnum;
+import com.cl.mysql.binlog.exception.BinlogChecksumException;
 import com.cl.mysql.binlog.network.BinlogEnvironment;
 import com.cl.mysql.binlog.stream.ByteArrayIndexInputStream;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
 import java.util.Date;
+import java.util.zip.CRC32;
 
 /**
  * @description: binlog-version = 4 的event解析
  * @author: liuzijian
  * @time: 2023-09-05 17:36
  */
+@Slf4j
 @Getter
 public class Event {
 
+    /**
+     * common header的flags：binlog文件正在被写入，FORMAT_DESCRIPTION_EVENT的checksum是在设置这一位之前算的
+     */
+    private static final int LOG_EVENT_BINLOG_IN_USE_F = 0x1;
+
     private final BinlogHeader header;
 
     private final AbstractBinlogEvent body;
@@ -32,6 +41,9 @@ public class Event {
         this.body = body;
     }
 
+    /**
+     * @return 解析出来的事件，事件类型未订阅时返回null
+     */
     public static Event V4Deserialization(BinlogEnvironment environment, ByteArrayIndexInputStream indexInputStream) throws IOException {
         BinlogCheckSumEnum checkSum = environment.getCheckSum();
         if (checkSum == null) {
@@ -41,7 +53,17 @@ public class Event {
         // 这个success 是文档上说 每一个binlog报文都会在前面带上一个字节的 ok byte
         // 文档：https://dev.mysql.com/doc/dev/mysql-server/latest/page_protocol_replication.html#sect_protocol_replication_binlog_stream #Binlog Network Stream
         int success = indexInputStream.readInt(1);
+        return deserialize(environment, indexInputStream, checkSum);
+    }
 
+    /**
+     * 解析一个不带OK byte的事件（common header + 事件体 + checksum），事件体按eventSize切出来交给解析器，
+     * 解析器少读了也不影响下一个事件，TRANSACTION_PAYLOAD_EVENT解压出来的事件就是一个接一个排列的
+     *
+     * @param checkSum 事件末尾checksum的类型，TRANSACTION_PAYLOAD_EVENT内部的事件没有checksum，传{@link BinlogCheckSumEnum#NONE}
+     * @return 解析出来的事件，事件类型未订阅时返回null
+     */
+    public static Event deserialize(BinlogEnvironment environment, ByteArrayIndexInputStream indexInputStream, BinlogCheckSumEnum checkSum) throws IOException {
         int timeStamp = indexInputStream.readInt(4); // seconds since unix epoch
         int eventType = indexInputStream.readInt(1); // See binary_log::Log_event_type
         int serverId = indexInputStream.readInt(4); // server-id of the originating mysql-server. Used to filter out events in circular replication
@@ -50,6 +72,33 @@ public class Event {
         int flags = indexInputStream.readInt(2); // See Binlog Event Header Flags
 
         BinlogEventTypeEnum eventEnum = BinlogEventTypeEnum.getByCode(eventType);
+        if (!environment.isDecodeRequired(eventEnum)) {
+            // 未订阅的事件 只看common header 事件体直接跳过
+            indexInputStream.skip(eventSize - 19);
+            return null;
+        }
+        if (BinlogEventTypeEnum.isRowsEvent(eventEnum) && environment.getTableFilter() != null) {
+            // 行事件的事件体以6个字节的tableId开头，先偷看一眼，被过滤掉的表不创建任何行对象
+            indexInputStream.mark(6);
+            long tableId = indexInputStream.readLong(6);
+            indexInputStream.reset();
+            if (!environment.isTableAccepted(tableId)) {
+                indexInputStream.skip(eventSize - 19);
+                return null;
+            }
+        }
+
+        /**
+         * 文档：https://dev.mysql.com/doc/dev/mysql-server/latest/page_protocol_replication_binlog_event.html
+         * 说了V4版本的binlog的header长度固定为19 （Length of the Binlog Event Header of next events. Should always be 19.）
+         */
+        int commonHdrLength = 19; // （F） = timeStamp + eventType + serverId + eventSize + logPos + flags
+        // 事件体按eventSize切出来，数组和ByteBuffer来源不发生拷贝，校验checksum和解析都在这段内存上进行
+        ByteArrayIndexInputStream bodyInputStream = indexInputStream.slice(eventSize - commonHdrLength);
+        if (environment.shouldVerifyChecksum(checkSum)
+                && !verifyChecksum(environment, bodyInputStream, eventEnum, timeStamp, eventType, serverId, eventSize, logPos, flags)) {
+            return null;
+        }
 
         BinlogHeader header = new BinlogHeader();
         header.setTimeStamp(new Date(timeStamp * 1000L));
@@ -59,7 +108,8 @@ public class Event {
         header.setLogPos(logPos);
         header.setFlags(flags);
         AbstractBinlogEvent body = null;
-        if (eventEnum.getBinlogEventClass() != null) {
+        BinlogEventFactory factory = environment.getEventFactoryRegistry().get(eventEnum);
+        if (factory != null) {
             /**
              * 这个是一般事件的结构
              * CheckSum is attached as the last item to follow the event data.
@@ -85,19 +135,14 @@ public class Event {
              *  实际上是checksum的类型，占用1个字节
              *
              */
-            /**
-             * 文档：https://dev.mysql.com/doc/dev/mysql-server/latest/page_protocol_replication_binlog_event.html
-             * 说了V4版本的binlog的header长度固定为19 （Length of the Binlog Event Header of next events. Should always be 19.）
-             */
-            int commonHdrLength = 19; // （F） = timeStamp + eventType + serverId + eventSize + logPos + flags
             int checkSumLength = checkSum.getLength();   // FormatDescriptionEvent：（A）+ (V) 其他事件：（V）
             if (eventEnum == BinlogEventTypeEnum.FORMAT_DESCRIPTION_EVENT) {
                 checkSumLength += 1;// 加上（A）位长度
             }
-            body = ReflectUtil.newInstance(eventEnum.getBinlogEventClass(),
+            body = factory.create(
                     environment,
                     eventEnum,
-                    indexInputStream,
+                    bodyInputStream,
                     eventSize - commonHdrLength - checkSumLength,
                     checkSum
             );
@@ -107,4 +152,51 @@ public class Event {
         return result;
     }
 
+    /**
+     * 校验事件的CRC32，范围是 common header + 事件体（FormatDescriptionEvent还包括（A）位），不包括末尾4个字节的checksum本身<br>
+     * common header已经读过了，按读出来的值重新计入校验和；事件体直接在报文上计算，不移动读取位置
+     *
+     * @param body 事件体，包含末尾的checksum
+     * @return false：校验不通过并且处理方式为{@link ChecksumFailurePolicyEnum#SKIP}，事件需要丢弃
+     */
+    private static boolean verifyChecksum(BinlogEnvironment environment, ByteArrayIndexInputStream body, BinlogEventTypeEnum eventEnum,
+                                          int timeStamp, int eventType, int serverId, int eventSize, int logPos, int flags) throws IOException {
+        int dataLength = eventSize - 19 - BinlogCheckSumEnum.CRC32.getLength();
+        if (eventEnum == BinlogEventTypeEnum.FORMAT_DESCRIPTION_EVENT) {
+            flags &= ~LOG_EVENT_BINLOG_IN_USE_F;
+        }
+        CRC32 crc = new CRC32();
+        updateCrc32(crc, timeStamp, 4);
+        updateCrc32(crc, eventType, 1);
+        updateCrc32(crc, serverId, 4);
+        updateCrc32(crc, eventSize, 4);
+        updateCrc32(crc, logPos, 4);
+        updateCrc32(crc, flags, 2);
+        body.updateCrc32(crc, dataLength);
+        body.mark(0);
+        body.skip(dataLength);
+        long expected = body.readLong(BinlogCheckSumEnum.CRC32.getLength());
+        body.reset();
+
+        long actual = crc.getValue();
+        if (expected == actual) {
+            environment.getChecksumStatistics().recordVerified(eventSize);
+            return true;
+        }
+        environment.getChecksumStatistics().recordFailed();
+        BinlogChecksumException e = new BinlogChecksumException(eventEnum, logPos & 0xFFFFFFFFL, expected, actual);
+        ChecksumFailurePolicyEnum policy = environment.getChecksumFailurePolicy();
+        if (policy == ChecksumFailurePolicyEnum.THROW) {
+            throw e;
+        }
+        log.warn(policy == ChecksumFailurePolicyEnum.SKIP ? e.getMessage() + "，事件已丢弃" : e.getMessage());
+        return policy != ChecksumFailurePolicyEnum.SKIP;
+    }
+
+    private static void updateCrc32(CRC32 crc, int value, int length) {
+        for (int i = 0; i < length; i++) {
+            crc.update(value >> (i << 3));
+        }
+    }
+
 }
@@ -4,8 +4,10 @@ import com.cl.mysql.binlog.constant.BinlogCheckSumEnum;
 import com.cl.mysql.binlog.constant.BinlogEventTypeEnum;
 import com.cl.mysql.binlog.network.BinlogEnvironment;
 import com.cl.mysql.binlog.stream.ByteArrayIndexInputStream;
+import lombok.Getter;
 
 import java.io.IOException;
+import java.util.UUID;
 
 /**
  * <a href="https://dev.mysql.com/doc/dev/mysql-server/latest/classbinary__log_1_1Gtid__event.html">官方文档</a><br>
@@ -14,6 +16,7 @@ import java.io.IOException;
  * @author: liuzijian
  * @time: 2023-09-20 10:03
  */
+@Getter
 public class GtidEvent extends AbstractBinlogEvent {
 
     /**
@@ -34,7 +37,7 @@ public class GtidEvent extends AbstractBinlogEvent {
      * 表示SID的UUID
      * </p>
      */
-    private final String SID;
+    private final UUID SID;
 
     /**
      * Group number, second component of GTID.
@@ -72,7 +75,7 @@ public class GtidEvent extends AbstractBinlogEvent {
 
     private final Long originalCommitTimestamp;
 
-    private final Object transactionLength;
+    private final Long transactionLength;
 
     private final Integer immediateServerVersion;
 
@@ -88,16 +91,43 @@ public class GtidEvent extends AbstractBinlogEvent {
     public GtidEvent(BinlogEnvironment environment, BinlogEventTypeEnum binlogEvent, ByteArrayIndexInputStream in, int bodyLength, BinlogCheckSumEnum checkSum) throws IOException {
         super(environment, binlogEvent, in, bodyLength, checkSum);
         this.gtidFlags = in.readInt(1);
-        this.SID = in.readString(16);
+        // uuid的16个字节按文本的顺序存放，即大端
+        this.SID = new UUID(in.readLongBigEndian(8), in.readLongBigEndian(8));
         this.GNO = in.readLong(8);
         this.logicalClockTimestampTypeCode = in.readInt(1);
         this.lastCommitted = in.readLong(8);
         this.sequenceNumber = in.readLong(8);
-        this.immediateCommitTimestamp = in.readLong(7);
-        this.originalCommitTimestamp = in.readLong(7);
-        this.transactionLength = in.readLenencInteger().intValue();
-        this.immediateServerVersion = in.readInt(4);
-        this.originalServerVersion = in.readInt(4);
-        System.out.println(1);
+        /**
+         * 以下字段是mysql8.0新增的，5.7的GTID事件到这里就结束了
+         * commit timestamp占7个字节，最高位为1表示后面还有7个字节的original_commit_timestamp，否则与immediate_commit_timestamp相同；
+         * server version同理，占4个字节，最高位为1表示后面还有original_server_version
+         */
+        if (in.available() > checkSum.getLength()) {
+            long immediate = in.readLong(7);
+            this.immediateCommitTimestamp = immediate & ~(1L << 55);
+            this.originalCommitTimestamp = (immediate & (1L << 55)) != 0 ? in.readLong(7) : this.immediateCommitTimestamp;
+            this.transactionLength = in.readLenencInteger().longValue();
+            if (in.available() > checkSum.getLength()) {
+                int immediateVersion = in.readInt(4);
+                this.immediateServerVersion = immediateVersion & 0x7FFFFFFF;
+                this.originalServerVersion = immediateVersion < 0 ? in.readInt(4) : this.immediateServerVersion;
+            } else {
+                this.immediateServerVersion = null;
+                this.originalServerVersion = null;
+            }
+        } else {
+            this.immediateCommitTimestamp = null;
+            this.originalCommitTimestamp = null;
+            this.transactionLength = null;
+            this.immediateServerVersion = null;
+            this.originalServerVersion = null;
+        }
+    }
+
+    /**
+     * @return uuid:gno 格式的GTID
+     */
+    public String getGtid() {
+        return this.SID + ":" + this.GNO;
     }
 }
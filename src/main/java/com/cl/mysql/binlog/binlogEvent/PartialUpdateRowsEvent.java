@@ -0,0 +1,36 @@
+package com.cl.mysql.binlog.binlogEvent;
+
+import com.cl.mysql.binlog.constant.BinlogCheckSumEnum;
+import com.cl.mysql.binlog.constant.BinlogEventTypeEnum;
+import com.cl.mysql.binlog.entity.Row;
+import com.cl.mysql.binlog.network.BinlogEnvironment;
+import com.cl.mysql.binlog.stream.ByteArrayIndexInputStream;
+
+import java.io.IOException;
+
+/**
+ * <a href="https://dev.mysql.com/doc/dev/mysql-server/latest/classbinary__log_1_1Update__rows__event.html">官方文档update_row_event</a>
+ * <p>
+ * mysql开启binlog_row_value_options=PARTIAL_JSON后，用JSON_SET、JSON_REPLACE、JSON_REMOVE更新JSON字段时产生，
+ * 格式与UPDATE_ROWS_EVENT_V2一致，只是后镜像多了value_options，局部更新的JSON字段只记录操作列表，见{@link Row#getJsonDiffs(int)}
+ * </p>
+ *
+ * @description: JSON局部更新事件
+ * @author: liuzijian
+ * @time: 2023-09-25 11:00
+ */
+public class PartialUpdateRowsEvent extends UpdateRowsEvent {
+
+    public PartialUpdateRowsEvent(BinlogEnvironment environment, BinlogEventTypeEnum binlogEvent, ByteArrayIndexInputStream in, int bodyLength, BinlogCheckSumEnum checkSum) throws IOException {
+        super(environment, binlogEvent, in, bodyLength, checkSum);
+    }
+
+    @Override
+    protected Row parseAfterImage(ByteArrayIndexInputStream in, Row before) throws IOException {
+        Row after = new Row(this.tableMapEvent, in, environment.getRowDecodeMode(), this.getColumnsAfterImage(), this.getColumnsBeforeImage());
+        if (environment.isApplyPartialJson()) {
+            after.applyJsonDiffs(before);
+        }
+        return after;
+    }
+}
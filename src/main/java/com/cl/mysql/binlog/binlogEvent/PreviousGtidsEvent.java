@@ -0,0 +1,28 @@
+package com.cl.mysql.binlog.binlogEvent;
+
+import com.cl.mysql.binlog.constant.BinlogCheckSumEnum;
+import com.cl.mysql.binlog.constant.BinlogEventTypeEnum;
+import com.cl.mysql.binlog.entity.GtidSet;
+import com.cl.mysql.binlog.network.BinlogEnvironment;
+import com.cl.mysql.binlog.stream.ByteArrayIndexInputStream;
+import lombok.Getter;
+
+import java.io.IOException;
+
+/**
+ * @description: <a href="https://dev.mysql.com/doc/dev/mysql-server/latest/classbinary__log_1_1Previous__gtids__event.html">官方文档</a>
+ * <p>
+ * 每个binlog文件开头都有一个，记录该文件之前所有binlog文件执行过的GTID集合，事件体就是{@link GtidSet}的二进制格式
+ * @author: liuzijian
+ * @time: 2023-09-27 10:40
+ */
+@Getter
+public class PreviousGtidsEvent extends AbstractBinlogEvent {
+
+    private final GtidSet gtidSet;
+
+    public PreviousGtidsEvent(BinlogEnvironment environment, BinlogEventTypeEnum binlogEvent, ByteArrayIndexInputStream in, int bodyLength, BinlogCheckSumEnum checkSum) throws IOException {
+        super(environment, binlogEvent, in, bodyLength, checkSum);
+        this.gtidSet = GtidSet.decode(in);
+    }
+}
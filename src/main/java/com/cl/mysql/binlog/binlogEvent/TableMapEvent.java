@@ -4,6 +4,7 @@ import com.cl.mysql.binlog.constant.BinlogCheckSumEnum;
 import com.cl.mysql.binlog.constant.BinlogEventTypeEnum;
 import com.cl.mysql.binlog.constant.TableMapColumnTypeEnum;
 import com.cl.mysql.binlog.constant.TableMapOptMetadaTypeEnum;
+import com.cl.mysql.binlog.decoder.RowDecoderPlan;
 import com.cl.mysql.binlog.network.BinlogEnvironment;
 import com.cl.mysql.binlog.stream.ByteArrayIndexInputStream;
 import com.cl.mysql.binlog.util.BitMapUtil;
@@ -12,8 +13,10 @@ import lombok.Getter;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.BitSet;
 import java.util.List;
+import java.util.zip.CRC32;
 
 /**
  * @description: <a href="https://dev.mysql.com/doc/dev/mysql-server/latest/classbinary__log_1_1Table__map__event.html">官方文档</a>
@@ -66,6 +69,46 @@ public class TableMapEvent extends AbstractBinlogEvent {
      */
     private final OptionalMetadata optionalMetadataFields;
 
+    /**
+     * 是否通过了库表过滤，false表示这张表的行事件直接跳过不解析
+     */
+    private final boolean accepted;
+
+    /**
+     * 需要解析的字段下标，为空表示解析全部字段，见{@link com.cl.mysql.binlog.network.ColumnProjection}
+     */
+    private final BitSet projection;
+
+    /**
+     * 表结构指纹：事件体除tableId、flags外的部分（库名、表名、字段类型、元数据、可选元数据）的CRC32，
+     * 用来判断同一个tableId的表结构有没有变化，见{@link com.cl.mysql.binlog.network.TableMapCache}
+     */
+    private final long schemaFingerprint;
+
+    /**
+     * 行解析计划，被库表过滤排除的表为空
+     */
+    private final RowDecoderPlan decoderPlan;
+
+    /**
+     * 注册到{@link BinlogEventFactoryRegistry}的解析入口<br>
+     * mysql在每组行事件前面都会写一个TableMapEvent，同一张表的内容几乎不变，
+     * 事件体与缓存里同一个tableId的表定义逐字节一致时直接返回缓存的对象（连同行解析计划），不再重新解析，也不分配新对象
+     *
+     * @param bodyLength eventSize 减去 checkSum之后的值
+     */
+    public static TableMapEvent deserialize(BinlogEnvironment environment, BinlogEventTypeEnum binlogEvent, ByteArrayIndexInputStream in, int bodyLength, BinlogCheckSumEnum checkSum) throws IOException {
+        in.mark(0);
+        long tableId = in.readLong(6);
+        in.skip(2);
+        TableMapEvent cached = environment.getTableMapCache().reuse(tableId, in, bodyLength - 8);
+        if (cached != null) {
+            return cached;
+        }
+        in.reset();
+        return new TableMapEvent(environment, binlogEvent, in, bodyLength, checkSum);
+    }
+
     /**
      * @param in
      * @param bodyLength eventSize 减去 checkSum之后的值
@@ -74,6 +117,13 @@ public class TableMapEvent extends AbstractBinlogEvent {
         super(environment, binlogEvent, in, bodyLength, checkSum);
         this.tableId = in.readLong(6);
         this.flags = in.readInt(2);
+        // 表定义的原始字节留给缓存，下次同一个tableId的事件体完全一致时直接复用本对象
+        in.mark(0);
+        byte[] definition = in.readBytes(bodyLength - 8);
+        in.reset();
+        CRC32 fingerprint = new CRC32();
+        fingerprint.update(definition);
+        this.schemaFingerprint = fingerprint.getValue();
 
         int dataBaseNameLenth = in.readInt(1);
         this.dataBaseName = in.readString(dataBaseNameLenth);
@@ -124,8 +174,12 @@ public class TableMapEvent extends AbstractBinlogEvent {
             this.optionalMetadataFields = null;
         }
 
+        this.accepted = environment.acceptTable(this.dataBaseName, this.tableName);
+        this.projection = this.accepted ? environment.resolveProjection(this) : null;
+        this.decoderPlan = this.accepted ? RowDecoderPlan.compile(this, environment) : null;
+
         // 缓存起来
-        environment.getTableInfo().put(this.tableId, this);
+        environment.getTableMapCache().put(this, definition);
     }
 
     @Getter
@@ -198,8 +252,7 @@ public class TableMapEvent extends AbstractBinlogEvent {
         private byte[] enumAndSetColumnCharset;
 
         public OptionalMetadata(ByteArrayIndexInputStream in, BinlogCheckSumEnum checkSum, List<TableMapColumnTypeEnum> columnType) throws IOException {
-            int currentSurplusLength = in.available() - checkSum.getLength();// 减去checkSum的长度
-            while (currentSurplusLength != 0) {
+            while (in.available() > checkSum.getLength()) {// 剩下的除了checkSum都是可选元数据
                 TableMapOptMetadaTypeEnum type = TableMapOptMetadaTypeEnum.getByCode(in.readInt(1));
                 if (type == null) {
                     break;
@@ -240,10 +293,42 @@ public class TableMapEvent extends AbstractBinlogEvent {
                         this.enumAndSetColumnCharset = this.parseEnumAndSetColumnCharset(in, length);
                         break;
                 }
-                currentSurplusLength -= (1 + length);
             }
         }
 
+        /**
+         * 把DEFAULT_CHARSET / COLUMN_CHARSET换算成每个字符类型字段的collation id<br>
+         * DEFAULT_CHARSET：默认collation（packed integer），后面跟着若干对 [字符字段的序号, collation]，只记录和默认值不一样的字段；<br>
+         * COLUMN_CHARSET：每个字符字段一个collation（packed integer）。<br>
+         * 字符字段是指真实类型为CHAR、VARCHAR、BLOB、TEXT的字段（不包括ENUM、SET），序号只在字符字段之间计数
+         *
+         * @param characterColumnCount 字符类型字段的个数
+         * @return 按字符字段顺序排列的collation id，没有字符集元数据时返回null
+         */
+        public int[] getCharacterColumnCollations(int characterColumnCount) throws IOException {
+            int[] result = new int[characterColumnCount];
+            if (this.columnCharset != null) {
+                ByteArrayIndexInputStream inputStream = new ByteArrayIndexInputStream(this.columnCharset);
+                for (int i = 0; i < characterColumnCount && inputStream.available() != 0; i++) {
+                    result[i] = inputStream.readLenencInteger().intValue();
+                }
+                return result;
+            }
+            if (this.defaultCharset != null) {
+                ByteArrayIndexInputStream inputStream = new ByteArrayIndexInputStream(this.defaultCharset);
+                Arrays.fill(result, inputStream.readLenencInteger().intValue());
+                while (inputStream.available() != 0) {
+                    int index = inputStream.readLenencInteger().intValue();
+                    int collation = inputStream.readLenencInteger().intValue();
+                    if (index < characterColumnCount) {
+                        result[index] = collation;
+                    }
+                }
+                return result;
+            }
+            return null;
+        }
+
         public BitSet parseSignedness(ByteArrayIndexInputStream in, int length, List<TableMapColumnTypeEnum> columnType) throws IOException {
             // 这里取出来的值是个小端值（即：本来是0000 0001 小端-> 1000 0000），所以要转成大端值（1000 0000 -> 0000 0001）。（测试之后知道的）
             return BitMapUtil.convertByLittleEndianArray(
@@ -262,8 +347,7 @@ public class TableMapEvent extends AbstractBinlogEvent {
         }
 
         public List<String> parseColumnName(ByteArrayIndexInputStream in, int length) throws IOException {
-            byte[] bytes = in.readBytes(length);
-            ByteArrayIndexInputStream inputStream = new ByteArrayIndexInputStream(bytes);
+            ByteArrayIndexInputStream inputStream = in.slice(length);
             List<String> result = new ArrayList<>();
             while (inputStream.available() != 0) {
                 int strLength = inputStream.readInt(1);
@@ -273,8 +357,7 @@ public class TableMapEvent extends AbstractBinlogEvent {
         }
 
         public List<String[]> parseSetStrValue(ByteArrayIndexInputStream in, int length) throws IOException {
-            byte[] bytes = in.readBytes(length);
-            ByteArrayIndexInputStream inputStream = new ByteArrayIndexInputStream(bytes);
+            ByteArrayIndexInputStream inputStream = in.slice(length);
             List<String[]> result = new ArrayList<>();
             while (inputStream.available() != 0) {
                 int strLength = inputStream.readLenencInteger().intValue();
@@ -289,8 +372,7 @@ public class TableMapEvent extends AbstractBinlogEvent {
         }
 
         public List<String[]> parseEnumStrValue(ByteArrayIndexInputStream in, int length, List<TableMapColumnTypeEnum> columnType) throws IOException {
-            byte[] bytes = in.readBytes(length);
-            ByteArrayIndexInputStream inputStream = new ByteArrayIndexInputStream(bytes);
+            ByteArrayIndexInputStream inputStream = in.slice(length);
             List<String[]> result = new ArrayList<>();
             while (inputStream.available() != 0) {
                 int strLength = inputStream.readLenencInteger().intValue();
@@ -0,0 +1,132 @@
+package com.cl.mysql.binlog.binlogEvent;
+
+import com.cl.mysql.binlog.constant.BinlogCheckSumEnum;
+import com.cl.mysql.binlog.constant.BinlogEventTypeEnum;
+import com.cl.mysql.binlog.constant.PayloadCompressionTypeEnum;
+import com.cl.mysql.binlog.network.BinlogEnvironment;
+import com.cl.mysql.binlog.stream.ByteArrayIndexInputStream;
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdInputStream;
+import lombok.Getter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @description: mysql8.0.20开启binlog_transaction_compression=ON后，一个事务内的所有事件（TableMap、行事件等）压缩后放在这个事件里，
+ * <a href="https://dev.mysql.com/doc/dev/mysql-server/latest/classbinary__log_1_1Transaction__payload__event.html">官方文档</a>
+ * <p>
+ * 事件体开头是若干个TLV格式的字段，type、length、value都是packed integer，type为0表示字段结束，后面紧跟着payload：<br>
+ * 1：payload的字节数，2：压缩算法（见{@link PayloadCompressionTypeEnum}），3：解压后的字节数<br>
+ * 解压后是一个接一个完整的事件（common header + 事件体），没有OK byte也没有checksum，
+ * 按{@link Event#deserialize(BinlogEnvironment, ByteArrayIndexInputStream, BinlogCheckSumEnum)}逐个解析，表结构缓存与外层共用
+ * </p>
+ * @author: liuzijian
+ * @time: 2023-09-25 14:10
+ */
+@Getter
+public class TransactionPayloadEvent extends AbstractBinlogEvent {
+
+    private static final int OTW_PAYLOAD_HEADER_END_MARK = 0;
+
+    private static final int OTW_PAYLOAD_SIZE_FIELD = 1;
+
+    private static final int OTW_PAYLOAD_COMPRESSION_TYPE_FIELD = 2;
+
+    private static final int OTW_PAYLOAD_UNCOMPRESSED_SIZE_FIELD = 3;
+
+    /**
+     * {@link Zstd#getFrameContentSize(byte[])}：帧头里没有记录大小，-2表示帧头错误
+     */
+    private static final long ZSTD_CONTENT_SIZE_UNKNOWN = -1;
+
+    private int payloadSize;
+
+    private PayloadCompressionTypeEnum compressionType;
+
+    private int uncompressedSize;
+
+    /**
+     * 解压出来的事件，未订阅的事件、被过滤的表的行事件不在里面
+     */
+    private final List<Event> events;
+
+    public TransactionPayloadEvent(BinlogEnvironment environment, BinlogEventTypeEnum binlogEvent, ByteArrayIndexInputStream in, int bodyLength, BinlogCheckSumEnum checkSum) throws IOException {
+        super(environment, binlogEvent, in, bodyLength, checkSum);
+        ByteArrayIndexInputStream body = in.slice(bodyLength);
+        int compressionCode = PayloadCompressionTypeEnum.NONE.getCode();
+        while (body.available() > 0) {
+            int type = body.readLenencInteger().intValue();
+            if (type == OTW_PAYLOAD_HEADER_END_MARK) {
+                break;
+            }
+            int length = body.readLenencInteger().intValue();
+            switch (type) {
+                case OTW_PAYLOAD_SIZE_FIELD:
+                    this.payloadSize = body.readLenencInteger().intValue();
+                    break;
+                case OTW_PAYLOAD_COMPRESSION_TYPE_FIELD:
+                    compressionCode = body.readLenencInteger().intValue();
+                    break;
+                case OTW_PAYLOAD_UNCOMPRESSED_SIZE_FIELD:
+                    this.uncompressedSize = body.readLenencInteger().intValue();
+                    break;
+                default:
+                    body.skip(length);
+            }
+        }
+        this.compressionType = PayloadCompressionTypeEnum.getByCode(compressionCode);
+        if (this.compressionType == null) {
+            throw new IOException("不支持的TRANSACTION_PAYLOAD_EVENT压缩算法：" + compressionCode);
+        }
+        ByteArrayIndexInputStream events = this.decompress(body.readBytes(this.payloadSize));
+        List<Event> result = new ArrayList<>();
+        while (events.available() > 0) {
+            Event event = Event.deserialize(environment, events, BinlogCheckSumEnum.NONE);
+            if (event != null) {
+                result.add(event);
+            }
+        }
+        this.events = Collections.unmodifiableList(result);
+    }
+
+    private ByteArrayIndexInputStream decompress(byte[] payload) throws IOException {
+        if (this.compressionType == PayloadCompressionTypeEnum.NONE) {
+            return new ByteArrayIndexInputStream(payload);
+        }
+        // 服务端总会写OTW_PAYLOAD_UNCOMPRESSED_SIZE_FIELD，没有时才看zstd帧头里的大小
+        long size = this.uncompressedSize > 0 ? this.uncompressedSize : Zstd.getFrameContentSize(payload);
+        if (size == ZSTD_CONTENT_SIZE_UNKNOWN) {
+            return decompressStreaming(payload);
+        } else if (size < 0) {
+            throw new IOException("TRANSACTION_PAYLOAD_EVENT的zstd帧头错误");
+        } else if (size > Integer.MAX_VALUE) {
+            throw new IOException("TRANSACTION_PAYLOAD_EVENT解压后超过2GB：" + size);
+        }
+        byte[] result = new byte[(int) size];
+        long length = Zstd.decompressByteArray(result, 0, result.length, payload, 0, payload.length);
+        if (Zstd.isError(length)) {
+            throw new IOException("解压TRANSACTION_PAYLOAD_EVENT失败：" + Zstd.getErrorName(length));
+        }
+        return new ByteArrayIndexInputStream(result, 0, (int) length);
+    }
+
+    /**
+     * 帧头里没有记录解压后的大小时按流解压
+     */
+    private static ByteArrayIndexInputStream decompressStreaming(byte[] payload) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(payload.length * 4);
+        try (ZstdInputStream in = new ZstdInputStream(new ByteArrayInputStream(payload))) {
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                out.write(buffer, 0, n);
+            }
+        }
+        return new ByteArrayIndexInputStream(out.toByteArray());
+    }
+}
@@ -66,11 +66,20 @@ public class UpdateRowsEvent extends AbstractRowEvent {
 
         rows = new ArrayList<>();
         while (in.available() > 0) {
-            Row before = new Row(environment.getTableInfo().get(this.tableId), in);
-            Row after = new Row(environment.getTableInfo().get(this.tableId), in);
+            Row before = new Row(this.tableMapEvent, in, environment.getRowDecodeMode(), this.columnsBeforeImage);
+            Row after = this.parseAfterImage(in, before);
             rows.add(new RowEntry(before, after));
         }
     }
 
+    /**
+     * 解析后镜像
+     *
+     * @param before 同一行的前镜像
+     */
+    protected Row parseAfterImage(ByteArrayIndexInputStream in, Row before) throws IOException {
+        return new Row(this.tableMapEvent, in, environment.getRowDecodeMode(), this.columnsAfterImage);
+    }
+
 
 }
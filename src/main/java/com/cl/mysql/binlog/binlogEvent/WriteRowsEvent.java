@@ -55,7 +55,7 @@ public class WriteRowsEvent extends AbstractRowEvent {
         while (in.available() > 0) {
             rows.add(new RowEntry(
                     null,
-                    new Row(environment.getTableInfo().get(this.tableId), in)
+                    new Row(this.tableMapEvent, in, environment.getRowDecodeMode(), this.columnsAfterImage)
             ));
         }
     }
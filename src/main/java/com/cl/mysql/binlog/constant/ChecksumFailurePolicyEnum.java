@@ -0,0 +1,26 @@
+package com.cl.mysql.binlog.constant;
+
+/**
+ * @description: 事件校验和不一致时的处理方式，不管哪种方式都会计入{@link com.cl.mysql.binlog.entity.ChecksumStatistics#getFailedEvents()}
+ * @author: liuzijian
+ * @time: 2023-09-26 09:35
+ */
+public enum ChecksumFailurePolicyEnum {
+
+    /**
+     * 抛出{@link com.cl.mysql.binlog.exception.BinlogChecksumException}，监听中断
+     */
+    THROW,
+
+    /**
+     * 打印告警日志，事件照常解析并分发
+     */
+    WARN,
+
+    /**
+     * 打印告警日志，丢弃该事件
+     */
+    SKIP,
+    ;
+
+}
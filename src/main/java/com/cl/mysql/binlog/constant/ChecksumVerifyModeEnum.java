@@ -0,0 +1,27 @@
+package com.cl.mysql.binlog.constant;
+
+/**
+ * @description: 事件CRC32校验和的校验方式，只有服务端binlog_checksum=CRC32时生效
+ * @author: liuzijian
+ * @time: 2023-09-26 09:30
+ */
+public enum ChecksumVerifyModeEnum {
+
+    /**
+     * 不校验，checksum直接跳过
+     */
+    OFF,
+
+    /**
+     * 每个需要解析的事件都校验
+     */
+    VERIFY,
+
+    /**
+     * 每{@link com.cl.mysql.binlog.network.ClientProperties#getChecksumSampleInterval()}个需要解析的事件校验一个，
+     * 用少量开销发现链路上持续出现的数据损坏
+     */
+    SAMPLE,
+    ;
+
+}
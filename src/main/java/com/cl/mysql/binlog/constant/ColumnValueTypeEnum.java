@@ -0,0 +1,26 @@
+package com.cl.mysql.binlog.constant;
+
+/**
+ * @description: 字段值在{@link com.cl.mysql.binlog.entity.Row}中的存储方式
+ * @author: liuzijian
+ * @time: 2023-09-23 14:10
+ */
+public enum ColumnValueTypeEnum {
+
+    /**
+     * 存在long数组里，整数、YEAR、ENUM、老版本TIMESTAMP等
+     */
+    LONG,
+
+    /**
+     * 存在double数组里，FLOAT、DOUBLE
+     */
+    DOUBLE,
+
+    /**
+     * 存在Object数组里，其余类型
+     */
+    OBJECT,
+    ;
+
+}
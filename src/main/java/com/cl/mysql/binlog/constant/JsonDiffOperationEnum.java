@@ -0,0 +1,41 @@
+package com.cl.mysql.binlog.constant;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * @description: PARTIAL_UPDATE_ROWS_EVENT中json局部更新的操作类型，<a href="https://github.com/mysql/mysql-server/blob/8.0/sql/json_diff.h">源码：搜enum_json_diff_operation</a>
+ * @author: liuzijian
+ * @time: 2023-09-25 09:30
+ */
+@AllArgsConstructor
+@Getter
+public enum JsonDiffOperationEnum {
+
+    /**
+     * 替换路径上已有的值，对应JSON_REPLACE、JSON_SET
+     */
+    REPLACE(0),
+
+    /**
+     * 在路径上插入新值，数组下标超过长度时追加到末尾，对应JSON_INSERT、JSON_ARRAY_INSERT、JSON_SET
+     */
+    INSERT(1),
+
+    /**
+     * 删除路径上的值，对应JSON_REMOVE
+     */
+    REMOVE(2),
+    ;
+
+    private final int code;
+
+    public static JsonDiffOperationEnum getByCode(int code) {
+        for (JsonDiffOperationEnum e : values()) {
+            if (e.code == code) {
+                return e;
+            }
+        }
+        return null;
+    }
+}
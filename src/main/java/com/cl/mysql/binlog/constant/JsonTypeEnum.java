@@ -3,11 +3,8 @@ package com.cl.mysql.binlog.constant;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 
-import java.util.HashMap;
-import java.util.Map;
-
 /**
- * @description:
+ * @description: mysql二进制json的值类型，<a href="https://github.com/mysql/mysql-server/blob/8.0/sql-common/json_binary.h">源码：搜JSONB_TYPE_SMALL_OBJECT</a>
  * @author: liuzijian
  * @time: 2023-09-18 14:45
  */
@@ -33,17 +30,19 @@ public enum JsonTypeEnum {
 
     private final int code;
 
-    private static Map<Integer, JsonTypeEnum> cache;
+    /**
+     * 解析json时每个值都要查一次，用数组代替Map避免装箱
+     */
+    private static final JsonTypeEnum[] cache = new JsonTypeEnum[0x10];
 
     static {
-        cache = new HashMap<>(values().length);
         for (JsonTypeEnum e : values()) {
-            cache.put(e.getCode(), e);
+            cache[e.getCode()] = e;
         }
     }
 
     public static JsonTypeEnum getByCode(int code) {
-        return cache.get(code);
+        return code >= 0 && code < cache.length ? cache[code] : null;
     }
 
 }
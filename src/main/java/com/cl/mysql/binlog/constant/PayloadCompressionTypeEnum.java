@@ -0,0 +1,30 @@
+package com.cl.mysql.binlog.constant;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * @description: TRANSACTION_PAYLOAD_EVENT的压缩算法，<a href="https://github.com/mysql/mysql-server/blob/8.0/libbinlogevents/include/compression/base.h">源码：搜type</a>
+ * @author: liuzijian
+ * @time: 2023-09-25 14:00
+ */
+@AllArgsConstructor
+@Getter
+public enum PayloadCompressionTypeEnum {
+
+    ZSTD(0),
+
+    NONE(255),
+    ;
+
+    private final int code;
+
+    public static PayloadCompressionTypeEnum getByCode(int code) {
+        for (PayloadCompressionTypeEnum e : values()) {
+            if (e.code == code) {
+                return e;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,22 @@
+package com.cl.mysql.binlog.constant;
+
+/**
+ * @description: 行值的解析方式
+ * @author: liuzijian
+ * @time: 2023-09-22 14:20
+ */
+public enum RowDecodeModeEnum {
+
+    /**
+     * 创建{@link com.cl.mysql.binlog.entity.Row}时就把所有字段解析出来
+     */
+    EAGER,
+
+    /**
+     * 创建{@link com.cl.mysql.binlog.entity.Row}时只根据表结构算出每个字段在事件报文中的偏移量，
+     * 字段第一次被读取时才解析，适合宽表只读少数几个字段的场景
+     */
+    LAZY,
+    ;
+
+}
@@ -0,0 +1,40 @@
+package com.cl.mysql.binlog.constant;
+
+/**
+ * @description: 时间类型字段的解析方式
+ * <p>
+ * 不管哪种方式，解析时都只把字段读成一个long存起来，不分配对象，{@link com.cl.mysql.binlog.entity.Row#getLong(int)}拿到的就是这个long，
+ * 调用{@link com.cl.mysql.binlog.entity.Row#getValue(int)}时才按下面的方式转成对象
+ * </p>
+ * <pre>
+ * 字段类型           long的含义                               JAVA_TIME        LEGACY
+ * DATE              3个字节的原始值（y * 512 + m * 32 + d）    LocalDate        java.sql.Date
+ * TIME              原始值 HHMMSS                            LocalTime        java.sql.Time
+ * TIME2             mysql的packed time（整数部分 << 24 + 微秒）LocalTime        Long（毫秒）
+ * DATETIME          原始值 YYYYMMDDhhmmss                    LocalDateTime    java.util.Date
+ * DATETIME2         mysql的packed datetime（整数部分 << 24 + 微秒）LocalDateTime java.util.Date
+ * TIMESTAMP         unix时间戳，单位微秒                       Instant          Long（毫秒）
+ * TIMESTAMP2        unix时间戳，单位微秒                       Instant          java.sql.Timestamp
+ * </pre>
+ * @author: liuzijian
+ * @time: 2023-09-24 10:00
+ */
+public enum TemporalDecodeModeEnum {
+
+    /**
+     * 纯计算转成java.time对象，不依赖jvm时区；值为0000-00-00的日期返回null，TIME超出一天的范围（负数或者大于等于24小时）时返回Duration
+     */
+    JAVA_TIME,
+
+    /**
+     * 默认方式，与旧版本一致，通过默认时区的Calendar转成java.util.Date系列的对象
+     */
+    LEGACY,
+
+    /**
+     * 直接返回上面表格中的long，不分配任何对象
+     */
+    RAW,
+    ;
+
+}
@@ -0,0 +1,24 @@
+package com.cl.mysql.binlog.constant;
+
+/**
+ * @description: 与mysql服务器通讯的传输方式
+ * @author: liuzijian
+ * @time: 2023-09-21 10:12
+ */
+public enum TransportTypeEnum {
+
+    /**
+     * 阻塞的{@link java.net.Socket}，通过socket输入流逐个报文读取
+     */
+    SOCKET,
+
+    /**
+     * 基于{@link java.nio.channels.SocketChannel}，一次系统调用尽可能多地读入可复用的直接内存缓冲区，再在缓冲区内拆分报文，
+     * 报文体批量拷贝成独立的数组交给解析（事件会引用报文内存，不能直接用会被覆盖的缓冲区）
+     * <p>
+     * 注意：开启ssl后会退回到{@link #SOCKET}的读取方式
+     */
+    NIO,
+    ;
+
+}
@@ -0,0 +1,26 @@
+package com.cl.mysql.binlog.constant;
+
+/**
+ * @description: 事件流水线里读取线程和解析线程互相等待的方式
+ * @author: liuzijian
+ * @time: 2023-09-28 10:00
+ */
+public enum WaitStrategyEnum {
+
+    /**
+     * 没有数据时挂起线程，另一端有数据时唤醒，不占用cpu，延迟最高
+     */
+    BLOCKING,
+
+    /**
+     * 先自旋一段时间再Thread.yield()让出cpu，延迟和cpu占用折中
+     */
+    YIELDING,
+
+    /**
+     * 一直自旋，延迟最低，但两个线程各占满一个核，只适合核数充足且对延迟敏感的场景，两个线程抢同一个核时会比{@link #BLOCKING}慢得多
+     */
+    BUSY_SPIN,
+    ;
+
+}
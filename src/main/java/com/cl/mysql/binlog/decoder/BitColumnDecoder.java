@@ -0,0 +1,24 @@
+package com.cl.mysql.binlog.decoder;
+
+import com.cl.mysql.binlog.constant.TableMapColumnTypeEnum;
+import com.cl.mysql.binlog.stream.ByteArrayIndexInputStream;
+import com.cl.mysql.binlog.util.BitMapUtil;
+
+import java.io.IOException;
+
+/**
+ * @description: BIT，bitmap实现，返回BitSet
+ * @author: liuzijian
+ * @time: 2023-09-23 10:40
+ */
+public class BitColumnDecoder extends FixedLengthColumnDecoder {
+
+    public BitColumnDecoder(TableMapColumnTypeEnum columnType, int meta) {
+        super(columnType, meta, ((((meta >> 8) * 8) + (meta & 0xFF)) + 7) / 8);
+    }
+
+    @Override
+    public Object decode(ByteArrayIndexInputStream in) throws IOException {
+        return BitMapUtil.parseBitMapByBigEndian(in.readBytes(this.length));
+    }
+}
@@ -0,0 +1,31 @@
+package com.cl.mysql.binlog.decoder;
+
+import com.cl.mysql.binlog.constant.TableMapColumnTypeEnum;
+import com.cl.mysql.binlog.stream.ByteArrayIndexInputStream;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+
+/**
+ * @description: BLOB、TEXT、GEOMETRY，meta为长度前缀占用的字节数，返回原始字节
+ * <p>
+ * TEXT字段记录了字符集，{@link com.cl.mysql.binlog.entity.Row#getString(int)}按它解码；GEOMETRY的charset为null
+ * @author: liuzijian
+ * @time: 2023-09-23 10:48
+ */
+@Getter
+public class BlobColumnDecoder extends LengthPrefixedColumnDecoder {
+
+    private final Charset charset;
+
+    public BlobColumnDecoder(TableMapColumnTypeEnum columnType, int meta, Charset charset) {
+        super(columnType, meta, meta);
+        this.charset = charset;
+    }
+
+    @Override
+    public Object decode(ByteArrayIndexInputStream in) throws IOException {
+        return in.readBytes(this.readLength(in));
+    }
+}
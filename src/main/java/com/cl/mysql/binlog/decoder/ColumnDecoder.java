@@ -0,0 +1,99 @@
+package com.cl.mysql.binlog.decoder;
+
+import com.cl.mysql.binlog.constant.ColumnValueTypeEnum;
+import com.cl.mysql.binlog.constant.TableMapColumnTypeEnum;
+import com.cl.mysql.binlog.stream.ByteArrayIndexInputStream;
+import lombok.Getter;
+
+import java.io.IOException;
+
+/**
+ * @description: 单个字段的解析器，由{@link RowDecoderPlan}根据TableMapEvent编译出来，meta、符号位等信息在创建时就已经拆解好
+ * <p>
+ * 字段的长度、取值逻辑参考<a href="https://github.com/mysql/mysql-server/blob/8.0/sql/log_event.cc">源码第1813行 ~ 2145行，即log_event_print_value方法</a>
+ * @author: liuzijian
+ * @time: 2023-09-23 09:30
+ */
+@Getter
+public abstract class ColumnDecoder {
+
+    /**
+     * 字段的真实类型（MYSQL_TYPE_STRING已经还原成ENUM、SET等）
+     */
+    protected final TableMapColumnTypeEnum columnType;
+
+    /**
+     * 字段的真实meta
+     */
+    protected final int meta;
+
+    protected ColumnDecoder(TableMapColumnTypeEnum columnType, int meta) {
+        this.columnType = columnType;
+        this.meta = meta;
+    }
+
+    /**
+     * 解析字段值
+     *
+     * @param in 输入流，位于字段的第一个字节
+     * @return 字段值
+     */
+    public abstract Object decode(ByteArrayIndexInputStream in) throws IOException;
+
+    /**
+     * 跳过字段，定长字段不读取值的内容，变长字段只读取长度前缀
+     *
+     * @param in 输入流，位于字段的第一个字节
+     * @return 字段占用的字节数（包括长度前缀）
+     */
+    public abstract int skip(ByteArrayIndexInputStream in) throws IOException;
+
+    /**
+     * @return 字段值在Row中的存储方式，{@link ColumnValueTypeEnum#LONG}和{@link ColumnValueTypeEnum#DOUBLE}的字段不装箱
+     */
+    public ColumnValueTypeEnum getValueType() {
+        return ColumnValueTypeEnum.OBJECT;
+    }
+
+    /**
+     * 以long解析字段值，只有{@link #getValueType()}为{@link ColumnValueTypeEnum#LONG}的字段支持
+     */
+    public long decodeLong(ByteArrayIndexInputStream in) throws IOException {
+        throw new UnsupportedOperationException(this.columnType + "不能解析成long");
+    }
+
+    /**
+     * 以double解析字段值，只有{@link #getValueType()}为{@link ColumnValueTypeEnum#DOUBLE}的字段支持
+     */
+    public double decodeDouble(ByteArrayIndexInputStream in) throws IOException {
+        throw new UnsupportedOperationException(this.columnType + "不能解析成double");
+    }
+
+    /**
+     * 把{@link #decodeLong(ByteArrayIndexInputStream)}的结果装箱成{@link #decode(ByteArrayIndexInputStream)}返回的对象
+     */
+    public Object box(long value) {
+        throw new UnsupportedOperationException(this.columnType + "不能解析成long");
+    }
+
+    /**
+     * {@link #decodeLong(ByteArrayIndexInputStream)}的结果作为整数时的值，一般就是它本身，DECIMAL会去掉小数部分
+     */
+    public long longValue(long value) {
+        return value;
+    }
+
+    /**
+     * {@link #decodeLong(ByteArrayIndexInputStream)}的结果作为浮点数时的值，一般就是它本身，DECIMAL会除以10^scale
+     */
+    public double doubleValue(long value) {
+        return value;
+    }
+
+    /**
+     * 把{@link #decodeDouble(ByteArrayIndexInputStream)}的结果装箱成{@link #decode(ByteArrayIndexInputStream)}返回的对象
+     */
+    public Object box(double value) {
+        throw new UnsupportedOperationException(this.columnType + "不能解析成double");
+    }
+}
@@ -0,0 +1,44 @@
+package com.cl.mysql.binlog.decoder;
+
+import com.cl.mysql.binlog.constant.TableMapColumnTypeEnum;
+import com.cl.mysql.binlog.constant.TemporalDecodeModeEnum;
+import com.cl.mysql.binlog.stream.ByteArrayIndexInputStream;
+
+import java.io.IOException;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.Calendar;
+
+/**
+ * @description: DATE，3个字节小端，格式：yyyy-MM-dd，低5位为日，接着4位为月，剩下的为年<br>
+ * 参考{@link com.google.code.or.common.util.MySQLUtils#toDate(int)}
+ * @author: liuzijian
+ * @time: 2023-09-23 10:20
+ */
+public class DateColumnDecoder extends TemporalColumnDecoder {
+
+    public DateColumnDecoder(TableMapColumnTypeEnum columnType, int meta, TemporalDecodeModeEnum mode) {
+        super(columnType, meta, 3, 0, mode);
+    }
+
+    @Override
+    public long decodeLong(ByteArrayIndexInputStream in) throws IOException {
+        return in.readInt(3);
+    }
+
+    @Override
+    protected Object toJavaTime(long value) {
+        int d = (int) (value & 31);
+        int m = (int) ((value >> 5) & 15);
+        int y = (int) (value >> 9);
+        return m == 0 || d == 0 ? null : LocalDate.of(y, m, d);
+    }
+
+    @Override
+    protected Object toLegacy(long value) {
+        final Calendar cal = Calendar.getInstance();
+        cal.clear();
+        cal.set((int) (value >> 9), (int) ((value >> 5) & 15) - 1, (int) (value & 31));
+        return new Date(cal.getTimeInMillis());
+    }
+}
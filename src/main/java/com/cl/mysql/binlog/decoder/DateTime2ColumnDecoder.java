@@ -0,0 +1,66 @@
+package com.cl.mysql.binlog.decoder;
+
+import com.cl.mysql.binlog.constant.TableMapColumnTypeEnum;
+import com.cl.mysql.binlog.constant.TemporalDecodeModeEnum;
+import com.cl.mysql.binlog.stream.ByteArrayIndexInputStream;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Calendar;
+
+/**
+ * @description: DATETIME2，5个字节大端 + 秒的小数部分<br>
+ * 整数部分：1位符号 + 17位(年 * 13 + 月) + 5位日 + 5位时 + 6位分 + 6位秒<br>
+ * 解析结果为mysql的packed datetime：整数部分 << 24 + 微秒
+ * @author: liuzijian
+ * @time: 2023-09-23 10:30
+ */
+public class DateTime2ColumnDecoder extends TemporalColumnDecoder {
+
+    private static final long DATETIMEF_INT_OFS = 0x8000000000L;
+
+    public DateTime2ColumnDecoder(TableMapColumnTypeEnum columnType, int meta, TemporalDecodeModeEnum mode) {
+        super(columnType, meta, 5, (meta + 1) / 2, mode);
+    }
+
+    @Override
+    public long decodeLong(ByteArrayIndexInputStream in) throws IOException {
+        long intPart = in.readLongBigEndian(5) - DATETIMEF_INT_OFS;// 减去一个sign位
+        return (intPart << 24) + this.readSignedFraction(in);
+    }
+
+    /**
+     * @return 年、月、日、时、分、秒、微秒
+     */
+    private static int[] unpack(long packed) {
+        long ymdhms = packed >> 24;
+        long ymd = ymdhms >> 17;
+        long ym = ymd >> 5;
+        long hms = ymdhms % (1 << 17);
+        return new int[]{
+                (int) (ym / 13),
+                (int) (ym % 13),
+                (int) (ymd % (1 << 5)),
+                (int) (hms >> 12),
+                (int) ((hms >> 6) % (1 << 6)),
+                (int) (hms % (1 << 6)),
+                (int) (packed % (1L << 24))
+        };
+    }
+
+    @Override
+    protected Object toJavaTime(long value) {
+        int[] t = unpack(value);
+        return t[1] == 0 || t[2] == 0 ? null : LocalDateTime.of(t[0], t[1], t[2], t[3], t[4], t[5], t[6] * 1000);
+    }
+
+    @Override
+    protected Object toLegacy(long value) {
+        int[] t = unpack(value);
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(t[0], t[1] - 1, t[2], t[3], t[4], t[5]);
+        calendar.set(Calendar.MILLISECOND, t[6] / 1000);
+        return calendar.getTime();
+    }
+}
@@ -0,0 +1,59 @@
+package com.cl.mysql.binlog.decoder;
+
+import com.cl.mysql.binlog.constant.TableMapColumnTypeEnum;
+import com.cl.mysql.binlog.constant.TemporalDecodeModeEnum;
+import com.cl.mysql.binlog.stream.ByteArrayIndexInputStream;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Calendar;
+
+/**
+ * @description: DATETIME（5.6.4之前的格式），8个字节小端，值为 YYYYMMDDhhmmss<br>
+ * 获取值：参考{@link com.google.code.or.common.util.MySQLUtils#toDatetime(long)}
+ * @author: liuzijian
+ * @time: 2023-09-23 10:28
+ */
+public class DateTimeColumnDecoder extends TemporalColumnDecoder {
+
+    public DateTimeColumnDecoder(TableMapColumnTypeEnum columnType, int meta, TemporalDecodeModeEnum mode) {
+        super(columnType, meta, 8, 0, mode);
+    }
+
+    @Override
+    public long decodeLong(ByteArrayIndexInputStream in) throws IOException {
+        return in.readLong(8);
+    }
+
+    /**
+     * @return 年、月、日、时、分、秒
+     */
+    private static int[] unpack(long value) {
+        final int sec = (int) (value % 100);
+        value /= 100;
+        final int min = (int) (value % 100);
+        value /= 100;
+        final int hour = (int) (value % 100);
+        value /= 100;
+        final int day = (int) (value % 100);
+        value /= 100;
+        final int mon = (int) (value % 100);
+        final int year = (int) (value / 100);
+        return new int[]{year, mon, day, hour, min, sec};
+    }
+
+    @Override
+    protected Object toJavaTime(long value) {
+        int[] t = unpack(value);
+        return t[1] == 0 || t[2] == 0 ? null : LocalDateTime.of(t[0], t[1], t[2], t[3], t[4], t[5]);
+    }
+
+    @Override
+    protected Object toLegacy(long value) {
+        int[] t = unpack(value);
+        final Calendar c = Calendar.getInstance();
+        c.clear();
+        c.set(t[0], t[1] - 1, t[2], t[3], t[4], t[5]);
+        return c.getTime();
+    }
+}
@@ -0,0 +1,39 @@
+package com.cl.mysql.binlog.decoder;
+
+import com.cl.mysql.binlog.constant.ColumnValueTypeEnum;
+import com.cl.mysql.binlog.constant.TableMapColumnTypeEnum;
+import com.cl.mysql.binlog.stream.ByteArrayIndexInputStream;
+
+import java.io.IOException;
+
+/**
+ * @description: DOUBLE，8个字节的IEEE754
+ * @author: liuzijian
+ * @time: 2023-09-23 09:53
+ */
+public class DoubleColumnDecoder extends FixedLengthColumnDecoder {
+
+    public DoubleColumnDecoder(TableMapColumnTypeEnum columnType, int meta) {
+        super(columnType, meta, 8);
+    }
+
+    @Override
+    public ColumnValueTypeEnum getValueType() {
+        return ColumnValueTypeEnum.DOUBLE;
+    }
+
+    @Override
+    public double decodeDouble(ByteArrayIndexInputStream in) throws IOException {
+        return Double.longBitsToDouble(in.readLong(8));
+    }
+
+    @Override
+    public Object box(double value) {
+        return value;
+    }
+
+    @Override
+    public Object decode(ByteArrayIndexInputStream in) throws IOException {
+        return this.box(this.decodeDouble(in));
+    }
+}
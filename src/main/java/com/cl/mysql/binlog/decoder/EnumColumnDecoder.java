@@ -0,0 +1,39 @@
+package com.cl.mysql.binlog.decoder;
+
+import com.cl.mysql.binlog.constant.ColumnValueTypeEnum;
+import com.cl.mysql.binlog.constant.TableMapColumnTypeEnum;
+import com.cl.mysql.binlog.stream.ByteArrayIndexInputStream;
+
+import java.io.IOException;
+
+/**
+ * @description: ENUM，meta为占用的字节数（1或2），返回enum下标，从1开始
+ * @author: liuzijian
+ * @time: 2023-09-23 10:42
+ */
+public class EnumColumnDecoder extends FixedLengthColumnDecoder {
+
+    public EnumColumnDecoder(TableMapColumnTypeEnum columnType, int meta) {
+        super(columnType, meta, meta);
+    }
+
+    @Override
+    public ColumnValueTypeEnum getValueType() {
+        return ColumnValueTypeEnum.LONG;
+    }
+
+    @Override
+    public long decodeLong(ByteArrayIndexInputStream in) throws IOException {
+        return in.readInt(this.length);
+    }
+
+    @Override
+    public Object box(long value) {
+        return (int) value;
+    }
+
+    @Override
+    public Object decode(ByteArrayIndexInputStream in) throws IOException {
+        return this.box(this.decodeLong(in));
+    }
+}
@@ -0,0 +1,29 @@
+package com.cl.mysql.binlog.decoder;
+
+import com.cl.mysql.binlog.constant.TableMapColumnTypeEnum;
+import com.cl.mysql.binlog.stream.ByteArrayIndexInputStream;
+import lombok.Getter;
+
+import java.io.IOException;
+
+/**
+ * @description: 定长字段，长度只由类型和meta决定
+ * @author: liuzijian
+ * @time: 2023-09-23 09:35
+ */
+@Getter
+public abstract class FixedLengthColumnDecoder extends ColumnDecoder {
+
+    protected final int length;
+
+    protected FixedLengthColumnDecoder(TableMapColumnTypeEnum columnType, int meta, int length) {
+        super(columnType, meta);
+        this.length = length;
+    }
+
+    @Override
+    public int skip(ByteArrayIndexInputStream in) throws IOException {
+        in.skip(this.length);
+        return this.length;
+    }
+}
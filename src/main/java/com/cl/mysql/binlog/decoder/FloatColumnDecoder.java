@@ -0,0 +1,39 @@
+package com.cl.mysql.binlog.decoder;
+
+import com.cl.mysql.binlog.constant.ColumnValueTypeEnum;
+import com.cl.mysql.binlog.constant.TableMapColumnTypeEnum;
+import com.cl.mysql.binlog.stream.ByteArrayIndexInputStream;
+
+import java.io.IOException;
+
+/**
+ * @description: FLOAT，4个字节的IEEE754
+ * @author: liuzijian
+ * @time: 2023-09-23 09:52
+ */
+public class FloatColumnDecoder extends FixedLengthColumnDecoder {
+
+    public FloatColumnDecoder(TableMapColumnTypeEnum columnType, int meta) {
+        super(columnType, meta, 4);
+    }
+
+    @Override
+    public ColumnValueTypeEnum getValueType() {
+        return ColumnValueTypeEnum.DOUBLE;
+    }
+
+    @Override
+    public double decodeDouble(ByteArrayIndexInputStream in) throws IOException {
+        return Float.intBitsToFloat(in.readInt(4));
+    }
+
+    @Override
+    public Object box(double value) {
+        return (float) value;
+    }
+
+    @Override
+    public Object decode(ByteArrayIndexInputStream in) throws IOException {
+        return this.box(this.decodeDouble(in));
+    }
+}
@@ -0,0 +1,56 @@
+package com.cl.mysql.binlog.decoder;
+
+import com.cl.mysql.binlog.constant.ColumnValueTypeEnum;
+import com.cl.mysql.binlog.constant.TableMapColumnTypeEnum;
+import com.cl.mysql.binlog.stream.ByteArrayIndexInputStream;
+import lombok.Getter;
+
+import java.io.IOException;
+
+/**
+ * @description: TINYINT、SMALLINT、MEDIUMINT、INT，小端存储
+ * <p>
+ * 有符号返回Integer；无符号的INT可能超过Integer的范围，返回Long，其余无符号类型仍返回Integer
+ * @author: liuzijian
+ * @time: 2023-09-23 09:45
+ */
+@Getter
+public class IntegerColumnDecoder extends FixedLengthColumnDecoder {
+
+    private final boolean unsigned;
+
+    /**
+     * 符号扩展时需要左移再右移的位数
+     */
+    private final int signShift;
+
+    public IntegerColumnDecoder(TableMapColumnTypeEnum columnType, int meta, int length, boolean unsigned) {
+        super(columnType, meta, length);
+        this.unsigned = unsigned;
+        this.signShift = 32 - (length << 3);
+    }
+
+    @Override
+    public ColumnValueTypeEnum getValueType() {
+        return ColumnValueTypeEnum.LONG;
+    }
+
+    @Override
+    public long decodeLong(ByteArrayIndexInputStream in) throws IOException {
+        int value = in.readInt(this.length);
+        if (!this.unsigned) {
+            return (value << this.signShift) >> this.signShift;
+        }
+        return value & 0xFFFFFFFFL;
+    }
+
+    @Override
+    public Object box(long value) {
+        return this.unsigned && this.length == 4 ? (Object) value : (Object) (int) value;
+    }
+
+    @Override
+    public Object decode(ByteArrayIndexInputStream in) throws IOException {
+        return this.box(this.decodeLong(in));
+    }
+}
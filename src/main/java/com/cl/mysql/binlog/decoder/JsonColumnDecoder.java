@@ -0,0 +1,24 @@
+package com.cl.mysql.binlog.decoder;
+
+import com.cl.mysql.binlog.constant.TableMapColumnTypeEnum;
+import com.cl.mysql.binlog.entity.Row;
+import com.cl.mysql.binlog.stream.ByteArrayIndexInputStream;
+
+import java.io.IOException;
+
+/**
+ * @description: JSON，meta为长度前缀占用的字节数，值为mysql的二进制json
+ * @author: liuzijian
+ * @time: 2023-09-23 10:50
+ */
+public class JsonColumnDecoder extends LengthPrefixedColumnDecoder {
+
+    public JsonColumnDecoder(TableMapColumnTypeEnum columnType, int meta) {
+        super(columnType, meta, meta);
+    }
+
+    @Override
+    public Object decode(ByteArrayIndexInputStream in) throws IOException {
+        return new Row.MysqlJson(in.readBytes(this.readLength(in)));
+    }
+}
@@ -0,0 +1,37 @@
+package com.cl.mysql.binlog.decoder;
+
+import com.cl.mysql.binlog.constant.TableMapColumnTypeEnum;
+import com.cl.mysql.binlog.stream.ByteArrayIndexInputStream;
+import lombok.Getter;
+
+import java.io.IOException;
+
+/**
+ * @description: 变长字段，值前面带有小端的长度前缀
+ * @author: liuzijian
+ * @time: 2023-09-23 09:38
+ */
+@Getter
+public abstract class LengthPrefixedColumnDecoder extends ColumnDecoder {
+
+    /**
+     * 长度前缀占用的字节数
+     */
+    protected final int prefixLength;
+
+    protected LengthPrefixedColumnDecoder(TableMapColumnTypeEnum columnType, int meta, int prefixLength) {
+        super(columnType, meta);
+        this.prefixLength = prefixLength;
+    }
+
+    protected int readLength(ByteArrayIndexInputStream in) throws IOException {
+        return in.readInt(this.prefixLength);
+    }
+
+    @Override
+    public int skip(ByteArrayIndexInputStream in) throws IOException {
+        int length = this.readLength(in);
+        in.skip(length);
+        return this.prefixLength + length;
+    }
+}
@@ -0,0 +1,49 @@
+package com.cl.mysql.binlog.decoder;
+
+import com.cl.mysql.binlog.constant.ColumnValueTypeEnum;
+import com.cl.mysql.binlog.constant.TableMapColumnTypeEnum;
+import com.cl.mysql.binlog.stream.ByteArrayIndexInputStream;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.math.BigInteger;
+
+/**
+ * @description: BIGINT，小端存储。有符号返回Long，无符号可能超过Long的范围，返回BigInteger<br>
+ * 注意：无符号字段的{@link #decodeLong(ByteArrayIndexInputStream)}返回的是原始的64位，超过Long.MAX_VALUE时为负数，可以用{@link Long#toUnsignedString(long)}等方法处理
+ * @author: liuzijian
+ * @time: 2023-09-23 09:50
+ */
+@Getter
+public class LongLongColumnDecoder extends FixedLengthColumnDecoder {
+
+    private final boolean unsigned;
+
+    public LongLongColumnDecoder(TableMapColumnTypeEnum columnType, int meta, boolean unsigned) {
+        super(columnType, meta, 8);
+        this.unsigned = unsigned;
+    }
+
+    @Override
+    public ColumnValueTypeEnum getValueType() {
+        return ColumnValueTypeEnum.LONG;
+    }
+
+    @Override
+    public long decodeLong(ByteArrayIndexInputStream in) throws IOException {
+        return in.readLong(8);
+    }
+
+    @Override
+    public Object decode(ByteArrayIndexInputStream in) throws IOException {
+        return this.box(this.decodeLong(in));
+    }
+
+    @Override
+    public Object box(long value) {
+        if (this.unsigned) {
+            return value >= 0 ? BigInteger.valueOf(value) : new BigInteger(Long.toUnsignedString(value));
+        }
+        return value;
+    }
+}
@@ -0,0 +1,171 @@
+package com.cl.mysql.binlog.decoder;
+
+import com.cl.mysql.binlog.constant.ColumnValueTypeEnum;
+import com.cl.mysql.binlog.constant.TableMapColumnTypeEnum;
+import com.cl.mysql.binlog.stream.ByteArrayIndexInputStream;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * @description: DECIMAL，<a href="https://github.com/mysql/mysql-server/blob/8.0/strings/decimal.cc">mysql8.0源码，搜int decimal_bin_size_inline，来计算字节长度</a>
+ * <p>
+ * 大端存储，整数部分和小数部分分别每9位十进制数字一组，一组占4个字节，不满9位的部分按{@link #dig2bytes}占用字节；
+ * 第一个字节的最高位是符号位（1为正数），负数的所有字节都按位取反。<br>
+ * 按顺序把每一组拼起来就是去掉小数点之后的整数（unscaled value），precision不超过18时直接累加到long里，不创建任何对象，
+ * 超过18时才用BigInteger累加
+ * </p>
+ * 参考{@link com.google.code.or.common.util.MySQLUtils#toDecimal(int, int, byte[])}<br>
+ * 和<a href="https://github.com/mysql/mysql-server/blob/8.0/strings/decimal.cc">mysql8.0 decimal对象源码，搜bin2decimal</a>
+ * @author: liuzijian
+ * @time: 2023-09-23 10:00
+ */
+@Getter
+public class NewDecimalColumnDecoder extends FixedLengthColumnDecoder {
+
+    /**
+     * <a href="https://github.com/mysql/mysql-server/blob/8.0/strings/decimal.cc">源码：搜dig2bytes</a>
+     */
+    private final static int[] dig2bytes = {0, 1, 1, 2, 2, 3, 3, 4, 4, 4};
+
+    private final static int DIG_PER_DEC1 = 9;
+
+    /**
+     * long能完整容纳的最大precision
+     */
+    public final static int MAX_COMPACT_PRECISION = 18;
+
+    private final static long[] POWERS_OF_TEN = new long[MAX_COMPACT_PRECISION + 1];
+
+    private final static BigInteger BILLION = BigInteger.valueOf(1_000_000_000L);
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    /**
+     * 长度
+     */
+    private final int precision;
+
+    /**
+     * 小数点
+     */
+    private final int scale;
+
+    /**
+     * 按存储顺序每一组的字节数和十进制位数
+     */
+    private final int[] groupBytes;
+
+    private final int[] groupDigits;
+
+    public NewDecimalColumnDecoder(TableMapColumnTypeEnum columnType, int meta) {
+        super(columnType, meta, binarySize(meta & 0b1111_1111, (meta >> 8) & 0b1111_1111));
+        this.precision = meta & 0b1111_1111;
+        this.scale = (meta >> 8) & 0b1111_1111;
+        int intg = this.precision - this.scale;
+        int intg0 = intg / DIG_PER_DEC1;
+        int frac0 = this.scale / DIG_PER_DEC1;
+        int intg0x = intg - intg0 * DIG_PER_DEC1;
+        int frac0x = this.scale - frac0 * DIG_PER_DEC1;
+        int groupCount = (intg0x > 0 ? 1 : 0) + intg0 + frac0 + (frac0x > 0 ? 1 : 0);
+        this.groupBytes = new int[groupCount];
+        this.groupDigits = new int[groupCount];
+        int g = 0;
+        if (intg0x > 0) {
+            this.groupBytes[g] = dig2bytes[intg0x];
+            this.groupDigits[g++] = intg0x;
+        }
+        for (int i = 0; i < intg0 + frac0; i++) {
+            this.groupBytes[g] = 4;
+            this.groupDigits[g++] = DIG_PER_DEC1;
+        }
+        if (frac0x > 0) {
+            this.groupBytes[g] = dig2bytes[frac0x];
+            this.groupDigits[g] = frac0x;
+        }
+    }
+
+    private static int binarySize(int precision, int scale) {
+        int intg = precision - scale;
+        int intg0 = intg / DIG_PER_DEC1;
+        int frac0 = scale / DIG_PER_DEC1;
+        int intg0x = intg - intg0 * DIG_PER_DEC1;
+        int frac0x = scale - frac0 * DIG_PER_DEC1;
+        return intg0 * 4 + dig2bytes[intg0x] + frac0 * 4 + dig2bytes[frac0x];
+    }
+
+    /**
+     * @return precision不超过18，值可以用long表示
+     */
+    public boolean isCompact() {
+        return this.precision <= MAX_COMPACT_PRECISION;
+    }
+
+    @Override
+    public ColumnValueTypeEnum getValueType() {
+        return this.isCompact() ? ColumnValueTypeEnum.LONG : ColumnValueTypeEnum.OBJECT;
+    }
+
+    /**
+     * @return 去掉小数点之后的整数（unscaled value），真实值为 返回值 / 10^scale
+     */
+    @Override
+    public long decodeLong(ByteArrayIndexInputStream in) throws IOException {
+        if (!this.isCompact()) {
+            return super.decodeLong(in);
+        }
+        long first = in.readLongBigEndian(this.groupBytes[0]);
+        long signBit = 1L << ((this.groupBytes[0] << 3) - 1);
+        boolean positive = (first & signBit) != 0;
+        long unscaled = this.groupValue(first ^ signBit, 0, positive);
+        for (int g = 1; g < this.groupBytes.length; g++) {
+            unscaled = unscaled * POWERS_OF_TEN[this.groupDigits[g]] + this.groupValue(in.readLongBigEndian(this.groupBytes[g]), g, positive);
+        }
+        return positive ? unscaled : -unscaled;
+    }
+
+    /**
+     * 负数的每个字节都按位取反过，这里还原回来
+     */
+    private long groupValue(long raw, int group, boolean positive) {
+        return positive ? raw : ~raw & ((1L << (this.groupBytes[group] << 3)) - 1);
+    }
+
+    @Override
+    public Object box(long value) {
+        return BigDecimal.valueOf(value, this.scale);
+    }
+
+    @Override
+    public long longValue(long value) {
+        return value / POWERS_OF_TEN[this.scale];
+    }
+
+    @Override
+    public double doubleValue(long value) {
+        return this.scale == 0 ? value : (double) value / POWERS_OF_TEN[this.scale];
+    }
+
+    @Override
+    public Object decode(ByteArrayIndexInputStream in) throws IOException {
+        if (this.isCompact()) {
+            return this.box(this.decodeLong(in));
+        }
+        long first = in.readLongBigEndian(this.groupBytes[0]);
+        long signBit = 1L << ((this.groupBytes[0] << 3) - 1);
+        boolean positive = (first & signBit) != 0;
+        BigInteger unscaled = BigInteger.valueOf(this.groupValue(first ^ signBit, 0, positive));
+        for (int g = 1; g < this.groupBytes.length; g++) {
+            BigInteger multiplier = this.groupDigits[g] == DIG_PER_DEC1 ? BILLION : BigInteger.valueOf(POWERS_OF_TEN[this.groupDigits[g]]);
+            unscaled = unscaled.multiply(multiplier).add(BigInteger.valueOf(this.groupValue(in.readLongBigEndian(this.groupBytes[g]), g, positive)));
+        }
+        return new BigDecimal(positive ? unscaled : unscaled.negate(), this.scale);
+    }
+}
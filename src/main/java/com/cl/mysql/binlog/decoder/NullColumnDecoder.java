@@ -0,0 +1,21 @@
+package com.cl.mysql.binlog.decoder;
+
+import com.cl.mysql.binlog.constant.TableMapColumnTypeEnum;
+import com.cl.mysql.binlog.stream.ByteArrayIndexInputStream;
+
+/**
+ * @description: MYSQL_TYPE_NULL以及暂不支持解析的类型，不占用字节，值为null
+ * @author: liuzijian
+ * @time: 2023-09-23 09:55
+ */
+public class NullColumnDecoder extends FixedLengthColumnDecoder {
+
+    public NullColumnDecoder(TableMapColumnTypeEnum columnType, int meta) {
+        super(columnType, meta, 0);
+    }
+
+    @Override
+    public Object decode(ByteArrayIndexInputStream in) {
+        return null;
+    }
+}
@@ -0,0 +1,240 @@
+package com.cl.mysql.binlog.decoder;
+
+import com.cl.mysql.binlog.binlogEvent.TableMapEvent;
+import com.cl.mysql.binlog.constant.ColumnValueTypeEnum;
+import com.cl.mysql.binlog.constant.TableMapColumnTypeEnum;
+import com.cl.mysql.binlog.constant.TemporalDecodeModeEnum;
+import com.cl.mysql.binlog.network.BinlogEnvironment;
+
+import com.cl.mysql.binlog.util.CharsetUtil;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * @description: 一张表的行解析计划，TableMapEvent第一次出现时编译，之后这张表的每一行都直接按字段顺序调用对应的{@link ColumnDecoder}
+ * <p>
+ * meta的拆解、MYSQL_TYPE_STRING真实类型的还原、符号位和字段字符集的查找都只在编译时做一次
+ * @author: liuzijian
+ * @time: 2023-09-23 11:00
+ */
+public class RowDecoderPlan {
+
+    private final ColumnDecoder[] decoders;
+
+    /**
+     * 每个字段在Row对应存储数组（long[]、double[]、Object[]，见{@link ColumnValueTypeEnum}）中的下标
+     */
+    private final int[] slots;
+
+    private final int longSlotCount;
+
+    private final int doubleSlotCount;
+
+    private final int objectSlotCount;
+
+    /**
+     * JSON字段的下标，PARTIAL_UPDATE_ROWS_EVENT的partial_bits按JSON字段的顺序排列
+     */
+    private final int[] jsonColumns;
+
+    private RowDecoderPlan(ColumnDecoder[] decoders) {
+        this.decoders = decoders;
+        this.slots = new int[decoders.length];
+        int longCount = 0;
+        int doubleCount = 0;
+        int objectCount = 0;
+        int jsonCount = 0;
+        for (ColumnDecoder decoder : decoders) {
+            if (decoder instanceof JsonColumnDecoder) {
+                jsonCount++;
+            }
+        }
+        this.jsonColumns = new int[jsonCount];
+        jsonCount = 0;
+        for (int i = 0; i < decoders.length; i++) {
+            if (decoders[i] instanceof JsonColumnDecoder) {
+                this.jsonColumns[jsonCount++] = i;
+            }
+            switch (decoders[i].getValueType()) {
+                case LONG:
+                    this.slots[i] = longCount++;
+                    break;
+                case DOUBLE:
+                    this.slots[i] = doubleCount++;
+                    break;
+                default:
+                    this.slots[i] = objectCount++;
+            }
+        }
+        this.longSlotCount = longCount;
+        this.doubleSlotCount = doubleCount;
+        this.objectSlotCount = objectCount;
+    }
+
+    public static RowDecoderPlan compile(TableMapEvent tableMapEvent, BinlogEnvironment environment) throws IOException {
+        TemporalDecodeModeEnum temporalMode = environment.getTemporalDecodeMode();
+        boolean lazyString = environment.isLazyString();
+        List<TableMapColumnTypeEnum> columnTypes = tableMapEvent.getColumnType();
+        List<Integer> metadata = tableMapEvent.getMetadata();
+        TableMapEvent.OptionalMetadata optionalMetadata = tableMapEvent.getOptionalMetadataFields();
+        BitSet signedness = optionalMetadata == null ? null : optionalMetadata.getSignedness();
+        int columnCount = tableMapEvent.getColumnCount();
+
+        // 先还原每个字段的真实类型，字符集元数据是按真实类型为字符类型的字段排序的
+        TableMapColumnTypeEnum[] realTypes = new TableMapColumnTypeEnum[columnCount];
+        int[] realMetas = new int[columnCount];
+        int characterColumnCount = 0;
+        for (int i = 0; i < columnCount; i++) {
+            realMeta(columnTypes.get(i), metadata.get(i), realTypes, realMetas, i);
+            if (isCharacterColumn(realTypes[i])) {
+                characterColumnCount++;
+            }
+        }
+        int[] collations = optionalMetadata == null ? null : optionalMetadata.getCharacterColumnCollations(characterColumnCount);
+
+        ColumnDecoder[] decoders = new ColumnDecoder[columnCount];
+        int numberColumnIndex = 0;
+        int characterColumnIndex = 0;
+        for (int i = 0; i < columnCount; i++) {
+            // 符号位只记录了数字类型的字段，没有元数据时按有符号处理
+            boolean unsigned = false;
+            if (columnTypes.get(i).isNumberColumn()) {
+                unsigned = signedness != null && signedness.get(numberColumnIndex);
+                numberColumnIndex++;
+            }
+            // 没有字符集元数据（binlog_row_metadata=MINIMAL且低于8.0.1）时按UTF-8处理
+            Charset charset = StandardCharsets.UTF_8;
+            if (isCharacterColumn(realTypes[i])) {
+                if (collations != null) {
+                    charset = CharsetUtil.getCharsetByCollation(collations[characterColumnIndex]);
+                }
+                characterColumnIndex++;
+            }
+            decoders[i] = compileColumn(realTypes[i], realMetas[i], unsigned, charset, lazyString, temporalMode);
+        }
+        return new RowDecoderPlan(decoders);
+    }
+
+    /**
+     * 还原MYSQL_TYPE_STRING的真实类型（CHAR、ENUM、SET）以及真实的meta
+     * <p>
+     * 逻辑参考<a href="https://github.com/mysql/mysql-server/blob/8.0/sql/log_event.cc">源码，搜1819行~1832行</a>
+     */
+    private static void realMeta(TableMapColumnTypeEnum columnType, int meta, TableMapColumnTypeEnum[] realTypes, int[] realMetas, int index) {
+        if (columnType == TableMapColumnTypeEnum.MYSQL_TYPE_STRING && meta >= 256) {
+            int sourceMetaType = meta >> 8;// https://github.com/mysql/mysql-server/blob/8.0/sql/rpl_utility.h 第327行 ~ 第334行 解释meta怎么获取真实的类型
+            int byte1 = meta & 0xFF;
+            if ((sourceMetaType & 0x30) != 0x30) {
+                /* a long CHAR() field: see #37426 */
+                meta = byte1 | (((sourceMetaType & 0x30) ^ 0x30) << 4);
+            } else {
+                meta = byte1;
+            }
+            columnType = TableMapColumnTypeEnum.getByIdentifier(sourceMetaType | 0x30);
+        }
+        realTypes[index] = columnType;
+        realMetas[index] = meta;
+    }
+
+    /**
+     * <a href="https://github.com/mysql/mysql-server/blob/8.0/sql/log_event.cc">源码，搜is_character_type</a>
+     */
+    private static boolean isCharacterColumn(TableMapColumnTypeEnum realType) {
+        switch (realType) {
+            case MYSQL_TYPE_STRING:
+            case MYSQL_TYPE_VAR_STRING:
+            case MYSQL_TYPE_VARCHAR:
+            case MYSQL_TYPE_BLOB:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static ColumnDecoder compileColumn(TableMapColumnTypeEnum columnType, int meta, boolean unsigned, Charset charset, boolean lazyString, TemporalDecodeModeEnum temporalMode) {
+        switch (columnType) {
+            case MYSQL_TYPE_TINY:
+                return new IntegerColumnDecoder(columnType, meta, 1, unsigned);
+            case MYSQL_TYPE_SHORT:
+                return new IntegerColumnDecoder(columnType, meta, 2, unsigned);
+            case MYSQL_TYPE_INT24:
+                return new IntegerColumnDecoder(columnType, meta, 3, unsigned);
+            case MYSQL_TYPE_LONG:
+                return new IntegerColumnDecoder(columnType, meta, 4, unsigned);
+            case MYSQL_TYPE_LONGLONG:
+                return new LongLongColumnDecoder(columnType, meta, unsigned);
+            case MYSQL_TYPE_FLOAT:
+                return new FloatColumnDecoder(columnType, meta);
+            case MYSQL_TYPE_DOUBLE:
+                return new DoubleColumnDecoder(columnType, meta);
+            case MYSQL_TYPE_NEWDECIMAL:
+                return new NewDecimalColumnDecoder(columnType, meta);
+            case MYSQL_TYPE_TIMESTAMP:
+                return new TimestampColumnDecoder(columnType, meta, temporalMode);
+            case MYSQL_TYPE_TIMESTAMP2:
+                return new Timestamp2ColumnDecoder(columnType, meta, temporalMode);
+            case MYSQL_TYPE_DATE:
+                return new DateColumnDecoder(columnType, meta, temporalMode);
+            case MYSQL_TYPE_TIME:
+                return new TimeColumnDecoder(columnType, meta, temporalMode);
+            case MYSQL_TYPE_TIME2:
+                return new Time2ColumnDecoder(columnType, meta, temporalMode);
+            case MYSQL_TYPE_DATETIME:
+                return new DateTimeColumnDecoder(columnType, meta, temporalMode);
+            case MYSQL_TYPE_DATETIME2:
+                return new DateTime2ColumnDecoder(columnType, meta, temporalMode);
+            case MYSQL_TYPE_YEAR:
+                return new YearColumnDecoder(columnType, meta);
+            case MYSQL_TYPE_VAR_STRING:
+            case MYSQL_TYPE_VARCHAR:
+            case MYSQL_TYPE_STRING:
+                return new StringColumnDecoder(columnType, meta, charset, lazyString);
+            case MYSQL_TYPE_BIT:
+                return new BitColumnDecoder(columnType, meta);
+            case MYSQL_TYPE_JSON:
+                return new JsonColumnDecoder(columnType, meta);
+            case MYSQL_TYPE_BLOB:
+                return new BlobColumnDecoder(columnType, meta, charset);
+            case MYSQL_TYPE_GEOMETRY:
+                return new BlobColumnDecoder(columnType, meta, null);
+            case MYSQL_TYPE_ENUM:
+                return new EnumColumnDecoder(columnType, meta);
+            case MYSQL_TYPE_SET:
+                return new SetColumnDecoder(columnType, meta);
+            default:
+                return new NullColumnDecoder(columnType, meta);
+        }
+    }
+
+    public ColumnDecoder getDecoder(int columnIndex) {
+        return this.decoders[columnIndex];
+    }
+
+    public int getColumnCount() {
+        return this.decoders.length;
+    }
+
+    public int getSlot(int columnIndex) {
+        return this.slots[columnIndex];
+    }
+
+    public int getLongSlotCount() {
+        return this.longSlotCount;
+    }
+
+    public int getDoubleSlotCount() {
+        return this.doubleSlotCount;
+    }
+
+    public int getObjectSlotCount() {
+        return this.objectSlotCount;
+    }
+
+    public int[] getJsonColumns() {
+        return this.jsonColumns;
+    }
+}
@@ -0,0 +1,24 @@
+package com.cl.mysql.binlog.decoder;
+
+import com.cl.mysql.binlog.constant.TableMapColumnTypeEnum;
+import com.cl.mysql.binlog.stream.ByteArrayIndexInputStream;
+import com.cl.mysql.binlog.util.BitMapUtil;
+
+import java.io.IOException;
+
+/**
+ * @description: SET，meta为占用的字节数，返回bitset
+ * @author: liuzijian
+ * @time: 2023-09-23 10:44
+ */
+public class SetColumnDecoder extends FixedLengthColumnDecoder {
+
+    public SetColumnDecoder(TableMapColumnTypeEnum columnType, int meta) {
+        super(columnType, meta, meta);
+    }
+
+    @Override
+    public Object decode(ByteArrayIndexInputStream in) throws IOException {
+        return BitMapUtil.parseBitMapByBigEndian(in.readBytes(this.length));
+    }
+}
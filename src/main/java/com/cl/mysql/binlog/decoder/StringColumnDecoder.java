@@ -0,0 +1,44 @@
+package com.cl.mysql.binlog.decoder;
+
+import com.cl.mysql.binlog.constant.TableMapColumnTypeEnum;
+import com.cl.mysql.binlog.entity.LazyString;
+import com.cl.mysql.binlog.stream.ByteArrayIndexInputStream;
+import com.cl.mysql.binlog.util.CharsetUtil;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+
+/**
+ * @description: CHAR、VARCHAR，meta为字段最大字节数，小于256时长度前缀占1个字节，否则占2个字节
+ * <p>
+ * 字符集来自TableMapEvent的DEFAULT_CHARSET / COLUMN_CHARSET，编译时确定；
+ * lazyString为true时返回{@link LazyString}，用到时才解码
+ * @author: liuzijian
+ * @time: 2023-09-23 10:46
+ */
+@Getter
+public class StringColumnDecoder extends LengthPrefixedColumnDecoder {
+
+    private final Charset charset;
+
+    private final boolean asciiCompatible;
+
+    private final boolean lazyString;
+
+    public StringColumnDecoder(TableMapColumnTypeEnum columnType, int meta, Charset charset, boolean lazyString) {
+        super(columnType, meta, meta < 256 ? 1 : 2);
+        this.charset = charset;
+        this.asciiCompatible = CharsetUtil.isAsciiCompatible(charset);
+        this.lazyString = lazyString;
+    }
+
+    @Override
+    public Object decode(ByteArrayIndexInputStream in) throws IOException {
+        int length = this.readLength(in);
+        if (this.lazyString) {
+            return new LazyString(in.readBytes(length), this.charset, this.asciiCompatible);
+        }
+        return in.readString(length, this.charset, this.asciiCompatible);
+    }
+}
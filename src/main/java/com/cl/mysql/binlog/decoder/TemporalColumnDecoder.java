@@ -0,0 +1,107 @@
+package com.cl.mysql.binlog.decoder;
+
+import com.cl.mysql.binlog.constant.ColumnValueTypeEnum;
+import com.cl.mysql.binlog.constant.TableMapColumnTypeEnum;
+import com.cl.mysql.binlog.constant.TemporalDecodeModeEnum;
+import com.cl.mysql.binlog.stream.ByteArrayIndexInputStream;
+import lombok.Getter;
+
+import java.io.IOException;
+
+/**
+ * @description: 时间类型的公共部分，解析时只读成一个long（含义见{@link TemporalDecodeModeEnum}），转成对象时再按解析方式处理
+ * <p>
+ * TIME2、DATETIME2、TIMESTAMP2的meta为秒的小数位数（0 ~ 6），占用(meta + 1) / 2个字节，
+ * 参考<a href="https://github.com/mysql/mysql-server/blob/8.0/mysys/my_time.cc">源码，搜my_datetime_packed_from_binary、my_time_packed_from_binary、my_timestamp_from_binary</a>
+ * </p>
+ * @author: liuzijian
+ * @time: 2023-09-23 10:10
+ */
+@Getter
+public abstract class TemporalColumnDecoder extends FixedLengthColumnDecoder {
+
+    protected static final long MICROS_PER_SECOND = 1_000_000L;
+
+    /**
+     * 秒的小数部分占用的字节数
+     */
+    protected final int fractionalLength;
+
+    protected final TemporalDecodeModeEnum mode;
+
+    protected TemporalColumnDecoder(TableMapColumnTypeEnum columnType, int meta, int integralLength, int fractionalLength, TemporalDecodeModeEnum mode) {
+        super(columnType, meta, integralLength + fractionalLength);
+        this.fractionalLength = fractionalLength;
+        this.mode = mode;
+    }
+
+    @Override
+    public ColumnValueTypeEnum getValueType() {
+        return ColumnValueTypeEnum.LONG;
+    }
+
+    @Override
+    public Object decode(ByteArrayIndexInputStream in) throws IOException {
+        return this.box(this.decodeLong(in));
+    }
+
+    @Override
+    public Object box(long value) {
+        switch (this.mode) {
+            case RAW:
+                return value;
+            case LEGACY:
+                return this.toLegacy(value);
+            default:
+                return this.toJavaTime(value);
+        }
+    }
+
+    /**
+     * @param value {@link #decodeLong(ByteArrayIndexInputStream)}的结果
+     * @return java.time对象
+     */
+    protected abstract Object toJavaTime(long value);
+
+    /**
+     * @param value {@link #decodeLong(ByteArrayIndexInputStream)}的结果
+     * @return 旧版本的java.util.Date系列对象
+     */
+    protected abstract Object toLegacy(long value);
+
+    /**
+     * 读取有符号的秒的小数部分（DATETIME2），大端存储；TIME2的小数部分是无符号借位存储的，见{@link Time2ColumnDecoder}
+     *
+     * @return 微秒
+     */
+    protected int readSignedFraction(ByteArrayIndexInputStream in) throws IOException {
+        switch (this.fractionalLength) {
+            case 1:
+                return ((byte) in.readLongBigEndian(1)) * 10000;
+            case 2:
+                return ((short) in.readLongBigEndian(2)) * 100;
+            case 3:
+                return (((int) in.readLongBigEndian(3)) << 8) >> 8;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * 读取无符号的秒的小数部分（TIMESTAMP2），大端存储
+     *
+     * @return 微秒
+     */
+    protected int readUnsignedFraction(ByteArrayIndexInputStream in) throws IOException {
+        switch (this.fractionalLength) {
+            case 1:
+                return (int) in.readLongBigEndian(1) * 10000;
+            case 2:
+                return (int) in.readLongBigEndian(2) * 100;
+            case 3:
+                return (int) in.readLongBigEndian(3);
+            default:
+                return 0;
+        }
+    }
+}
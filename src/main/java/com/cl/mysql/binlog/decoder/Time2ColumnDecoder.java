@@ -0,0 +1,82 @@
+package com.cl.mysql.binlog.decoder;
+
+import com.cl.mysql.binlog.constant.TableMapColumnTypeEnum;
+import com.cl.mysql.binlog.constant.TemporalDecodeModeEnum;
+import com.cl.mysql.binlog.stream.ByteArrayIndexInputStream;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.Calendar;
+
+/**
+ * @description: TIME2，3个字节大端 + 秒的小数部分，整数部分：1位符号 + 1位保留 + 10位时 + 6位分 + 6位秒<br>
+ * 解析结果为mysql的packed time：整数部分 << 24 + 微秒，负数时整体取负
+ * @author: liuzijian
+ * @time: 2023-09-23 10:25
+ */
+public class Time2ColumnDecoder extends TemporalColumnDecoder {
+
+    private static final long TIMEF_INT_OFS = 0x800000L;
+
+    private static final long TIMEF_OFS = 0x800000000000L;
+
+    public Time2ColumnDecoder(TableMapColumnTypeEnum columnType, int meta, TemporalDecodeModeEnum mode) {
+        super(columnType, meta, 3, (meta + 1) / 2, mode);
+    }
+
+    @Override
+    public long decodeLong(ByteArrayIndexInputStream in) throws IOException {
+        if (this.fractionalLength == 3) {
+            return in.readLongBigEndian(6) - TIMEF_OFS;
+        }
+        long intPart = in.readLongBigEndian(3) - TIMEF_INT_OFS;
+        if (this.fractionalLength == 0) {
+            return intPart << 24;
+        }
+        // 与DATETIME2不同，小数部分按无符号读取，负数时先借位再换算成微秒，参考源码my_time_packed_from_binary
+        boolean oneByte = this.fractionalLength == 1;
+        int frac = (int) in.readLongBigEndian(this.fractionalLength);
+        if (intPart < 0 && frac != 0) {
+            intPart++;
+            frac -= oneByte ? 0x100 : 0x10000;
+        }
+        return (intPart << 24) + frac * (oneByte ? 10000 : 100);
+    }
+
+    /**
+     * @return 时、分、秒、微秒，不带符号
+     */
+    private static int[] unpack(long packed) {
+        long abs = Math.abs(packed);
+        long hms = abs >> 24;
+        return new int[]{
+                (int) ((hms >> 12) % (1 << 10)),
+                (int) ((hms >> 6) % (1 << 6)),
+                (int) (hms % (1 << 6)),
+                (int) (abs % (1L << 24))
+        };
+    }
+
+    @Override
+    protected Object toJavaTime(long value) {
+        int[] t = unpack(value);
+        if (value >= 0 && t[0] < 24) {
+            return LocalTime.of(t[0], t[1], t[2], t[3] * 1000);
+        }
+        Duration duration = Duration.ofSeconds(t[0] * 3600L + t[1] * 60L + t[2], t[3] * 1000L);
+        return value < 0 ? duration.negated() : duration;
+    }
+
+    @Override
+    protected Object toLegacy(long value) {
+        int[] t = unpack(value);
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(Calendar.HOUR_OF_DAY, t[0]);
+        calendar.set(Calendar.MINUTE, t[1]);
+        calendar.set(Calendar.SECOND, t[2]);
+        calendar.set(Calendar.MILLISECOND, t[3] / 1000);
+        return calendar.getTimeInMillis();
+    }
+}
@@ -0,0 +1,54 @@
+package com.cl.mysql.binlog.decoder;
+
+import com.cl.mysql.binlog.constant.TableMapColumnTypeEnum;
+import com.cl.mysql.binlog.constant.TemporalDecodeModeEnum;
+import com.cl.mysql.binlog.stream.ByteArrayIndexInputStream;
+
+import java.io.IOException;
+import java.sql.Time;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.Calendar;
+
+/**
+ * @description: TIME（5.6.4之前的格式），3个字节小端有符号，值为 HHMMSS<br>
+ * 参考{@link com.google.code.or.common.util.MySQLUtils#toTime(int)}
+ * @author: liuzijian
+ * @time: 2023-09-23 10:22
+ */
+public class TimeColumnDecoder extends TemporalColumnDecoder {
+
+    public TimeColumnDecoder(TableMapColumnTypeEnum columnType, int meta, TemporalDecodeModeEnum mode) {
+        super(columnType, meta, 3, 0, mode);
+    }
+
+    @Override
+    public long decodeLong(ByteArrayIndexInputStream in) throws IOException {
+        return (in.readInt(3) << 8) >> 8;
+    }
+
+    @Override
+    protected Object toJavaTime(long value) {
+        long abs = Math.abs(value);
+        int s = (int) (abs % 100);
+        int m = (int) (abs / 100 % 100);
+        int h = (int) (abs / 10000);
+        if (value >= 0 && h < 24) {
+            return LocalTime.of(h, m, s);
+        }
+        Duration duration = Duration.ofSeconds(h * 3600L + m * 60L + s);
+        return value < 0 ? duration.negated() : duration;
+    }
+
+    @Override
+    protected Object toLegacy(long value) {
+        int v = (int) value;
+        final int s = v % 100;
+        v /= 100;
+        final int m = v % 100;
+        final int h = v / 100;
+        final Calendar c = Calendar.getInstance();
+        c.set(70, 0, 1, h, m, s);
+        return new Time(c.getTimeInMillis());
+    }
+}
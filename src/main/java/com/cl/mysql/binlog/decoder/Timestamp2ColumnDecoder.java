@@ -0,0 +1,39 @@
+package com.cl.mysql.binlog.decoder;
+
+import com.cl.mysql.binlog.constant.TableMapColumnTypeEnum;
+import com.cl.mysql.binlog.constant.TemporalDecodeModeEnum;
+import com.cl.mysql.binlog.stream.ByteArrayIndexInputStream;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.Instant;
+
+/**
+ * @description: TIMESTAMP2，4个字节大端的秒数 + 秒的小数部分，解析结果为微秒
+ * @author: liuzijian
+ * @time: 2023-09-23 10:35
+ */
+public class Timestamp2ColumnDecoder extends TemporalColumnDecoder {
+
+    public Timestamp2ColumnDecoder(TableMapColumnTypeEnum columnType, int meta, TemporalDecodeModeEnum mode) {
+        super(columnType, meta, 4, (meta + 1) / 2, mode);
+    }
+
+    @Override
+    public long decodeLong(ByteArrayIndexInputStream in) throws IOException {
+        long seconds = in.readLongBigEndian(4);
+        return seconds * MICROS_PER_SECOND + this.readUnsignedFraction(in);
+    }
+
+    @Override
+    protected Object toJavaTime(long value) {
+        return Instant.ofEpochSecond(value / MICROS_PER_SECOND, (value % MICROS_PER_SECOND) * 1000);
+    }
+
+    @Override
+    protected Object toLegacy(long value) {
+        Timestamp result = new Timestamp(value / MICROS_PER_SECOND * 1000);
+        result.setNanos((int) (value % MICROS_PER_SECOND) * 1000);
+        return result;
+    }
+}
@@ -0,0 +1,36 @@
+package com.cl.mysql.binlog.decoder;
+
+import com.cl.mysql.binlog.constant.TableMapColumnTypeEnum;
+import com.cl.mysql.binlog.constant.TemporalDecodeModeEnum;
+import com.cl.mysql.binlog.stream.ByteArrayIndexInputStream;
+
+import java.io.IOException;
+import java.time.Instant;
+
+/**
+ * @description: TIMESTAMP（5.6.4之前的格式），4个字节小端的秒数，解析结果为微秒<br>
+ * 获取值：<a href="https://github.com/mysql/mysql-server/blob/8.0/storage/ndb/clusterj/clusterj-tie/src/main/java/com/mysql/clusterj/tie/Utility.java">第385行</a>
+ * @author: liuzijian
+ * @time: 2023-09-23 10:33
+ */
+public class TimestampColumnDecoder extends TemporalColumnDecoder {
+
+    public TimestampColumnDecoder(TableMapColumnTypeEnum columnType, int meta, TemporalDecodeModeEnum mode) {
+        super(columnType, meta, 4, 0, mode);
+    }
+
+    @Override
+    public long decodeLong(ByteArrayIndexInputStream in) throws IOException {
+        return (in.readInt(4) & 0xFFFFFFFFL) * MICROS_PER_SECOND;
+    }
+
+    @Override
+    protected Object toJavaTime(long value) {
+        return Instant.ofEpochSecond(value / MICROS_PER_SECOND);
+    }
+
+    @Override
+    protected Object toLegacy(long value) {
+        return value / 1000;
+    }
+}
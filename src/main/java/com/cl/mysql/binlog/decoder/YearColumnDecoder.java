@@ -0,0 +1,40 @@
+package com.cl.mysql.binlog.decoder;
+
+import com.cl.mysql.binlog.constant.ColumnValueTypeEnum;
+import com.cl.mysql.binlog.constant.TableMapColumnTypeEnum;
+import com.cl.mysql.binlog.stream.ByteArrayIndexInputStream;
+
+import java.io.IOException;
+
+/**
+ * @description: YEAR，1个字节，存的是与1900的差值<br>
+ * 参考{@link com.google.code.or.common.util.MySQLUtils#toYear(int)}
+ * @author: liuzijian
+ * @time: 2023-09-23 10:38
+ */
+public class YearColumnDecoder extends FixedLengthColumnDecoder {
+
+    public YearColumnDecoder(TableMapColumnTypeEnum columnType, int meta) {
+        super(columnType, meta, 1);
+    }
+
+    @Override
+    public ColumnValueTypeEnum getValueType() {
+        return ColumnValueTypeEnum.LONG;
+    }
+
+    @Override
+    public long decodeLong(ByteArrayIndexInputStream in) throws IOException {
+        return in.readInt(1) + 1900;
+    }
+
+    @Override
+    public Object box(long value) {
+        return (int) value;
+    }
+
+    @Override
+    public Object decode(ByteArrayIndexInputStream in) throws IOException {
+        return this.box(this.decodeLong(in));
+    }
+}
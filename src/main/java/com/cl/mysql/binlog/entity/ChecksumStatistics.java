@@ -0,0 +1,68 @@
+package com.cl.mysql.binlog.entity;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @description: 事件校验和的统计，解析线程写入，其他线程可以随时读取
+ * @author: liuzijian
+ * @time: 2023-09-26 09:50
+ */
+public class ChecksumStatistics {
+
+    /**
+     * 校验过的事件数
+     */
+    private final LongAdder verifiedEvents = new LongAdder();
+
+    /**
+     * 校验过的字节数，包含common header
+     */
+    private final LongAdder verifiedBytes = new LongAdder();
+
+    /**
+     * 抽样模式下没有抽中的事件数
+     */
+    private final LongAdder sampledOutEvents = new LongAdder();
+
+    /**
+     * 校验和不一致的事件数
+     */
+    private final LongAdder failedEvents = new LongAdder();
+
+    public void recordVerified(int eventSize) {
+        this.verifiedEvents.increment();
+        this.verifiedBytes.add(eventSize);
+    }
+
+    public void recordSampledOut() {
+        this.sampledOutEvents.increment();
+    }
+
+    public void recordFailed() {
+        this.failedEvents.increment();
+    }
+
+    public long getVerifiedEvents() {
+        return this.verifiedEvents.sum();
+    }
+
+    public long getVerifiedBytes() {
+        return this.verifiedBytes.sum();
+    }
+
+    public long getSampledOutEvents() {
+        return this.sampledOutEvents.sum();
+    }
+
+    public long getFailedEvents() {
+        return this.failedEvents.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "ChecksumStatistics{verifiedEvents=" + this.getVerifiedEvents()
+                + ", verifiedBytes=" + this.getVerifiedBytes()
+                + ", sampledOutEvents=" + this.getSampledOutEvents()
+                + ", failedEvents=" + this.getFailedEvents() + "}";
+    }
+}
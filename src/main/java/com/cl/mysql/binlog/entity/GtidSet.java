@@ -0,0 +1,402 @@
+package com.cl.mysql.binlog.entity;
+
+import com.cl.mysql.binlog.stream.ByteArrayIndexInputStream;
+import com.cl.mysql.binlog.stream.ByteArrayIndexOutputStream;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * @description: GTID集合，文本格式与mysql的gtid_executed一致：uuid:1-100:200-300,uuid2:1-5
+ * <p>
+ * 每个uuid的GNO区间按起点排序存放在long数组里（区间为闭区间，相邻、重叠的区间会合并），
+ * 按顺序追加GNO（正常复制的情况）只修改最后一个区间的终点，均摊O(1)；乱序的GNO二分查找后插入或合并
+ * </p>
+ * 二进制格式用于COM_BINLOG_DUMP_GTID和PREVIOUS_GTIDS_LOG_EVENT：
+ * n_sids（8个字节） + n_sids个 [ uuid（16个字节） + n_intervals（8个字节） + n_intervals个 [ start（8个字节） + end（8个字节，不包含） ] ]<br>
+ * <a href="https://github.com/mysql/mysql-server/blob/8.0/sql/rpl_gtid_set.cc">源码：搜Gtid_set::encode</a>
+ * <p>
+ * 注意：该类不是线程安全的
+ * @author: liuzijian
+ * @time: 2023-09-27 09:30
+ */
+public class GtidSet {
+
+    private final Map<UUID, UuidSet> uuidSets = new HashMap<>();
+
+    /**
+     * 最近一次添加的uuid，连续的事务一般来自同一个uuid，省去一次哈希查找
+     */
+    private UuidSet lastUuidSet;
+
+    public GtidSet() {
+    }
+
+    /**
+     * @param text 例如 3E11FA47-71CA-11E1-9E33-C80AA9429562:1-5:7,24DA167-0C0C-11E8-8442-00059A3C7B00:1-19，为空表示空集合
+     */
+    public static GtidSet parse(String text) {
+        GtidSet gtidSet = new GtidSet();
+        if (text == null) {
+            return gtidSet;
+        }
+        for (String part : text.split(",")) {
+            String uuidSetText = part.trim();
+            if (uuidSetText.isEmpty()) {
+                continue;
+            }
+            String[] items = uuidSetText.split(":");
+            UuidSet uuidSet = gtidSet.getOrCreate(UUID.fromString(items[0].trim()));
+            for (int i = 1; i < items.length; i++) {
+                String interval = items[i].trim();
+                int dash = interval.indexOf('-');
+                try {
+                    long start = Long.parseLong(dash < 0 ? interval : interval.substring(0, dash).trim());
+                    long end = dash < 0 ? start : Long.parseLong(interval.substring(dash + 1).trim());
+                    if (start <= 0 || end < start) {
+                        throw new IllegalArgumentException("gtid区间不合法：" + uuidSetText);
+                    }
+                    uuidSet.add(start, end);
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("gtid区间不合法（暂不支持带tag的gtid）：" + uuidSetText);
+                }
+            }
+        }
+        return gtidSet;
+    }
+
+    /**
+     * 读取二进制格式的GTID集合
+     */
+    public static GtidSet decode(ByteArrayIndexInputStream in) throws IOException {
+        GtidSet gtidSet = new GtidSet();
+        long sidCount = in.readLong(8);
+        for (long i = 0; i < sidCount; i++) {
+            UUID uuid = new UUID(in.readLongBigEndian(8), in.readLongBigEndian(8));
+            UuidSet uuidSet = gtidSet.getOrCreate(uuid);
+            long intervalCount = in.readLong(8);
+            for (long j = 0; j < intervalCount; j++) {
+                long start = in.readLong(8);
+                long end = in.readLong(8);
+                uuidSet.add(start, end - 1);
+            }
+        }
+        return gtidSet;
+    }
+
+    /**
+     * @return 二进制格式
+     */
+    public byte[] encode() throws IOException {
+        ByteArrayIndexOutputStream out = new ByteArrayIndexOutputStream();
+        List<UuidSet> sorted = this.sortedUuidSets();
+        out.writeLong(sorted.size(), 8);
+        for (UuidSet uuidSet : sorted) {
+            writeLongBigEndian(out, uuidSet.uuid.getMostSignificantBits());
+            writeLongBigEndian(out, uuidSet.uuid.getLeastSignificantBits());
+            out.writeLong(uuidSet.size, 8);
+            for (int i = 0; i < uuidSet.size; i++) {
+                out.writeLong(uuidSet.starts[i], 8);
+                out.writeLong(uuidSet.ends[i] + 1, 8);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 添加一个GTID
+     *
+     * @return false：已经在集合里了
+     */
+    public boolean add(UUID uuid, long gno) {
+        UuidSet uuidSet = this.lastUuidSet;
+        if (uuidSet == null || !uuidSet.uuid.equals(uuid)) {
+            uuidSet = this.getOrCreate(uuid);
+            this.lastUuidSet = uuidSet;
+        }
+        return uuidSet.add(gno);
+    }
+
+    /**
+     * 并入另一个集合，同一个uuid的区间按顺序归并
+     */
+    public void addAll(GtidSet other) {
+        for (UuidSet uuidSet : other.uuidSets.values()) {
+            this.getOrCreate(uuidSet.uuid).addAll(uuidSet);
+        }
+    }
+
+    public boolean contains(UUID uuid, long gno) {
+        UuidSet uuidSet = this.uuidSets.get(uuid);
+        return uuidSet != null && uuidSet.contains(gno);
+    }
+
+    public boolean isEmpty() {
+        for (UuidSet uuidSet : this.uuidSets.values()) {
+            if (uuidSet.size > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public Set<UUID> getUuids() {
+        return Collections.unmodifiableSet(this.uuidSets.keySet());
+    }
+
+    /**
+     * @return 没有该uuid时返回null
+     */
+    public UuidSet getUuidSet(UUID uuid) {
+        return this.uuidSets.get(uuid);
+    }
+
+    public GtidSet copy() {
+        GtidSet copy = new GtidSet();
+        copy.addAll(this);
+        return copy;
+    }
+
+    private UuidSet getOrCreate(UUID uuid) {
+        return this.uuidSets.computeIfAbsent(uuid, UuidSet::new);
+    }
+
+    private List<UuidSet> sortedUuidSets() {
+        List<UuidSet> sorted = new ArrayList<>(this.uuidSets.size());
+        for (UuidSet uuidSet : this.uuidSets.values()) {
+            if (uuidSet.size > 0) {
+                sorted.add(uuidSet);
+            }
+        }
+        sorted.sort((a, b) -> a.uuid.toString().compareTo(b.uuid.toString()));
+        return sorted;
+    }
+
+    private static void writeLongBigEndian(ByteArrayIndexOutputStream out, long value) throws IOException {
+        for (int i = 7; i >= 0; i--) {
+            out.write((int) (value >>> (i << 3)) & 0xFF);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof GtidSet && this.toString().equals(o.toString());
+    }
+
+    @Override
+    public int hashCode() {
+        return this.toString().hashCode();
+    }
+
+    /**
+     * @return 与mysql的gtid_executed格式一致，uuid按字典序排列
+     */
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        for (UuidSet uuidSet : this.sortedUuidSets()) {
+            if (text.length() > 0) {
+                text.append(',');
+            }
+            uuidSet.appendTo(text);
+        }
+        return text.toString();
+    }
+
+    /**
+     * 一个uuid下的GNO区间，starts、ends的前size个元素有效，按起点升序、互不相邻
+     */
+    public static final class UuidSet {
+
+        private static final int INITIAL_CAPACITY = 4;
+
+        private final UUID uuid;
+
+        private long[] starts = new long[INITIAL_CAPACITY];
+
+        /**
+         * 区间终点（包含）
+         */
+        private long[] ends = new long[INITIAL_CAPACITY];
+
+        private int size;
+
+        private UuidSet(UUID uuid) {
+            this.uuid = uuid;
+        }
+
+        public UUID getUuid() {
+            return this.uuid;
+        }
+
+        public int getIntervalCount() {
+            return this.size;
+        }
+
+        public long getStart(int index) {
+            return this.starts[index];
+        }
+
+        /**
+         * @return 区间终点（包含）
+         */
+        public long getEnd(int index) {
+            return this.ends[index];
+        }
+
+        public boolean contains(long gno) {
+            int i = this.firstEndNotBefore(gno);
+            return i < this.size && this.starts[i] <= gno;
+        }
+
+        private boolean add(long gno) {
+            if (this.size > 0) {
+                long lastEnd = this.ends[this.size - 1];
+                if (gno == lastEnd + 1) {
+                    this.ends[this.size - 1] = gno;
+                    return true;
+                } else if (gno > lastEnd + 1) {
+                    this.append(gno, gno);
+                    return true;
+                } else if (this.contains(gno)) {
+                    return false;
+                }
+            }
+            this.add(gno, gno);
+            return true;
+        }
+
+        /**
+         * 添加闭区间 [start, end]，与已有区间重叠或相邻时合并
+         */
+        private void add(long start, long end) {
+            if (this.size == 0 || start > this.ends[this.size - 1] + 1) {
+                this.append(start, end);
+                return;
+            }
+            // first：第一个可能与新区间合并的区间，last：最后一个可能合并的区间
+            int first = this.firstEndNotBefore(start - 1);
+            int last = this.lastStartNotAfter(end + 1);
+            if (first > last) {
+                this.ensureCapacity(this.size + 1);
+                System.arraycopy(this.starts, first, this.starts, first + 1, this.size - first);
+                System.arraycopy(this.ends, first, this.ends, first + 1, this.size - first);
+                this.starts[first] = start;
+                this.ends[first] = end;
+                this.size++;
+                return;
+            }
+            this.starts[first] = Math.min(start, this.starts[first]);
+            this.ends[first] = Math.max(end, this.ends[last]);
+            int removed = last - first;
+            if (removed > 0) {
+                System.arraycopy(this.starts, last + 1, this.starts, first + 1, this.size - last - 1);
+                System.arraycopy(this.ends, last + 1, this.ends, first + 1, this.size - last - 1);
+                this.size -= removed;
+            }
+        }
+
+        /**
+         * 两个有序区间列表按起点归并，O(n + m)
+         */
+        private void addAll(UuidSet other) {
+            if (other.size == 0) {
+                return;
+            }
+            long[] newStarts = new long[this.size + other.size];
+            long[] newEnds = new long[newStarts.length];
+            int n = 0;
+            int i = 0;
+            int j = 0;
+            while (i < this.size || j < other.size) {
+                long start;
+                long end;
+                if (j >= other.size || (i < this.size && this.starts[i] <= other.starts[j])) {
+                    start = this.starts[i];
+                    end = this.ends[i++];
+                } else {
+                    start = other.starts[j];
+                    end = other.ends[j++];
+                }
+                if (n > 0 && start <= newEnds[n - 1] + 1) {
+                    newEnds[n - 1] = Math.max(newEnds[n - 1], end);
+                } else {
+                    newStarts[n] = start;
+                    newEnds[n++] = end;
+                }
+            }
+            this.starts = newStarts.length < INITIAL_CAPACITY ? Arrays.copyOf(newStarts, INITIAL_CAPACITY) : newStarts;
+            this.ends = newEnds.length < INITIAL_CAPACITY ? Arrays.copyOf(newEnds, INITIAL_CAPACITY) : newEnds;
+            this.size = n;
+        }
+
+        private void append(long start, long end) {
+            this.ensureCapacity(this.size + 1);
+            this.starts[this.size] = start;
+            this.ends[this.size] = end;
+            this.size++;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > this.starts.length) {
+                int newCapacity = Math.max(capacity, this.starts.length << 1);
+                this.starts = Arrays.copyOf(this.starts, newCapacity);
+                this.ends = Arrays.copyOf(this.ends, newCapacity);
+            }
+        }
+
+        /**
+         * @return 第一个终点 >= value 的区间下标，没有时返回size
+         */
+        private int firstEndNotBefore(long value) {
+            int low = 0;
+            int high = this.size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (this.ends[mid] < value) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * @return 最后一个起点 <= value 的区间下标，没有时返回-1
+         */
+        private int lastStartNotAfter(long value) {
+            int low = 0;
+            int high = this.size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (this.starts[mid] <= value) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low - 1;
+        }
+
+        private void appendTo(StringBuilder text) {
+            text.append(this.uuid);
+            for (int i = 0; i < this.size; i++) {
+                text.append(':').append(this.starts[i]);
+                if (this.ends[i] != this.starts[i]) {
+                    text.append('-').append(this.ends[i]);
+                }
+            }
+        }
+    }
+}
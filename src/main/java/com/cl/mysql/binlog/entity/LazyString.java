@@ -0,0 +1,110 @@
+package com.cl.mysql.binlog.entity;
+
+import com.cl.mysql.binlog.util.CharsetUtil;
+
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * @description: 延迟解码的字符串，只保存字段的原始字节和字符集，第一次调用{@link #toString()}时才真正解码并缓存结果
+ * <p>
+ * 全是ASCII字符时{@link #length()}、{@link #charAt(int)}、{@link #hashCode()}直接按字节计算，不会触发解码；
+ * {@link #hashCode()}与解码后的{@link String#hashCode()}一致，{@link #equals(Object)}只和LazyString比较内容，
+ * 需要和String比较时请先toString()
+ * @author: liuzijian
+ * @time: 2023-09-24 14:30
+ */
+public final class LazyString implements CharSequence {
+
+    private final byte[] bytes;
+
+    private final Charset charset;
+
+    /**
+     * 字节是否全部是ASCII字符（并且字符集兼容ASCII），是的话一个字节就是一个字符
+     */
+    private final boolean ascii;
+
+    private String value;
+
+    private int hash;
+
+    public LazyString(byte[] bytes, Charset charset, boolean asciiCompatible) {
+        this.bytes = bytes;
+        this.charset = charset;
+        this.ascii = asciiCompatible && CharsetUtil.isAscii(bytes, 0, bytes.length);
+    }
+
+    /**
+     * @return 原始字节，调用方不要修改
+     */
+    public byte[] getBytes() {
+        return this.bytes;
+    }
+
+    public Charset getCharset() {
+        return this.charset;
+    }
+
+    @Override
+    public int length() {
+        return this.ascii ? this.bytes.length : this.toString().length();
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (this.ascii) {
+            if (index < 0 || index >= this.bytes.length) {
+                throw new StringIndexOutOfBoundsException(index);
+            }
+            return (char) this.bytes[index];
+        }
+        return this.toString().charAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return this.toString().subSequence(start, end);
+    }
+
+    @Override
+    public String toString() {
+        String result = this.value;
+        if (result == null) {
+            result = CharsetUtil.decode(this.bytes, 0, this.bytes.length, this.charset, this.ascii);
+            this.value = result;
+        }
+        return result;
+    }
+
+    @Override
+    public int hashCode() {
+        int h = this.hash;
+        if (h == 0 && this.bytes.length > 0) {
+            if (this.ascii) {
+                for (byte b : this.bytes) {
+                    h = 31 * h + b;
+                }
+            } else {
+                h = this.toString().hashCode();
+            }
+            this.hash = h;
+        }
+        return h;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof LazyString)) {
+            return false;
+        }
+        LazyString other = (LazyString) obj;
+        if (this.charset.equals(other.charset)) {
+            return Arrays.equals(this.bytes, other.bytes);
+        }
+        return this.toString().equals(other.toString());
+    }
+}
@@ -1,20 +1,28 @@
 package com.cl.mysql.binlog.entity;
 
 import com.cl.mysql.binlog.binlogEvent.TableMapEvent;
-import com.cl.mysql.binlog.constant.JsonTypeEnum;
-import com.cl.mysql.binlog.constant.TableMapColumnTypeEnum;
+import com.cl.mysql.binlog.constant.RowDecodeModeEnum;
+import com.cl.mysql.binlog.decoder.BlobColumnDecoder;
+import com.cl.mysql.binlog.decoder.ColumnDecoder;
+import com.cl.mysql.binlog.decoder.JsonColumnDecoder;
+import com.cl.mysql.binlog.decoder.NewDecimalColumnDecoder;
+import com.cl.mysql.binlog.decoder.RowDecoderPlan;
+import com.cl.mysql.binlog.decoder.StringColumnDecoder;
+import com.cl.mysql.binlog.json.JsonBinary;
+import com.cl.mysql.binlog.json.JsonDiffVector;
+import com.cl.mysql.binlog.json.JsonPath;
+import com.cl.mysql.binlog.json.JsonVisitor;
 import com.cl.mysql.binlog.stream.ByteArrayIndexInputStream;
 import com.cl.mysql.binlog.util.BitMapUtil;
-import com.cl.mysql.binlog.util.CommonUtil;
+import com.cl.mysql.binlog.util.CharsetUtil;
 import lombok.Getter;
 
 import java.io.IOException;
 import java.math.BigDecimal;
-import java.sql.Date;
-import java.sql.Time;
+import java.math.BigInteger;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.BitSet;
-import java.util.Calendar;
 import java.util.List;
 
 /**
@@ -22,491 +30,478 @@ import java.util.List;
  * @author: liuzijian
  * @time: 2023-09-15 15:42
  */
-@Getter
 public class Row {
+
     /**
-     * <a href="https://github.com/mysql/mysql-server/blob/8.0/strings/decimal.cc">源码：搜dig2bytes</a>
+     * value_options中表示JSON局部更新的位，<a href="https://github.com/mysql/mysql-server/blob/8.0/libbinlogevents/include/rows_event.h">源码：搜PARTIAL_JSON_UPDATES</a>
      */
-    private final static int[] dig2bytes = {0, 1, 1, 2, 2, 3, 3, 4, 4, 4};
+    private static final long PARTIAL_JSON_UPDATES = 1;
 
-    private final List<Object> rowValue;
+    private final TableMapEvent tableMapEvent;
 
+    private final RowDecoderPlan plan;
+
+    /**
+     * 记录了哪些字段的值是null，下标为字段下标
+     */
+    private final BitSet nullBitMask;
+
+    /**
+     * 镜像中记录了哪些字段（columns_before_image / columns_after_image），binlog_row_image=MINIMAL、NOBLOB时只记录部分字段，
+     * 为null表示记录了全部字段
+     */
+    private final BitSet presentColumns;
+
+    /**
+     * 整数类字段的值，下标见{@link RowDecoderPlan#getSlot(int)}，不装箱
+     */
+    private final long[] longValues;
+
+    /**
+     * 浮点数字段的值，下标见{@link RowDecoderPlan#getSlot(int)}，不装箱
+     */
+    private final double[] doubleValues;
+
+    /**
+     * 其余字段的值，下标见{@link RowDecoderPlan#getSlot(int)}
+     */
+    private final Object[] objectValues;
+
+    /**
+     * 懒加载模式下记录哪些字段已经解析过
+     */
+    private final BitSet decoded;
+
+    /**
+     * 懒加载模式下本行的字段报文（与事件报文共享内存），mark在第一个字段的位置
+     */
+    private final ByteArrayIndexInputStream rowData;
+
+    /**
+     * 懒加载模式下每个字段在{@link #rowData}中的偏移量，null字段为-1
+     */
+    private final int[] columnOffsets;
+
+    /**
+     * PARTIAL_UPDATE_ROWS_EVENT后镜像中只记录了局部更新的JSON字段，值为{@link JsonDiffVector}，没有时为null
+     */
+    private final BitSet partialJsonColumns;
 
     public Row(TableMapEvent tableMapEvent, ByteArrayIndexInputStream in) throws IOException {
-        List<Integer> metaDataList = tableMapEvent.getMetadata();
-        int columnCount = tableMapEvent.getColumnCount();
-        rowValue = new ArrayList<>(columnCount);
-        int nullBitMaskLength = (columnCount + 7) / 8;
-        BitSet nullBitMask = BitMapUtil.convertByBigEndianArray(columnCount, 0, in.readBytes(nullBitMaskLength));
-        for (int i = 0; i < columnCount; i++) {
-            if (!nullBitMask.get(i)) {
-                int meta = metaDataList.get(i);
-                TableMapColumnTypeEnum columnTypeEnum = tableMapEvent.getColumnType().get(i);
-                /**
-                 * 下面逻辑参考<a href="https://github.com/mysql/mysql-server/blob/8.0/sql/log_event.cc">源码，搜1819行~1832行</a>
-                 */
-                if (columnTypeEnum == TableMapColumnTypeEnum.MYSQL_TYPE_STRING) {
-                    if (meta >= 256) {
-                        int sourceMetaType = meta >> 8;// https://github.com/mysql/mysql-server/blob/8.0/sql/rpl_utility.h 第327行 ~ 第334行 解释meta怎么获取真实的类型
-                        int byte1 = meta & 0xFF;
-                        if ((sourceMetaType & 0x30) != 0x30) {
-                            /* a long CHAR() field: see #37426 */
-                            meta = byte1 | (((sourceMetaType & 0x30) ^ 0x30) << 4);
-                        } else {
-                            meta = meta & 0xFF;
-                        }
-                        columnTypeEnum = TableMapColumnTypeEnum.getByIdentifier(sourceMetaType | 0x30);
-                    }
-                }
-                Object value = this.deserializeField(columnTypeEnum, in, meta);
-                rowValue.add(value);
-            }
-        }
+        this(tableMapEvent, in, RowDecodeModeEnum.EAGER);
+    }
+
+    public Row(TableMapEvent tableMapEvent, ByteArrayIndexInputStream in, RowDecodeModeEnum decodeMode) throws IOException {
+        this(tableMapEvent, in, decodeMode, null, null);
     }
 
     /**
-     * <a href="https://github.com/mysql/mysql-server/blob/8.0/sql/log_event.cc">源码第1813行 ~ 2145行，即log_event_print_value方法，用来读取不同类型的长度</a><br>
-     * <a href="https://github.com/mysql/mysql-server/blob/8.0/storage/ndb/clusterj/clusterj-tie/src/main/java/com/mysql/clusterj/tie/Utility.java">参考源码，去解析各种类型的实际值</a>
-     *
-     * @param columnType 字段类型
-     * @param in         输入流
-     * @return 对应字段的值
-     * @throws IOException
-     */
-    public Object deserializeField(TableMapColumnTypeEnum columnType, ByteArrayIndexInputStream in, Integer meta) throws IOException {
-        switch (columnType) {
-            case MYSQL_TYPE_TINY:
-                return this.parseTiny(in);
-            case MYSQL_TYPE_SHORT:
-                return this.parseShort(in);
-            case MYSQL_TYPE_LONG:
-                return this.parseLong(in);
-            case MYSQL_TYPE_FLOAT:
-                return this.parseFloat(in);
-            case MYSQL_TYPE_DOUBLE:
-                return this.parseDouble(in);
-            case MYSQL_TYPE_NULL:
-                break;
-            case MYSQL_TYPE_TIMESTAMP:
-                return this.parseTimestamp(in);
-            case MYSQL_TYPE_TIMESTAMP2:
-                return this.parseTimestamp2(meta, in);
-            case MYSQL_TYPE_LONGLONG:
-                return this.parseLongLong(in);
-            case MYSQL_TYPE_INT24:
-                return this.parseInt24(in);
-            case MYSQL_TYPE_DATE:
-                return this.parseDate(in);
-            case MYSQL_TYPE_TIME:
-                return this.parseTime(in);
-            case MYSQL_TYPE_TIME2:
-                return this.parseTime2(meta, in);
-            case MYSQL_TYPE_DATETIME:
-                return this.parseDateTime(in);
-            case MYSQL_TYPE_DATETIME2:
-                return this.parseDateTime2(meta, in);
-            case MYSQL_TYPE_YEAR:
-                return this.parseYear(in);
-            case MYSQL_TYPE_VAR_STRING:
-            case MYSQL_TYPE_VARCHAR:
-            case MYSQL_TYPE_STRING:
-                return this.parseStr(meta, in);
-            case MYSQL_TYPE_BIT:
-                return this.parseBit(meta, in);
-            case MYSQL_TYPE_JSON:
-                return this.parseJson(meta, in);
-            case MYSQL_TYPE_NEWDECIMAL:
-                return this.parseNewdecimal(meta, in);
-            case MYSQL_TYPE_BLOB:
-                return this.parseBlob(meta, in);
-            case MYSQL_TYPE_ENUM:
-                return this.parseEnum(meta, in);
-            case MYSQL_TYPE_SET:
-                return this.parseSet(meta, in);
-        }
-        return null;
+     * @param presentColumns 镜像中记录了哪些字段，为null表示全部字段
+     */
+    public Row(TableMapEvent tableMapEvent, ByteArrayIndexInputStream in, RowDecodeModeEnum decodeMode, BitSet presentColumns) throws IOException {
+        this(tableMapEvent, in, decodeMode, presentColumns, null);
     }
 
     /**
-     * 获取长度：<a href="https://github.com/mysql/mysql-server/blob/8.0/sql/log_event.cc">源码第1813行 ~ 2145行，即log_event_print_value方法，用来读取不同类型的长度</a><br>
-     *
-     * @param in
-     * @return
-     * @throws IOException
+     * @param presentColumns          镜像中记录了哪些字段，为null表示全部字段
+     * @param partialJsonBeforeImage 不为null时表示本行是PARTIAL_UPDATE_ROWS_EVENT的后镜像，后镜像在null bitmap之前多了value_options和partial_bits，
+     *                               partial_bits对应前镜像中的JSON字段，这里传前镜像记录的字段
      */
-    public int parseTiny(ByteArrayIndexInputStream in) throws IOException {
-        return in.readInt(1);
+    public Row(TableMapEvent tableMapEvent, ByteArrayIndexInputStream in, RowDecodeModeEnum decodeMode, BitSet presentColumns, BitSet partialJsonBeforeImage) throws IOException {
+        this.tableMapEvent = tableMapEvent;
+        this.plan = tableMapEvent.getDecoderPlan();
+        int columnCount = this.plan.getColumnCount();
+        this.longValues = new long[this.plan.getLongSlotCount()];
+        this.doubleValues = new double[this.plan.getDoubleSlotCount()];
+        this.objectValues = new Object[this.plan.getObjectSlotCount()];
+        this.partialJsonColumns = partialJsonBeforeImage != null ? this.readPartialJsonColumns(in, partialJsonBeforeImage) : null;
+        this.presentColumns = presentColumns == null || presentColumns.cardinality() == columnCount ? null : presentColumns;
+        this.nullBitMask = this.readNullBitMask(in, columnCount);
+        if (decodeMode == RowDecodeModeEnum.LAZY) {
+            this.decoded = new BitSet(columnCount);
+            this.columnOffsets = new int[columnCount];
+            // 先走一遍算出每个字段的偏移量，再回到起点把整行切出来
+            in.mark(0);
+            int rowLength = 0;
+            for (int i = 0; i < columnCount; i++) {
+                if (!this.isPresent(i) || this.nullBitMask.get(i)) {
+                    this.columnOffsets[i] = -1;
+                    continue;
+                }
+                this.columnOffsets[i] = rowLength;
+                rowLength += this.plan.getDecoder(i).skip(in);
+            }
+            in.reset();
+            this.rowData = in.slice(rowLength);
+            this.rowData.mark(0);
+        } else {
+            this.decoded = null;
+            this.columnOffsets = null;
+            this.rowData = null;
+            BitSet projection = tableMapEvent.getProjection();
+            for (int i = 0; i < columnCount; i++) {
+                if (!this.isPresent(i) || this.nullBitMask.get(i)) {
+                    continue;
+                }
+                if (projection == null || projection.get(i)) {
+                    this.decodeColumn(i, in);
+                } else {
+                    this.plan.getDecoder(i).skip(in);
+                }
+            }
+        }
     }
 
     /**
-     * 获取长度：<a href="https://github.com/mysql/mysql-server/blob/8.0/sql/log_event.cc">源码第1813行 ~ 2145行，即log_event_print_value方法，用来读取不同类型的长度</a><br>
-     *
-     * @param in
-     * @return
-     * @throws IOException
+     * null bitmap只包含镜像中记录了的字段，每个记录了的字段占一位，这里换算成按字段下标的BitSet
      */
-    public int parseShort(ByteArrayIndexInputStream in) throws IOException {
-        return in.readInt(2);
+    private BitSet readNullBitMask(ByteArrayIndexInputStream in, int columnCount) throws IOException {
+        if (this.presentColumns == null) {
+            return BitMapUtil.convertByBigEndianArray(columnCount, 0, in.readBytes((columnCount + 7) / 8));
+        }
+        int presentCount = this.presentColumns.cardinality();
+        BitSet bits = BitMapUtil.convertByBigEndianArray(presentCount, 0, in.readBytes((presentCount + 7) / 8));
+        BitSet result = new BitSet(columnCount);
+        int bit = 0;
+        for (int i = this.presentColumns.nextSetBit(0); i >= 0 && i < columnCount; i = this.presentColumns.nextSetBit(i + 1)) {
+            if (bits.get(bit++)) {
+                result.set(i);
+            }
+        }
+        return result;
     }
 
     /**
-     * 获取长度：<a href="https://github.com/mysql/mysql-server/blob/8.0/sql/log_event.cc">源码第1813行 ~ 2145行，即log_event_print_value方法，用来读取不同类型的长度</a><br>
+     * <a href="https://github.com/mysql/mysql-server/blob/8.0/sql/rpl_record.cc">源码：搜unpack_row</a><br>
+     * value_options（packed integer），包含PARTIAL_JSON_UPDATES时后面跟着partial_bits，前镜像中的每个JSON字段一位，为1表示该字段记录的是局部更新
      *
-     * @param in
-     * @return
-     * @throws IOException
+     * @return 记录局部更新的字段下标，没有时为null
      */
-
-    private int parseLong(ByteArrayIndexInputStream in) throws IOException {
-        return in.readInt(4);
+    private BitSet readPartialJsonColumns(ByteArrayIndexInputStream in, BitSet beforeImage) throws IOException {
+        long valueOptions = in.readLenencInteger().longValue();
+        if ((valueOptions & PARTIAL_JSON_UPDATES) == 0) {
+            return null;
+        }
+        int[] jsonColumns = this.plan.getJsonColumns();
+        int jsonCount = 0;
+        for (int jsonColumn : jsonColumns) {
+            if (beforeImage.get(jsonColumn)) {
+                jsonCount++;
+            }
+        }
+        BitSet partialBits = BitMapUtil.convertByBigEndianArray(jsonCount, 0, in.readBytes((jsonCount + 7) / 8));
+        BitSet result = new BitSet(this.plan.getColumnCount());
+        int bit = 0;
+        for (int jsonColumn : jsonColumns) {
+            if (beforeImage.get(jsonColumn) && partialBits.get(bit++)) {
+                result.set(jsonColumn);
+            }
+        }
+        return result.isEmpty() ? null : result;
     }
 
     /**
-     * 获取长度：<a href="https://github.com/mysql/mysql-server/blob/8.0/sql/log_event.cc">源码第1813行 ~ 2145行，即log_event_print_value方法，用来读取不同类型的长度</a><br>
-     * 获取值：
-     *
-     * @param in
-     * @return
-     * @throws IOException
+     * 解析一个字段，按存储方式写入对应的数组
      */
-    private double parseDouble(ByteArrayIndexInputStream in) throws IOException {
-        return Double.longBitsToDouble(in.readLong(8));
+    private void decodeColumn(int columnIndex, ByteArrayIndexInputStream in) throws IOException {
+        ColumnDecoder decoder = this.plan.getDecoder(columnIndex);
+        int slot = this.plan.getSlot(columnIndex);
+        if (this.partialJsonColumns != null && this.partialJsonColumns.get(columnIndex)) {
+            // 长度前缀与完整的JSON字段一样，内容是操作列表
+            int length = in.readInt(((JsonColumnDecoder) decoder).getPrefixLength());
+            this.objectValues[slot] = JsonDiffVector.parse(in.slice(length));
+            return;
+        }
+        switch (decoder.getValueType()) {
+            case LONG:
+                this.longValues[slot] = decoder.decodeLong(in);
+                break;
+            case DOUBLE:
+                this.doubleValues[slot] = decoder.decodeDouble(in);
+                break;
+            default:
+                this.objectValues[slot] = decoder.decode(in);
+        }
     }
 
     /**
-     * 获取长度：<a href="https://github.com/mysql/mysql-server/blob/8.0/sql/log_event.cc">源码第1813行 ~ 2145行，即log_event_print_value方法，用来读取不同类型的长度</a><br>
-     * 获取值：<a href="https://github.com/mysql/mysql-server/blob/8.0/storage/ndb/clusterj/clusterj-tie/src/main/java/com/mysql/clusterj/tie/Utility.java">第385行</a>
+     * 保证字段已经解析，懒加载模式下第一次读取时才解析（非线程安全）
      *
-     * @param in
-     * @return
-     * @throws IOException
+     * @return false：字段为null或者不在投影内，没有值
      */
-    private long parseTimestamp(ByteArrayIndexInputStream in) throws IOException {
-        return in.readInt(4) * 1000L;
+    private boolean ensureDecoded(int columnIndex) {
+        if (!this.isPresent(columnIndex) || this.nullBitMask.get(columnIndex) || !this.isProjected(columnIndex)) {
+            return false;
+        }
+        if (this.rowData == null || this.decoded.get(columnIndex)) {
+            return true;
+        }
+        try {
+            this.rowData.reset();
+            this.rowData.skip(this.columnOffsets[columnIndex]);
+            this.decodeColumn(columnIndex, this.rowData);
+        } catch (IOException e) {
+            throw new RuntimeException("解析第" + columnIndex + "个字段失败", e);
+        }
+        this.decoded.set(columnIndex);
+        return true;
     }
 
-    private java.sql.Timestamp parseTimestamp2(int meta, ByteArrayIndexInputStream in) throws IOException {
-        int timestampValueLength = 4;
-        int millisecondsBytesLength = (meta + 1) / 2;// 纳秒长度
-        long timestampValue = CommonUtil.bigEndianLong(in.readBytes(timestampValueLength), 0, timestampValueLength);
-        int millisecondsValue = CommonUtil.bigEndianInteger(in.readBytes(millisecondsBytesLength), 0, millisecondsBytesLength);// 一共占24位
-        millisecondsValue = this.unpackFractionalSeconds(meta, millisecondsValue);
-        java.sql.Timestamp result = new java.sql.Timestamp(timestampValue * 1000);
-        result.setNanos(millisecondsValue);
-        return result;
+    /**
+     * @return 字段是否为JSON局部更新，是的话{@link #getValue(int)}返回{@link JsonDiffVector}，
+     * 可以调用{@link #applyJsonDiffs(Row)}还原成完整的JSON
+     */
+    public boolean isPartialJson(int columnIndex) {
+        return this.partialJsonColumns != null && this.partialJsonColumns.get(columnIndex);
     }
 
-    private float parseFloat(ByteArrayIndexInputStream in) throws IOException {
-        return Float.intBitsToFloat(in.readInt(4));
+    /**
+     * @return JSON局部更新的操作列表，不是局部更新的字段返回null
+     */
+    public JsonDiffVector getJsonDiffs(int columnIndex) {
+        return this.isPartialJson(columnIndex) ? (JsonDiffVector) this.getValue(columnIndex) : null;
     }
 
-    private long parseLongLong(ByteArrayIndexInputStream in) throws IOException {
-        return in.readLong(8);
+    /**
+     * 在前镜像的JSON上执行局部更新，把本行（后镜像）的局部更新字段替换成完整的{@link MysqlJson}，之后{@link #isPartialJson(int)}返回false；
+     * 投影外的字段不处理
+     *
+     * @param before 同一行的前镜像
+     */
+    public void applyJsonDiffs(Row before) {
+        if (this.partialJsonColumns == null) {
+            return;
+        }
+        for (int i = this.partialJsonColumns.nextSetBit(0); i >= 0; i = this.partialJsonColumns.nextSetBit(i + 1)) {
+            JsonDiffVector diffs = this.getJsonDiffs(i);
+            if (diffs == null) {
+                continue;
+            }
+            Object beforeValue = before.getValue(i);
+            if (!(beforeValue instanceof MysqlJson)) {
+                throw new IllegalStateException("第" + i + "个字段的前镜像不是完整的JSON，无法还原局部更新");
+            }
+            this.objectValues[this.plan.getSlot(i)] = new MysqlJson(diffs.apply(((MysqlJson) beforeValue).getMetaBytes()));
+            this.partialJsonColumns.clear(i);
+        }
     }
 
-    private int parseInt24(ByteArrayIndexInputStream in) throws IOException {
-        return in.readInt(3);
+    /**
+     * @return 所有字段的值，下标与表字段顺序一致，null字段、投影外的字段以及镜像中没有记录的字段的值为null；数字类型会装箱，只读部分字段时请用{@link #getLong(int)}等方法
+     */
+    public List<Object> getRowValue() {
+        List<Object> result = new ArrayList<>(this.getColumnCount());
+        for (int i = 0; i < this.getColumnCount(); i++) {
+            result.add(this.getValue(i));
+        }
+        return result;
     }
 
-
     /**
-     * 格式：yyyy-MM-dd<br>
-     * 参考{@link com.google.code.or.common.util.MySQLUtils#toDate(int)}
+     * 获取某个字段的值，数字类型会装箱
      *
-     * @param in
-     * @return
-     */
-    private Date parseDate(ByteArrayIndexInputStream in) throws IOException {
-        int value = in.readInt(3);
-        final int d = value % 32;
-        value >>>= 5;
-        final int m = value % 16;
-        final int y = value >> 4;
-        final Calendar cal = Calendar.getInstance();
-        cal.clear();
-        cal.set(y, m - 1, d);
-        return new Date(cal.getTimeInMillis());
+     * @param columnIndex 字段下标，从0开始
+     * @return 字段值，null字段、投影外的字段以及镜像中没有记录的字段为null
+     */
+    public Object getValue(int columnIndex) {
+        if (!this.ensureDecoded(columnIndex)) {
+            return null;
+        }
+        ColumnDecoder decoder = this.plan.getDecoder(columnIndex);
+        int slot = this.plan.getSlot(columnIndex);
+        switch (decoder.getValueType()) {
+            case LONG:
+                return decoder.box(this.longValues[slot]);
+            case DOUBLE:
+                return decoder.box(this.doubleValues[slot]);
+            default:
+                return this.objectValues[slot];
+        }
     }
 
     /**
-     * 格式：HH:mm:ss<br>
-     * 参考{@link com.google.code.or.common.util.MySQLUtils#toTime(int)}
+     * 以long获取字段值，与jdbc的ResultSet一样，null字段返回0，需要区分时请先调用{@link #isNull(int)}<br>
+     * 无符号BIGINT返回的是原始的64位，超过Long.MAX_VALUE时为负数；DECIMAL返回整数部分；时间类型返回的long见{@link com.cl.mysql.binlog.constant.TemporalDecodeModeEnum}
      *
-     * @param in
-     * @return
-     */
-    private Time parseTime(ByteArrayIndexInputStream in) throws IOException {
-        int value = in.readInt(3);
-        final int s = (int) (value % 100);
-        value /= 100;
-        final int m = (int) (value % 100);
-        final int h = (int) (value / 100);
-        final Calendar c = Calendar.getInstance();
-        c.set(70, 0, 1, h, m, s);
-        return new Time(c.getTimeInMillis());
+     * @param columnIndex 字段下标，从0开始
+     */
+    public long getLong(int columnIndex) {
+        if (!this.ensureDecoded(columnIndex)) {
+            return 0L;
+        }
+        int slot = this.plan.getSlot(columnIndex);
+        ColumnDecoder decoder = this.plan.getDecoder(columnIndex);
+        switch (decoder.getValueType()) {
+            case LONG:
+                return decoder.longValue(this.longValues[slot]);
+            case DOUBLE:
+                return (long) this.doubleValues[slot];
+            default:
+                return this.toNumber(columnIndex, this.objectValues[slot]).longValue();
+        }
     }
 
     /**
-     * 获取长度：<a href="https://github.com/mysql/mysql-server/blob/8.0/strings/decimal.cc">mysql8.0源码，搜int decimal_bin_size_inline，来计算字节长度</a><br>
-     * 获取值：<a href="https://github.com/mysql/mysql-server/blob/8.0/storage/ndb/clusterj/clusterj-tie/src/main/java/com/mysql/clusterj/tie/Utility.java">搜unpackTime2来获取真实值</a>
+     * 以int获取字段值，超过int范围的值（如无符号INT、BIGINT）会被截断，null字段返回0
      *
-     * @param meta
-     * @param in
-     * @return
-     * @throws IOException
-     */
-    private long parseTime2(int meta, ByteArrayIndexInputStream in) throws IOException {
-        int timeValueLength = 3;
-        int millisecondsBytesLength = (meta + 1) / 2;// 纳秒长度
-        long timestampValue = CommonUtil.bigEndianLong(in.readBytes(timeValueLength), 0, timeValueLength);
-        int millisecondsValue = CommonUtil.bigEndianInteger(in.readBytes(millisecondsBytesLength), 0, millisecondsBytesLength);// 一共占24位
-
-        int milliseconds = this.unpackFractionalSeconds(meta, millisecondsValue) / 1000;
-
-        timestampValue -= 0x800000L;// 减去一个sign位
-        int hour = (int) ((timestampValue >> 10) & 0b11_1111_1111);// 占10位
-        int minute = (int) ((timestampValue >> 8) & 0b1111_1100);// 占8位
-        int second = (int) (timestampValue & 0b11_1111);// 占6位
-        Calendar calendar = Calendar.getInstance();
-        calendar.clear();
-        calendar.set(Calendar.HOUR, hour);
-        calendar.set(Calendar.MINUTE, minute);
-        calendar.set(Calendar.SECOND, second);
-        calendar.set(Calendar.MILLISECOND, milliseconds);
-        return calendar.getTimeInMillis();
+     * @param columnIndex 字段下标，从0开始
+     */
+    public int getInt(int columnIndex) {
+        return (int) this.getLong(columnIndex);
     }
 
     /**
-     * 获取长度：<a href="https://github.com/mysql/mysql-server/blob/8.0/sql/log_event.cc">源码第1813行 ~ 2145行，即log_event_print_value方法，用来读取不同类型的长度</a><br>
-     * 格式：yyyy-MM-dd HH:mm:ss<br>
-     * 获取值：参考{@link com.google.code.or.common.util.MySQLUtils#toDatetime(long)}
-     * 或者
-     * <a href="https://github.com/mysql/mysql-server/blob/8.0/storage/ndb/clusterj/clusterj-tie/src/main/java/com/mysql/clusterj/tie/Utility.java">搜unpackDatetime来获取真实值</a>
+     * 以double获取字段值，null字段返回0
      *
-     * @param in
-     * @return
-     * @throws IOException
-     */
-    private java.util.Date parseDateTime(ByteArrayIndexInputStream in) throws IOException {
-        long value = in.readLong(8);
-        final int sec = (int) (value % 100);
-        value /= 100;
-        final int min = (int) (value % 100);
-        value /= 100;
-        final int hour = (int) (value % 100);
-        value /= 100;
-        final int day = (int) (value % 100);
-        value /= 100;
-        final int mon = (int) (value % 100);
-        final int year = (int) (value / 100);
-        final Calendar c = Calendar.getInstance();
-        c.set(year, mon - 1, day, hour, min, sec);
-        return c.getTime();
+     * @param columnIndex 字段下标，从0开始
+     */
+    public double getDouble(int columnIndex) {
+        if (!this.ensureDecoded(columnIndex)) {
+            return 0D;
+        }
+        int slot = this.plan.getSlot(columnIndex);
+        ColumnDecoder decoder = this.plan.getDecoder(columnIndex);
+        switch (decoder.getValueType()) {
+            case LONG:
+                return decoder.doubleValue(this.longValues[slot]);
+            case DOUBLE:
+                return this.doubleValues[slot];
+            default:
+                return this.toNumber(columnIndex, this.objectValues[slot]).doubleValue();
+        }
     }
 
     /**
-     * 获取长度：<a href="https://github.com/mysql/mysql-server/blob/8.0/sql/log_event.cc">源码第1813行 ~ 2145行，即log_event_print_value方法，用来读取不同类型的长度</a><br>
-     * 获取值：<a href="https://github.com/mysql/mysql-server/blob/8.0/storage/ndb/clusterj/clusterj-tie/src/main/java/com/mysql/clusterj/tie/Utility.java">搜unpackDatetime2来获取真实值</a>
+     * 获取DECIMAL字段去掉小数点之后的整数（unscaled value），真实值为 返回值 / 10^{@link #getDecimalScale(int)}<br>
+     * precision不超过18的字段不创建任何对象，null字段返回0
      *
-     * @param meta
-     * @param in
-     * @return
-     * @throws IOException
-     */
-    private java.util.Date parseDateTime2(int meta, ByteArrayIndexInputStream in) throws IOException {
-        int packedDatetime2BytesLength = 5;// 不包括纳秒的长度
-        int millisecondsBytesLength = (meta + 1) / 2;// 纳秒长度
-        long packedDatetime2Value = CommonUtil.bigEndianLong(in.readBytes(packedDatetime2BytesLength), 0, packedDatetime2BytesLength);// 一共占40位
-        int millisecondsValue = CommonUtil.bigEndianInteger(in.readBytes(millisecondsBytesLength), 0, millisecondsBytesLength);// 一共占24位
-
-        packedDatetime2Value -= 0x8000000000L;// 减去一个sign位
-
-        int yearMonth = (int) ((packedDatetime2Value & 0b111_1111_1111_1111_11_00_0000_0000_0000_0000_0000L) >> 22); // 17 bits year * 13 + month
-        int year = yearMonth / 13;
-        int month = (yearMonth % 13) - 1; // calendar month is 0-11
-        int day = (int) ((packedDatetime2Value & 0b11111_0_0000_0000_0000_0000L) >> 17); // 5 bits day
-        int hour = (int) ((packedDatetime2Value & 0b11111_0000_0000_0000L) >> 12); // 5 bits hour
-        int minute = (int) ((packedDatetime2Value & 0b111111_00_0000L) >> 6); // 6 bits minute
-        int second = (int) ((packedDatetime2Value & 0b111111L)); // 6 bits second
-        int milliseconds = this.unpackFractionalSeconds(meta, millisecondsValue) / 1000;
-        Calendar calendar = Calendar.getInstance();
-        calendar.clear();
-        calendar.set(Calendar.YEAR, year);
-        calendar.set(Calendar.MONTH, month);
-        calendar.set(Calendar.DATE, day);
-        calendar.set(Calendar.HOUR, hour);
-        calendar.set(Calendar.MINUTE, minute);
-        calendar.set(Calendar.SECOND, second);
-        calendar.set(Calendar.MILLISECOND, milliseconds);
-        return calendar.getTime();
+     * @param columnIndex 字段下标，从0开始
+     */
+    public long getUnscaledDecimal(int columnIndex) {
+        NewDecimalColumnDecoder decoder = this.decimalDecoder(columnIndex);
+        if (!this.ensureDecoded(columnIndex)) {
+            return 0L;
+        }
+        int slot = this.plan.getSlot(columnIndex);
+        if (decoder.isCompact()) {
+            return this.longValues[slot];
+        }
+        return ((BigDecimal) this.objectValues[slot]).unscaledValue().longValueExact();
     }
 
     /**
-     * 获取长度：<a href="https://github.com/mysql/mysql-server/blob/8.0/sql/log_event.cc">源码第1813行 ~ 2145行，即log_event_print_value方法，用来读取不同类型的长度</a><br>
-     * 获取值：剩下的解析参考{@link com.google.code.or.common.util.MySQLUtils#toYear(int)}<br>
-     *
-     * @param in
-     * @return
-     * @throws IOException
+     * @return DECIMAL字段的小数位数
      */
-    private Object parseYear(ByteArrayIndexInputStream in) throws IOException {
-        int value = in.readInt(1);
-        return value + 1900;
+    public int getDecimalScale(int columnIndex) {
+        return this.decimalDecoder(columnIndex).getScale();
     }
 
     /**
-     * 取长度：<a href="https://github.com/mysql/mysql-server/blob/8.0/sql/log_event.cc">源码第1813行 ~ 2145行，即log_event_print_value方法，用来读取不同类型的长度</a><br>
-     * 获取值：直接拿对应长度的字符串即可
+     * 以BigDecimal获取字段值，DECIMAL字段只创建一个BigDecimal
      *
-     * @param meta
-     * @param in
-     * @return
-     * @throws IOException
+     * @param columnIndex 字段下标，从0开始
+     * @return null字段与投影外的字段为null
      */
-    private String parseStr(int meta, ByteArrayIndexInputStream in) throws IOException {
-        return meta < 256 ? in.readString(in.readInt(1)) : in.readString(in.readInt(2));
+    public BigDecimal getBigDecimal(int columnIndex) {
+        Object value = this.getValue(columnIndex);
+        if (value == null || value instanceof BigDecimal) {
+            return (BigDecimal) value;
+        } else if (value instanceof BigInteger) {
+            return new BigDecimal((BigInteger) value);
+        } else if (value instanceof Float || value instanceof Double) {
+            return BigDecimal.valueOf(((Number) value).doubleValue());
+        }
+        return BigDecimal.valueOf(this.toNumber(columnIndex, value).longValue());
+    }
+
+    private NewDecimalColumnDecoder decimalDecoder(int columnIndex) {
+        ColumnDecoder decoder = this.plan.getDecoder(columnIndex);
+        if (decoder instanceof NewDecimalColumnDecoder) {
+            return (NewDecimalColumnDecoder) decoder;
+        }
+        throw new IllegalStateException("第" + columnIndex + "个字段为" + decoder.getColumnType() + "，不是DECIMAL类型");
     }
 
     /**
-     * 获取长度：<a href="https://github.com/mysql/mysql-server/blob/8.0/sql/log_event.cc">源码第1813行 ~ 2145行，即log_event_print_value方法，用来读取不同类型的长度</a><br>
-     * 获取值：bitmap实现
+     * 获取字段的原始字节，只支持BLOB、TEXT、JSON等字节类字段以及字符串字段
      *
-     * @param meta
-     * @param in
-     * @return
-     * @throws IOException
-     */
-    private BitSet parseBit(int meta, ByteArrayIndexInputStream in) throws IOException {
-        int bitBytesLength = ((meta >> 8) * 8) + (meta & 0xFF);
-        byte[] bitArray = in.readBytes((bitBytesLength + 7) / 8);
-        return BitMapUtil.parseBitMapByBigEndian(bitArray);
+     * @param columnIndex 字段下标，从0开始
+     * @return null字段与投影外的字段为null
+     */
+    public byte[] getBytes(int columnIndex) {
+        Object value = this.getValue(columnIndex);
+        if (value == null || value instanceof byte[]) {
+            return (byte[]) value;
+        } else if (value instanceof MysqlJson) {
+            return ((MysqlJson) value).getMetaBytes();
+        } else if (value instanceof LazyString) {
+            return ((LazyString) value).getBytes();
+        } else if (value instanceof String) {
+            return ((String) value).getBytes(((StringColumnDecoder) this.plan.getDecoder(columnIndex)).getCharset());
+        }
+        throw new IllegalStateException("第" + columnIndex + "个字段为" + this.plan.getDecoder(columnIndex).getColumnType() + "，不能获取字节");
     }
 
     /**
-     * <a href="https://github.com/mysql/mysql-server/blob/8.0/strings/decimal.cc">mysql8.0源码，搜int decimal_bin_size_inline，来计算字节长度</a>
-     * <p>
-     * 剩下的解析参考{@link com.google.code.or.common.util.MySQLUtils#toDecimal(int, int, byte[])}<br>
-     * 和<a href="https://github.com/mysql/mysql-server/blob/8.0/strings/decimal.cc">mysql8.0 decimal对象源码</a>
-     * </p>
+     * 以字符串获取字段值
      *
-     * @param meta
-     * @param in
-     * @return 返回BigDecimal
-     */
-    private BigDecimal parseNewdecimal(int meta, ByteArrayIndexInputStream in) throws IOException {
-        // 长度
-        int precision = meta & 0b1111_1111;
-        // 小数点
-        int scale = (meta >> 8) & 0b1111_1111;
-        final int DIG_PER_DEC1 = 9;
-        int intg = precision - scale;
-        int intg0 = intg / DIG_PER_DEC1;
-        int frac0 = scale / DIG_PER_DEC1;
-        int intg0x = intg - intg0 * DIG_PER_DEC1;
-        int frac0x = scale - frac0 * DIG_PER_DEC1;
-        int byteSize = intg0 * 4 + dig2bytes[intg0x] + frac0 * 4 + dig2bytes[frac0x];
-        byte[] value = in.readBytes(byteSize);
-        boolean positive = (value[0] & 0x80) == 0x80;
-        value[0] ^= 0x80;
-        if (!positive) {
-            for (int i = 0; i < value.length; i++) {
-                value[i] ^= 0xFF;
+     * @param columnIndex 字段下标，从0开始
+     * @return null字段与投影外的字段为null
+     */
+    public String getString(int columnIndex) {
+        Object value = this.getValue(columnIndex);
+        if (value instanceof byte[]) {
+            ColumnDecoder decoder = this.plan.getDecoder(columnIndex);
+            if (decoder instanceof BlobColumnDecoder && ((BlobColumnDecoder) decoder).getCharset() != null) {
+                // TEXT字段按表结构里的字符集解码
+                Charset charset = ((BlobColumnDecoder) decoder).getCharset();
+                byte[] bytes = (byte[]) value;
+                return CharsetUtil.decode(bytes, 0, bytes.length, charset, CharsetUtil.isAsciiCompatible(charset));
             }
         }
-        int x = precision - scale;
-        int ipDigits = x / DIG_PER_DEC1;
-        int ipDigitsX = x - ipDigits * DIG_PER_DEC1;
-        int ipSize = (ipDigits << 2) + dig2bytes[ipDigitsX];
-        int offset = dig2bytes[ipDigitsX];
-        BigDecimal ip = offset > 0 ? BigDecimal.valueOf(CommonUtil.bigEndianInteger(value, 0, offset)) : BigDecimal.ZERO;
-        for (; offset < ipSize; offset += 4) {
-            int i = CommonUtil.bigEndianInteger(value, offset, 4);
-            ip = ip.movePointRight(DIG_PER_DEC1).add(BigDecimal.valueOf(i));
-        }
-        int shift = 0;
-        BigDecimal fp = BigDecimal.ZERO;
-        for (; shift + DIG_PER_DEC1 <= scale; shift += DIG_PER_DEC1, offset += 4) {
-            int i = CommonUtil.bigEndianInteger(value, offset, 4);
-            fp = fp.add(BigDecimal.valueOf(i).movePointLeft(shift + DIG_PER_DEC1));
-        }
-        if (shift < scale) {
-            int i = CommonUtil.bigEndianInteger(value, offset, dig2bytes[scale - shift]);
-            fp = fp.add(BigDecimal.valueOf(i).movePointLeft(scale));
-        }
-        BigDecimal result = ip.add(fp);
-        return positive ? result : result.negate();
+        return value == null ? null : value.toString();
     }
 
-    /**
-     * 获取长度：<a href="https://github.com/mysql/mysql-server/blob/8.0/sql/log_event.cc">源码第1813行 ~ 2145行，即log_event_print_value方法，用来读取不同类型的长度</a><br>
-     *
-     * @param meta
-     * @param in
-     * @return
-     * @throws IOException
-     */
-    private byte[] parseBlob(int meta, ByteArrayIndexInputStream in) throws IOException {
-        int blobLength = in.readInt(meta);
-        return in.readBytes(blobLength);
+    private Number toNumber(int columnIndex, Object value) {
+        if (value instanceof Number) {
+            return (Number) value;
+        }
+        throw new IllegalStateException("第" + columnIndex + "个字段为" + this.plan.getDecoder(columnIndex).getColumnType() + "，不是数字类型");
     }
 
     /**
-     * 获取长度：<a href="https://github.com/mysql/mysql-server/blob/8.0/sql/log_event.cc">源码第1813行 ~ 2145行，即log_event_print_value方法，用来读取不同类型的长度</a><br>
-     *
-     * @param meta
-     * @param in
-     * @return 返回enum下标，从1开始
-     * @throws IOException
+     * @return 该字段是否在字段投影内，不在投影内的字段不会解析，值为null
      */
-    private Object parseEnum(int meta, ByteArrayIndexInputStream in) throws IOException {
-        return in.readInt(meta);
+    public boolean isProjected(int columnIndex) {
+        BitSet projection = this.tableMapEvent.getProjection();
+        return projection == null || projection.get(columnIndex);
     }
 
     /**
-     * 获取长度：<a href="https://github.com/mysql/mysql-server/blob/8.0/sql/log_event.cc">源码第1813行 ~ 2145行，即log_event_print_value方法，用来读取不同类型的长度</a><br>
-     *
-     * @param meta
-     * @param in
-     * @return 返回bitset
-     * @throws IOException
-     */
-    private BitSet parseSet(int meta, ByteArrayIndexInputStream in) throws IOException {
-        byte[] result = in.readBytes(meta);
-        return BitMapUtil.parseBitMapByBigEndian(result);
+     * @return 镜像中是否记录了该字段，binlog_row_image=FULL时总是true；MINIMAL时前镜像只有主键（没有主键时为全部字段），后镜像只有修改了的字段；
+     * NOBLOB时不包含没有修改的BLOB、TEXT、JSON字段。没有记录的字段取值时与null字段一样
+     */
+    public boolean isPresent(int columnIndex) {
+        return this.presentColumns == null || this.presentColumns.get(columnIndex);
     }
 
-    private MysqlJson parseJson(int meta, ByteArrayIndexInputStream in) throws IOException {
-        byte[] result = in.readBytes(in.readInt(meta));
-        return new MysqlJson(result);
+    /**
+     * @return null字段返回true，镜像中没有记录的字段返回false，需要区分时请先调用{@link #isPresent(int)}
+     */
+    public boolean isNull(int columnIndex) {
+        return this.nullBitMask.get(columnIndex);
     }
 
+    public int getColumnCount() {
+        return this.plan.getColumnCount();
+    }
 
-    /**
-     * 解包fs，指mysql datetime、timestamp 后面的6位bit的精度
-     *
-     * @param meta           number of digits of precision, 0 to 6
-     * @param bigEndianValue 大端的纳秒值
-     * @return number of milliseconds
-     */
-    private int unpackFractionalSeconds(int meta, int bigEndianValue) {
-        switch (meta) {
-            case 0:
-                return 0;
-            case 1:
-            case 2:
-                return (bigEndianValue & 0xFF) * 10000;
-            case 3:
-            case 4:
-                return (bigEndianValue & 0xFFFF) * 1000;
-            case 5:
-            case 6:
-                return bigEndianValue & 0xFFFFFF;
-            default:
-                return 0;
-        }
+    public TableMapEvent getTableMapEvent() {
+        return this.tableMapEvent;
     }
 
     /**
+     * mysql二进制json字段值，只保存原始字节，解析见{@link JsonBinary}<br>
      * <a href="https://github.com/mysql/mysql-server/blob/8.0/sql-common/json_binary.cc">源码第1320行为解析代码</a>
      */
     @Getter
@@ -514,41 +509,52 @@ public class Row {
 
         private final byte[] metaBytes;
 
-        public MysqlJson(byte[] bytes) throws IOException {
-            metaBytes = bytes;
-            ByteArrayIndexInputStream in = new ByteArrayIndexInputStream(bytes);
-            int type = in.read();// 第一个字节位type 源码第1340行
-            //TODO 有空再实现反序列化
-            switch (JsonTypeEnum.getByCode(type)) {
-                case SMALL_OBJECT:
-                    break;
-                case LARGE_OBJECT:
-                    break;
-                case SMALL_ARRAY:
-                    break;
-                case LARGE_ARRAY:
-                    break;
-                case LITERAL:
-                    break;
-                case INT16:
-                    break;
-                case UINT16:
-                    break;
-                case INT32:
-                    break;
-                case UINT32:
-                    break;
-                case INT64:
-                    break;
-                case UINT64:
-                    break;
-                case DOUBLE:
-                    break;
-                case STRING:
-                    break;
-                case OPAQUE:
-                    break;
-            }
+        public MysqlJson(byte[] bytes) {
+            this.metaBytes = bytes;
+        }
+
+        /**
+         * 按文档顺序遍历整个json
+         */
+        public void accept(JsonVisitor visitor) {
+            JsonBinary.accept(this.metaBytes, visitor);
+        }
+
+        /**
+         * 只遍历路径指向的部分
+         *
+         * @return 路径不存在时返回false
+         */
+        public boolean accept(JsonPath path, JsonVisitor visitor) {
+            return JsonBinary.accept(this.metaBytes, path, visitor);
+        }
+
+        /**
+         * 取路径指向的值的json文本，例如 extract("$.a.b[3]")，频繁使用同一个路径时请用{@link #extract(JsonPath)}
+         *
+         * @return 路径不存在时返回null
+         */
+        public String extract(String path) {
+            return this.extract(JsonPath.compile(path));
+        }
+
+        public String extract(JsonPath path) {
+            return JsonBinary.extract(this.metaBytes, path);
+        }
+
+        /**
+         * 把json文本直接写到out
+         */
+        public void writeTo(Appendable out) throws IOException {
+            JsonBinary.writeJson(this.metaBytes, out);
+        }
+
+        /**
+         * @return json文本，格式与mysql一致
+         */
+        @Override
+        public String toString() {
+            return JsonBinary.toJsonString(this.metaBytes);
         }
     }
 }
@@ -0,0 +1,45 @@
+package com.cl.mysql.binlog.exception;
+
+import com.cl.mysql.binlog.constant.BinlogEventTypeEnum;
+
+import java.io.IOException;
+
+/**
+ * @description: 事件的CRC32校验和与事件内容不一致，说明报文在传输过程中损坏了
+ * @author: liuzijian
+ * @time: 2023-09-26 09:40
+ */
+public class BinlogChecksumException extends IOException {
+
+    private final BinlogEventTypeEnum eventType;
+
+    private final long logPos;
+
+    private final long expected;
+
+    private final long actual;
+
+    public BinlogChecksumException(BinlogEventTypeEnum eventType, long logPos, long expected, long actual) {
+        super(String.format("binlog事件校验和不一致，eventType：%s，logPos：%d，期望：%08x，实际：%08x", eventType, logPos, expected, actual));
+        this.eventType = eventType;
+        this.logPos = logPos;
+        this.expected = expected;
+        this.actual = actual;
+    }
+
+    public BinlogEventTypeEnum getEventType() {
+        return eventType;
+    }
+
+    public long getLogPos() {
+        return logPos;
+    }
+
+    public long getExpected() {
+        return expected;
+    }
+
+    public long getActual() {
+        return actual;
+    }
+}
@@ -0,0 +1,346 @@
+package com.cl.mysql.binlog.json;
+
+import com.cl.mysql.binlog.constant.JsonTypeEnum;
+import com.cl.mysql.binlog.constant.TableMapColumnTypeEnum;
+import com.cl.mysql.binlog.util.CharsetUtil;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * @description: mysql二进制json（json_binary）的解析，直接在原始字节上按偏移量跳转，不生成中间对象
+ * <p>
+ * 格式见<a href="https://github.com/mysql/mysql-server/blob/8.0/sql-common/json_binary.h">mysql8.0源码json_binary.h的注释</a>：<br>
+ * doc ::= type value，type占1个字节，见{@link JsonTypeEnum}；<br>
+ * 对象/数组 ::= 元素个数 + 总字节数 + key entry* + value entry* + key* + value*，small格式每个数字2个字节，large格式4个字节，小端；<br>
+ * key entry ::= key的偏移量 + key的长度（2个字节），value entry ::= type（1个字节） + 偏移量或者内联的值；<br>
+ * 偏移量都是相对于对象/数组开头（元素个数那个位置）的；LITERAL、INT16、UINT16总是内联，large格式下INT32、UINT32也内联；<br>
+ * 字符串和不透明类型的长度是变长整数，每个字节低7位有效，最高位为1表示后面还有；<br>
+ * 对象的key按 长度、字节内容 升序排好了，按路径查找时用二分查找
+ * </p>
+ * @author: liuzijian
+ * @time: 2023-09-24 16:20
+ */
+public final class JsonBinary {
+
+    private static final int SMALL_OFFSET_SIZE = 2;
+
+    private static final int LARGE_OFFSET_SIZE = 4;
+
+    private static final int KEY_LENGTH_SIZE = 2;
+
+    private static final int LITERAL_NULL = 0x0;
+
+    private static final int LITERAL_TRUE = 0x1;
+
+    private static final int LITERAL_FALSE = 0x2;
+
+    private JsonBinary() {
+    }
+
+    /**
+     * 遍历整个json文档
+     *
+     * @param bytes 字段的原始字节，长度为0时按json null处理（与mysql一致）
+     */
+    public static void accept(byte[] bytes, JsonVisitor visitor) {
+        if (bytes.length == 0) {
+            visitor.nullValue();
+            return;
+        }
+        visitValue(bytes, bytes[0] & 0xFF, 1, visitor);
+    }
+
+    /**
+     * 只遍历路径指向的那部分文档，途经的对象和数组只读偏移量表，不会遍历兄弟节点
+     *
+     * @return 路径不存在时返回false，visitor不会收到回调
+     */
+    public static boolean accept(byte[] bytes, JsonPath path, JsonVisitor visitor) {
+        if (bytes.length == 0) {
+            if (path.getLegCount() != 0) {
+                return false;
+            }
+            visitor.nullValue();
+            return true;
+        }
+        long position = locate(bytes, path);
+        if (position < 0) {
+            return false;
+        }
+        visitValue(bytes, (int) (position >>> 32), (int) position, visitor);
+        return true;
+    }
+
+    /**
+     * 按mysql的格式（{"a": 1, "b": [1, 2]}）把json文本直接写到out
+     */
+    public static void writeJson(byte[] bytes, Appendable out) throws IOException {
+        try {
+            accept(bytes, new JsonWriter(out));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    public static String toJsonString(byte[] bytes) {
+        StringBuilder builder = new StringBuilder(bytes.length + 16);
+        accept(bytes, new JsonWriter(builder));
+        return builder.toString();
+    }
+
+    /**
+     * 取路径指向的值的json文本
+     *
+     * @return 路径不存在时返回null
+     */
+    public static String extract(byte[] bytes, JsonPath path) {
+        StringBuilder builder = new StringBuilder();
+        return accept(bytes, path, new JsonWriter(builder)) ? builder.toString() : null;
+    }
+
+    /**
+     * 按utf8mb4解码{@link JsonVisitor#stringValue(byte[], int, int)}收到的字符串
+     */
+    public static String decodeString(byte[] bytes, int offset, int length) {
+        return CharsetUtil.decode(bytes, offset, length, StandardCharsets.UTF_8, true);
+    }
+
+    /**
+     * 定位路径指向的值
+     *
+     * @return 高32位为值的type，低32位为值所在的位置，不存在时返回-1
+     */
+    private static long locate(byte[] bytes, JsonPath path) {
+        int type = bytes[0] & 0xFF;
+        int position = 1;
+        for (int i = 0; i < path.getLegCount(); i++) {
+            Object leg = path.getLeg(i);
+            boolean object = type == JsonTypeEnum.SMALL_OBJECT.getCode() || type == JsonTypeEnum.LARGE_OBJECT.getCode();
+            boolean array = type == JsonTypeEnum.SMALL_ARRAY.getCode() || type == JsonTypeEnum.LARGE_ARRAY.getCode();
+            // 先确认是对象/数组再读元素个数，标量后面没有元素个数
+            if (leg instanceof byte[] ? !object : !array) {
+                return -1;
+            }
+            boolean large = type == JsonTypeEnum.LARGE_OBJECT.getCode() || type == JsonTypeEnum.LARGE_ARRAY.getCode();
+            int offsetSize = large ? LARGE_OFFSET_SIZE : SMALL_OFFSET_SIZE;
+            int count = readUnsigned(bytes, position, offsetSize);
+            int entry;
+            if (object) {
+                int index = findKey(bytes, position, count, offsetSize, (byte[]) leg);
+                if (index < 0) {
+                    return -1;
+                }
+                entry = valueEntry(position, count, offsetSize, true, index);
+            } else {
+                int index = (Integer) leg;
+                if (index < 0 || index >= count) {
+                    return -1;
+                }
+                entry = valueEntry(position, count, offsetSize, false, index);
+            }
+            type = bytes[entry] & 0xFF;
+            position = valuePosition(bytes, position, entry, type, large);
+        }
+        return ((long) type << 32) | position;
+    }
+
+    /**
+     * 在对象的key entry中二分查找
+     *
+     * @return key的序号，找不到返回-1
+     */
+    private static int findKey(byte[] bytes, int position, int count, int offsetSize, byte[] key) {
+        int keyEntryStart = position + 2 * offsetSize;
+        int keyEntrySize = offsetSize + KEY_LENGTH_SIZE;
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int keyEntry = keyEntryStart + mid * keyEntrySize;
+            int keyOffset = position + readUnsigned(bytes, keyEntry, offsetSize);
+            int keyLength = readUnsigned(bytes, keyEntry + offsetSize, KEY_LENGTH_SIZE);
+            int cmp = compareKey(bytes, keyOffset, keyLength, key);
+            if (cmp == 0) {
+                return mid;
+            } else if (cmp < 0) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return -1;
+    }
+
+    private static int compareKey(byte[] bytes, int offset, int length, byte[] key) {
+        if (length != key.length) {
+            return length < key.length ? -1 : 1;
+        }
+        for (int i = 0; i < length; i++) {
+            int a = bytes[offset + i] & 0xFF;
+            int b = key[i] & 0xFF;
+            if (a != b) {
+                return a < b ? -1 : 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @return 第index个value entry的位置
+     */
+    private static int valueEntry(int position, int count, int offsetSize, boolean object, int index) {
+        int valueEntryStart = position + 2 * offsetSize + (object ? count * (offsetSize + KEY_LENGTH_SIZE) : 0);
+        return valueEntryStart + index * (1 + offsetSize);
+    }
+
+    /**
+     * @return value entry指向的值所在的位置，内联的值就在value entry里面
+     */
+    private static int valuePosition(byte[] bytes, int containerPosition, int entry, int type, boolean large) {
+        if (isInlined(type, large)) {
+            return entry + 1;
+        }
+        return containerPosition + readUnsigned(bytes, entry + 1, large ? LARGE_OFFSET_SIZE : SMALL_OFFSET_SIZE);
+    }
+
+    private static boolean isInlined(int type, boolean large) {
+        if (type == JsonTypeEnum.LITERAL.getCode() || type == JsonTypeEnum.INT16.getCode() || type == JsonTypeEnum.UINT16.getCode()) {
+            return true;
+        }
+        return large && (type == JsonTypeEnum.INT32.getCode() || type == JsonTypeEnum.UINT32.getCode());
+    }
+
+    private static void visitValue(byte[] bytes, int type, int position, JsonVisitor visitor) {
+        JsonTypeEnum jsonType = JsonTypeEnum.getByCode(type);
+        if (jsonType == null) {
+            throw new IllegalStateException("不支持的json类型：" + type);
+        }
+        switch (jsonType) {
+            case SMALL_OBJECT:
+                visitContainer(bytes, position, true, false, visitor);
+                break;
+            case LARGE_OBJECT:
+                visitContainer(bytes, position, true, true, visitor);
+                break;
+            case SMALL_ARRAY:
+                visitContainer(bytes, position, false, false, visitor);
+                break;
+            case LARGE_ARRAY:
+                visitContainer(bytes, position, false, true, visitor);
+                break;
+            case LITERAL:
+                switch (bytes[position]) {
+                    case LITERAL_NULL:
+                        visitor.nullValue();
+                        break;
+                    case LITERAL_TRUE:
+                        visitor.booleanValue(true);
+                        break;
+                    case LITERAL_FALSE:
+                        visitor.booleanValue(false);
+                        break;
+                    default:
+                        throw new IllegalStateException("不支持的json literal：" + bytes[position]);
+                }
+                break;
+            case INT16:
+                visitor.longValue((short) readUnsigned(bytes, position, 2));
+                break;
+            case UINT16:
+                visitor.longValue(readUnsigned(bytes, position, 2));
+                break;
+            case INT32:
+                visitor.longValue(readUnsigned(bytes, position, 4));
+                break;
+            case UINT32:
+                visitor.longValue(readUnsigned(bytes, position, 4) & 0xFFFFFFFFL);
+                break;
+            case INT64:
+                visitor.longValue(readLong(bytes, position));
+                break;
+            case UINT64:
+                visitor.unsignedLongValue(readLong(bytes, position));
+                break;
+            case DOUBLE:
+                visitor.doubleValue(Double.longBitsToDouble(readLong(bytes, position)));
+                break;
+            case STRING: {
+                long lengthAndSize = readVariableLength(bytes, position);
+                visitor.stringValue(bytes, position + (int) (lengthAndSize >>> 32), (int) lengthAndSize);
+                break;
+            }
+            case OPAQUE: {
+                int fieldType = bytes[position] & 0xFF;
+                long lengthAndSize = readVariableLength(bytes, position + 1);
+                visitor.opaqueValue(TableMapColumnTypeEnum.getByIdentifier(fieldType), bytes, position + 1 + (int) (lengthAndSize >>> 32), (int) lengthAndSize);
+                break;
+            }
+        }
+    }
+
+    private static void visitContainer(byte[] bytes, int position, boolean object, boolean large, JsonVisitor visitor) {
+        int offsetSize = large ? LARGE_OFFSET_SIZE : SMALL_OFFSET_SIZE;
+        int count = readUnsigned(bytes, position, offsetSize);
+        if (object) {
+            visitor.startObject(count);
+        } else {
+            visitor.startArray(count);
+        }
+        int keyEntryStart = position + 2 * offsetSize;
+        int keyEntrySize = offsetSize + KEY_LENGTH_SIZE;
+        for (int i = 0; i < count; i++) {
+            if (object) {
+                int keyEntry = keyEntryStart + i * keyEntrySize;
+                int keyOffset = position + readUnsigned(bytes, keyEntry, offsetSize);
+                int keyLength = readUnsigned(bytes, keyEntry + offsetSize, KEY_LENGTH_SIZE);
+                visitor.objectKey(decodeString(bytes, keyOffset, keyLength));
+            }
+            int entry = valueEntry(position, count, offsetSize, object, i);
+            int type = bytes[entry] & 0xFF;
+            visitValue(bytes, type, valuePosition(bytes, position, entry, type, large), visitor);
+        }
+        if (object) {
+            visitor.endObject();
+        } else {
+            visitor.endArray();
+        }
+    }
+
+    /**
+     * 小端读取无符号整数，length不超过4
+     */
+    static int readUnsigned(byte[] bytes, int position, int length) {
+        int result = 0;
+        for (int i = 0; i < length; i++) {
+            result |= (bytes[position + i] & 0xFF) << (i << 3);
+        }
+        return result;
+    }
+
+    static long readLong(byte[] bytes, int position) {
+        long result = 0;
+        for (int i = 0; i < 8; i++) {
+            result |= (bytes[position + i] & 0xFFL) << (i << 3);
+        }
+        return result;
+    }
+
+    /**
+     * 读取变长整数，<a href="https://github.com/mysql/mysql-server/blob/8.0/sql-common/json_binary.cc">源码：搜read_variable_length</a>
+     *
+     * @return 高32位为变长整数本身占用的字节数，低32位为值
+     */
+    static long readVariableLength(byte[] bytes, int position) {
+        int length = 0;
+        for (int i = 0; i < 5; i++) {
+            int b = bytes[position + i] & 0xFF;
+            length |= (b & 0x7F) << (7 * i);
+            if ((b & 0x80) == 0) {
+                return ((long) (i + 1) << 32) | (length & 0xFFFFFFFFL);
+            }
+        }
+        throw new IllegalStateException("json变长整数超过5个字节");
+    }
+}
@@ -0,0 +1,205 @@
+package com.cl.mysql.binlog.json;
+
+import com.cl.mysql.binlog.constant.JsonTypeEnum;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @description: 把{@link JsonTreeBuilder}格式的java对象编码回mysql二进制json，格式见{@link JsonBinary}
+ * <p>
+ * 与mysql的<a href="https://github.com/mysql/mysql-server/blob/8.0/sql-common/json_binary.cc">serialize_json_value</a>一致：
+ * 对象/数组先按small格式编码，超过64KB再用large格式；整数按值的范围选择INT16、INT32、INT64；对象的key按 长度、字节内容 排序
+ * @author: liuzijian
+ * @time: 2023-09-25 10:00
+ */
+public class JsonBinaryEncoder {
+
+    private static final int SMALL_OFFSET_SIZE = 2;
+
+    private static final int LARGE_OFFSET_SIZE = 4;
+
+    private static final int KEY_LENGTH_SIZE = 2;
+
+    private JsonBinaryEncoder() {
+    }
+
+    /**
+     * @return 完整的json文档（type + value）
+     */
+    public static byte[] encode(Object value) {
+        Encoded encoded = encodeValue(value);
+        byte[] result = new byte[encoded.bytes.length + 1];
+        result[0] = (byte) encoded.type;
+        System.arraycopy(encoded.bytes, 0, result, 1, encoded.bytes.length);
+        return result;
+    }
+
+    private static class Encoded {
+
+        private final int type;
+
+        private final byte[] bytes;
+
+        private Encoded(JsonTypeEnum type, byte[] bytes) {
+            this.type = type.getCode();
+            this.bytes = bytes;
+        }
+    }
+
+    private static Encoded encodeValue(Object value) {
+        if (value == null) {
+            return new Encoded(JsonTypeEnum.LITERAL, new byte[]{0x0});
+        } else if (value instanceof Boolean) {
+            return new Encoded(JsonTypeEnum.LITERAL, new byte[]{(Boolean) value ? (byte) 0x1 : (byte) 0x2});
+        } else if (value instanceof BigInteger) {
+            return new Encoded(JsonTypeEnum.UINT64, littleEndian(((BigInteger) value).longValue(), 8));
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            long v = ((Number) value).longValue();
+            if (v >= Short.MIN_VALUE && v <= Short.MAX_VALUE) {
+                return new Encoded(JsonTypeEnum.INT16, littleEndian(v, 2));
+            } else if (v >= Integer.MIN_VALUE && v <= Integer.MAX_VALUE) {
+                return new Encoded(JsonTypeEnum.INT32, littleEndian(v, 4));
+            }
+            return new Encoded(JsonTypeEnum.INT64, littleEndian(v, 8));
+        } else if (value instanceof Number) {
+            return new Encoded(JsonTypeEnum.DOUBLE, littleEndian(Double.doubleToLongBits(((Number) value).doubleValue()), 8));
+        } else if (value instanceof CharSequence) {
+            byte[] bytes = value.toString().getBytes(StandardCharsets.UTF_8);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length + 5);
+            writeVariableLength(out, bytes.length);
+            out.write(bytes, 0, bytes.length);
+            return new Encoded(JsonTypeEnum.STRING, out.toByteArray());
+        } else if (value instanceof JsonOpaque) {
+            JsonOpaque opaque = (JsonOpaque) value;
+            ByteArrayOutputStream out = new ByteArrayOutputStream(opaque.getData().length + 6);
+            out.write(opaque.getFieldType() == null ? 0 : opaque.getFieldType().getIdentifier());
+            writeVariableLength(out, opaque.getData().length);
+            out.write(opaque.getData(), 0, opaque.getData().length);
+            return new Encoded(JsonTypeEnum.OPAQUE, out.toByteArray());
+        } else if (value instanceof Map) {
+            return encodeContainer(value, true);
+        } else if (value instanceof List) {
+            return encodeContainer(value, false);
+        }
+        throw new IllegalArgumentException("不支持编码为json的类型：" + value.getClass().getName());
+    }
+
+    private static Encoded encodeContainer(Object container, boolean object) {
+        List<byte[]> keys = new ArrayList<>();
+        List<Encoded> values = new ArrayList<>();
+        if (object) {
+            List<Map.Entry<byte[], Object>> members = new ArrayList<>();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) container).entrySet()) {
+                members.add(new AbstractMap.SimpleEntry<>(String.valueOf(entry.getKey()).getBytes(StandardCharsets.UTF_8), entry.getValue()));
+            }
+            members.sort((a, b) -> compareKey(a.getKey(), b.getKey()));
+            for (Map.Entry<byte[], Object> member : members) {
+                keys.add(member.getKey());
+                values.add(encodeValue(member.getValue()));
+            }
+        } else {
+            for (Object element : (List<?>) container) {
+                values.add(encodeValue(element));
+            }
+        }
+        byte[] small = layout(keys, values, object, false);
+        if (small != null) {
+            return new Encoded(object ? JsonTypeEnum.SMALL_OBJECT : JsonTypeEnum.SMALL_ARRAY, small);
+        }
+        return new Encoded(object ? JsonTypeEnum.LARGE_OBJECT : JsonTypeEnum.LARGE_ARRAY, layout(keys, values, object, true));
+    }
+
+    /**
+     * @return small格式放不下时返回null
+     */
+    private static byte[] layout(List<byte[]> keys, List<Encoded> values, boolean object, boolean large) {
+        int offsetSize = large ? LARGE_OFFSET_SIZE : SMALL_OFFSET_SIZE;
+        int count = values.size();
+        int headerSize = 2 * offsetSize + (object ? count * (offsetSize + KEY_LENGTH_SIZE) : 0) + count * (1 + offsetSize);
+        long totalSize = headerSize;
+        for (byte[] key : keys) {
+            totalSize += key.length;
+        }
+        for (Encoded value : values) {
+            if (!isInlined(value.type, large)) {
+                totalSize += value.bytes.length;
+            }
+        }
+        if (!large && totalSize > 0xFFFF) {
+            return null;
+        }
+        byte[] result = new byte[(int) totalSize];
+        putLittleEndian(result, 0, count, offsetSize);
+        putLittleEndian(result, offsetSize, (int) totalSize, offsetSize);
+        int position = headerSize;
+        int entry = 2 * offsetSize;
+        for (byte[] key : keys) {
+            putLittleEndian(result, entry, position, offsetSize);
+            putLittleEndian(result, entry + offsetSize, key.length, KEY_LENGTH_SIZE);
+            System.arraycopy(key, 0, result, position, key.length);
+            entry += offsetSize + KEY_LENGTH_SIZE;
+            position += key.length;
+        }
+        for (Encoded value : values) {
+            result[entry] = (byte) value.type;
+            if (isInlined(value.type, large)) {
+                System.arraycopy(value.bytes, 0, result, entry + 1, value.bytes.length);
+            } else {
+                putLittleEndian(result, entry + 1, position, offsetSize);
+                System.arraycopy(value.bytes, 0, result, position, value.bytes.length);
+                position += value.bytes.length;
+            }
+            entry += 1 + offsetSize;
+        }
+        return result;
+    }
+
+    private static boolean isInlined(int type, boolean large) {
+        if (type == JsonTypeEnum.LITERAL.getCode() || type == JsonTypeEnum.INT16.getCode() || type == JsonTypeEnum.UINT16.getCode()) {
+            return true;
+        }
+        return large && (type == JsonTypeEnum.INT32.getCode() || type == JsonTypeEnum.UINT32.getCode());
+    }
+
+    private static int compareKey(byte[] a, byte[] b) {
+        if (a.length != b.length) {
+            return a.length < b.length ? -1 : 1;
+        }
+        for (int i = 0; i < a.length; i++) {
+            int x = a[i] & 0xFF;
+            int y = b[i] & 0xFF;
+            if (x != y) {
+                return x < y ? -1 : 1;
+            }
+        }
+        return 0;
+    }
+
+    private static byte[] littleEndian(long value, int length) {
+        byte[] result = new byte[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = (byte) (value >> (i << 3));
+        }
+        return result;
+    }
+
+    private static void putLittleEndian(byte[] bytes, int position, int value, int length) {
+        for (int i = 0; i < length; i++) {
+            bytes[position + i] = (byte) (value >> (i << 3));
+        }
+    }
+
+    private static void writeVariableLength(ByteArrayOutputStream out, int length) {
+        do {
+            int b = length & 0x7F;
+            length >>>= 7;
+            out.write(length != 0 ? b | 0x80 : b);
+        } while (length != 0);
+    }
+}
@@ -0,0 +1,52 @@
+package com.cl.mysql.binlog.json;
+
+import com.cl.mysql.binlog.constant.JsonDiffOperationEnum;
+import lombok.Getter;
+
+/**
+ * @description: json局部更新的一个操作，<a href="https://github.com/mysql/mysql-server/blob/8.0/sql/json_diff.cc">源码：搜Json_diff_vector::read_binary</a>
+ * @author: liuzijian
+ * @time: 2023-09-25 10:30
+ */
+@Getter
+public class JsonDiff {
+
+    private final JsonDiffOperationEnum operation;
+
+    /**
+     * 操作的路径，如 $.a[1]
+     */
+    private final String path;
+
+    /**
+     * 新值的二进制json，REMOVE时为null
+     */
+    private final byte[] value;
+
+    private JsonPath compiledPath;
+
+    public JsonDiff(JsonDiffOperationEnum operation, String path, byte[] value) {
+        this.operation = operation;
+        this.path = path;
+        this.value = value;
+    }
+
+    public JsonPath getCompiledPath() {
+        if (this.compiledPath == null) {
+            this.compiledPath = JsonPath.compile(this.path);
+        }
+        return this.compiledPath;
+    }
+
+    /**
+     * @return 新值的json文本，REMOVE时为null
+     */
+    public String getValueAsJson() {
+        return this.value == null ? null : JsonBinary.toJsonString(this.value);
+    }
+
+    @Override
+    public String toString() {
+        return this.value == null ? this.operation + " " + this.path : this.operation + " " + this.path + " " + this.getValueAsJson();
+    }
+}
@@ -0,0 +1,141 @@
+package com.cl.mysql.binlog.json;
+
+import com.cl.mysql.binlog.constant.JsonDiffOperationEnum;
+import com.cl.mysql.binlog.stream.ByteArrayIndexInputStream;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @description: PARTIAL_UPDATE_ROWS_EVENT后镜像中json字段的局部更新，按顺序执行{@link #getDiffs()}就能由前镜像得到后镜像
+ * <p>
+ * 格式：每个操作为 operation（1个字节） + path长度（packed integer） + path + [value长度（packed integer） + value（二进制json）]，REMOVE没有value；
+ * 字段外层的长度前缀由调用方读取
+ * </p>
+ * @author: liuzijian
+ * @time: 2023-09-25 10:40
+ */
+public class JsonDiffVector {
+
+    private final List<JsonDiff> diffs;
+
+    public JsonDiffVector(List<JsonDiff> diffs) {
+        this.diffs = Collections.unmodifiableList(diffs);
+    }
+
+    /**
+     * @param in 只包含操作列表的输入流
+     */
+    public static JsonDiffVector parse(ByteArrayIndexInputStream in) throws IOException {
+        List<JsonDiff> diffs = new ArrayList<>();
+        while (in.available() > 0) {
+            int code = in.read();
+            JsonDiffOperationEnum operation = JsonDiffOperationEnum.getByCode(code);
+            if (operation == null) {
+                throw new IOException("不支持的json diff操作：" + code);
+            }
+            int pathLength = in.readLenencInteger().intValue();
+            String path = in.readString(pathLength, StandardCharsets.UTF_8, true);
+            byte[] value = null;
+            if (operation != JsonDiffOperationEnum.REMOVE) {
+                value = in.readBytes(in.readLenencInteger().intValue());
+            }
+            diffs.add(new JsonDiff(operation, path, value));
+        }
+        return new JsonDiffVector(diffs);
+    }
+
+    public List<JsonDiff> getDiffs() {
+        return this.diffs;
+    }
+
+    /**
+     * 在前镜像上执行所有操作，得到后镜像
+     *
+     * @param before 前镜像的二进制json
+     * @return 后镜像的二进制json
+     */
+    public byte[] apply(byte[] before) {
+        Object root = JsonTreeBuilder.build(before);
+        for (JsonDiff diff : this.diffs) {
+            root = apply(root, diff);
+        }
+        return JsonBinaryEncoder.encode(root);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object apply(Object root, JsonDiff diff) {
+        JsonPath path = diff.getCompiledPath();
+        Object value = diff.getValue() == null ? null : JsonTreeBuilder.build(diff.getValue());
+        int legCount = path.getLegCount();
+        if (legCount == 0) {
+            if (diff.getOperation() != JsonDiffOperationEnum.REPLACE) {
+                throw new IllegalStateException("json diff不能" + diff.getOperation() + "根节点");
+            }
+            return value;
+        }
+        Object parent = root;
+        for (int i = 0; i < legCount - 1; i++) {
+            parent = child(parent, path.getLeg(i), diff);
+        }
+        Object leg = path.getLeg(legCount - 1);
+        if (leg instanceof byte[] && parent instanceof Map) {
+            Map<String, Object> object = (Map<String, Object>) parent;
+            String key = new String((byte[]) leg, StandardCharsets.UTF_8);
+            switch (diff.getOperation()) {
+                case REPLACE:
+                    if (!object.containsKey(key)) {
+                        throw new IllegalStateException("json diff路径不存在：" + diff.getPath());
+                    }
+                    object.put(key, value);
+                    break;
+                case INSERT:
+                    object.put(key, value);
+                    break;
+                case REMOVE:
+                    object.remove(key);
+                    break;
+            }
+        } else if (leg instanceof Integer && parent instanceof List) {
+            List<Object> array = (List<Object>) parent;
+            int index = (Integer) leg;
+            switch (diff.getOperation()) {
+                case REPLACE:
+                    if (index >= array.size()) {
+                        throw new IllegalStateException("json diff路径不存在：" + diff.getPath());
+                    }
+                    array.set(index, value);
+                    break;
+                case INSERT:
+                    array.add(Math.min(index, array.size()), value);
+                    break;
+                case REMOVE:
+                    if (index < array.size()) {
+                        array.remove(index);
+                    }
+                    break;
+            }
+        } else {
+            throw new IllegalStateException("json diff路径不存在：" + diff.getPath());
+        }
+        return root;
+    }
+
+    private static Object child(Object parent, Object leg, JsonDiff diff) {
+        if (leg instanceof byte[] && parent instanceof Map && ((Map<?, ?>) parent).containsKey(new String((byte[]) leg, StandardCharsets.UTF_8))) {
+            return ((Map<?, ?>) parent).get(new String((byte[]) leg, StandardCharsets.UTF_8));
+        } else if (leg instanceof Integer && parent instanceof List && (Integer) leg < ((List<?>) parent).size()) {
+            return ((List<?>) parent).get((Integer) leg);
+        }
+        throw new IllegalStateException("json diff路径不存在：" + diff.getPath());
+    }
+
+    @Override
+    public String toString() {
+        return this.diffs.toString();
+    }
+}
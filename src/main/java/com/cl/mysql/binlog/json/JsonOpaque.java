@@ -0,0 +1,19 @@
+package com.cl.mysql.binlog.json;
+
+import com.cl.mysql.binlog.constant.TableMapColumnTypeEnum;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * @description: json中的不透明值（DECIMAL、时间类型等mysql字段值），{@link JsonTreeBuilder}原样保留字段类型和字节
+ * @author: liuzijian
+ * @time: 2023-09-25 09:40
+ */
+@Getter
+@AllArgsConstructor
+public class JsonOpaque {
+
+    private final TableMapColumnTypeEnum fieldType;
+
+    private final byte[] data;
+}
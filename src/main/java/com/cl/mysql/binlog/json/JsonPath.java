@@ -0,0 +1,96 @@
+package com.cl.mysql.binlog.json;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @description: 编译好的json路径，支持 $、.key、."带特殊字符的key"、[下标] 的组合，例如 $.a.b[3]、$."order id"[0]
+ * <p>
+ * key预先转成utf8mb4字节，查找时直接和二进制json里的key比较；同一个路径反复使用时请缓存编译结果
+ * @author: liuzijian
+ * @time: 2023-09-24 16:10
+ */
+public final class JsonPath {
+
+    /**
+     * 每一级是byte[]（对象的key）或Integer（数组下标）
+     */
+    private final Object[] legs;
+
+    private final String expression;
+
+    private JsonPath(Object[] legs, String expression) {
+        this.legs = legs;
+        this.expression = expression;
+    }
+
+    public static JsonPath compile(String expression) {
+        String path = expression.trim();
+        if (path.isEmpty() || path.charAt(0) != '$') {
+            throw new IllegalArgumentException("json路径必须以$开头：" + expression);
+        }
+        List<Object> legs = new ArrayList<>();
+        int i = 1;
+        while (i < path.length()) {
+            char c = path.charAt(i);
+            if (c == '.') {
+                i++;
+                if (i < path.length() && path.charAt(i) == '"') {
+                    StringBuilder key = new StringBuilder();
+                    i++;
+                    while (i < path.length() && path.charAt(i) != '"') {
+                        if (path.charAt(i) == '\\' && i + 1 < path.length()) {
+                            i++;
+                        }
+                        key.append(path.charAt(i++));
+                    }
+                    if (i >= path.length()) {
+                        throw new IllegalArgumentException("json路径的key缺少结束引号：" + expression);
+                    }
+                    i++;
+                    legs.add(key.toString().getBytes(StandardCharsets.UTF_8));
+                } else {
+                    int start = i;
+                    while (i < path.length() && path.charAt(i) != '.' && path.charAt(i) != '[') {
+                        i++;
+                    }
+                    if (start == i) {
+                        throw new IllegalArgumentException("json路径存在空的key：" + expression);
+                    }
+                    legs.add(path.substring(start, i).getBytes(StandardCharsets.UTF_8));
+                }
+            } else if (c == '[') {
+                int end = path.indexOf(']', i);
+                if (end < 0) {
+                    throw new IllegalArgumentException("json路径的下标缺少]：" + expression);
+                }
+                try {
+                    legs.add(Integer.parseInt(path.substring(i + 1, end).trim()));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("json路径的下标不是数字：" + expression);
+                }
+                i = end + 1;
+            } else {
+                throw new IllegalArgumentException("json路径第" + i + "个字符不合法：" + expression);
+            }
+        }
+        return new JsonPath(legs.toArray(), expression);
+    }
+
+    int getLegCount() {
+        return this.legs.length;
+    }
+
+    /**
+     * @return 对象的key（utf8mb4字节）或数组下标
+     */
+    Object getLeg(int index) {
+        return this.legs[index];
+    }
+
+    @Override
+    public String toString() {
+        return this.expression;
+    }
+}
@@ -0,0 +1,128 @@
+package com.cl.mysql.binlog.json;
+
+import com.cl.mysql.binlog.constant.TableMapColumnTypeEnum;
+
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @description: 把二进制json还原成java对象：对象为LinkedHashMap，数组为ArrayList，json null为java null，
+ * 整数为Long（UINT64为BigInteger），浮点数为Double，字符串为String，不透明值为{@link JsonOpaque}
+ * <p>
+ * 会生成整棵树，只需要部分值时请用{@link JsonPath}或者自定义{@link JsonVisitor}
+ * @author: liuzijian
+ * @time: 2023-09-25 09:45
+ */
+public class JsonTreeBuilder implements JsonVisitor {
+
+    /**
+     * 正在构建的对象/数组
+     */
+    private final Deque<Object> containers = new ArrayDeque<>();
+
+    private final Deque<String> keys = new ArrayDeque<>();
+
+    private String pendingKey;
+
+    private Object result;
+
+    public static Object build(byte[] bytes) {
+        JsonTreeBuilder builder = new JsonTreeBuilder();
+        JsonBinary.accept(bytes, builder);
+        return builder.getResult();
+    }
+
+    public Object getResult() {
+        return this.result;
+    }
+
+    @Override
+    public void startObject(int memberCount) {
+        this.keys.push(this.pendingKey == null ? "" : this.pendingKey);
+        this.pendingKey = null;
+        this.containers.push(new LinkedHashMap<String, Object>(Math.max(16, memberCount * 2)));
+    }
+
+    @Override
+    public void objectKey(String key) {
+        this.pendingKey = key;
+    }
+
+    @Override
+    public void endObject() {
+        this.endContainer();
+    }
+
+    @Override
+    public void startArray(int elementCount) {
+        this.keys.push(this.pendingKey == null ? "" : this.pendingKey);
+        this.pendingKey = null;
+        this.containers.push(new ArrayList<>(elementCount));
+    }
+
+    @Override
+    public void endArray() {
+        this.endContainer();
+    }
+
+    private void endContainer() {
+        Object container = this.containers.pop();
+        this.pendingKey = this.keys.pop();
+        this.value(container);
+    }
+
+    @Override
+    public void nullValue() {
+        this.value(null);
+    }
+
+    @Override
+    public void booleanValue(boolean value) {
+        this.value(value);
+    }
+
+    @Override
+    public void longValue(long value) {
+        this.value(value);
+    }
+
+    @Override
+    public void unsignedLongValue(long value) {
+        this.value(value >= 0 ? BigInteger.valueOf(value) : new BigInteger(Long.toUnsignedString(value)));
+    }
+
+    @Override
+    public void doubleValue(double value) {
+        this.value(value);
+    }
+
+    @Override
+    public void stringValue(byte[] bytes, int offset, int length) {
+        this.value(JsonBinary.decodeString(bytes, offset, length));
+    }
+
+    @Override
+    public void opaqueValue(TableMapColumnTypeEnum fieldType, byte[] bytes, int offset, int length) {
+        byte[] data = new byte[length];
+        System.arraycopy(bytes, offset, data, 0, length);
+        this.value(new JsonOpaque(fieldType, data));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void value(Object value) {
+        Object parent = this.containers.peek();
+        if (parent == null) {
+            this.result = value;
+        } else if (parent instanceof Map) {
+            ((Map<String, Object>) parent).put(this.pendingKey, value);
+        } else {
+            ((List<Object>) parent).add(value);
+        }
+        this.pendingKey = null;
+    }
+}
@@ -0,0 +1,61 @@
+package com.cl.mysql.binlog.json;
+
+import com.cl.mysql.binlog.constant.TableMapColumnTypeEnum;
+
+/**
+ * @description: mysql二进制json的遍历回调（类似SAX），{@link JsonBinary}按文档顺序依次回调，不会生成中间对象
+ * <p>
+ * 对象的回调顺序为 startObject -> (objectKey -> 值)* -> endObject，数组为 startArray -> 值* -> endArray，
+ * 值可以是标量，也可以是嵌套的对象或数组
+ * @author: liuzijian
+ * @time: 2023-09-24 16:00
+ */
+public interface JsonVisitor {
+
+    /**
+     * @param memberCount 成员个数
+     */
+    void startObject(int memberCount);
+
+    /**
+     * 对象的key，接下来的回调就是这个key对应的值
+     */
+    void objectKey(String key);
+
+    void endObject();
+
+    /**
+     * @param elementCount 元素个数
+     */
+    void startArray(int elementCount);
+
+    void endArray();
+
+    void nullValue();
+
+    void booleanValue(boolean value);
+
+    /**
+     * INT16、UINT16、INT32、UINT32、INT64
+     */
+    void longValue(long value);
+
+    /**
+     * UINT64，按无符号数理解，见{@link Long#toUnsignedString(long)}
+     */
+    void unsignedLongValue(long value);
+
+    void doubleValue(double value);
+
+    /**
+     * 字符串，utf8mb4编码的原始字节，需要String时用{@link JsonBinary#decodeString(byte[], int, int)}
+     */
+    void stringValue(byte[] bytes, int offset, int length);
+
+    /**
+     * 不透明类型，json里存的DECIMAL、时间类型等mysql字段值，格式见{@link JsonWriter}
+     *
+     * @param fieldType mysql字段类型，未知类型为null
+     */
+    void opaqueValue(TableMapColumnTypeEnum fieldType, byte[] bytes, int offset, int length);
+}
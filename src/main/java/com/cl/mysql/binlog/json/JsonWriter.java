@@ -0,0 +1,282 @@
+package com.cl.mysql.binlog.json;
+
+import com.cl.mysql.binlog.constant.TableMapColumnTypeEnum;
+import com.cl.mysql.binlog.decoder.NewDecimalColumnDecoder;
+import com.cl.mysql.binlog.stream.ByteArrayIndexInputStream;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.Base64;
+
+/**
+ * @description: 把二进制json按mysql的文本格式（{"a": 1, "b": [1, 2]}）写到Appendable，不经过中间对象
+ * <p>
+ * 不透明类型的输出与mysql一致：DECIMAL输出数字，DATE输出"2023-09-24"，TIME输出"12:34:56.000000"，
+ * DATETIME、TIMESTAMP输出"2023-09-24 12:34:56.000000"，其余类型输出"base64:type字段类型:base64内容"<br>
+ * Appendable抛出的IOException会包装成{@link UncheckedIOException}
+ * </p>
+ * @author: liuzijian
+ * @time: 2023-09-24 16:40
+ */
+public class JsonWriter implements JsonVisitor {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final Appendable out;
+
+    /**
+     * 下一个值前面是否需要逗号
+     */
+    private boolean needComma;
+
+    /**
+     * 刚写完对象的key，下一个值前面不需要逗号
+     */
+    private boolean afterKey;
+
+    public JsonWriter(Appendable out) {
+        this.out = out;
+    }
+
+    @Override
+    public void startObject(int memberCount) {
+        this.beforeValue();
+        this.append('{');
+        this.needComma = false;
+    }
+
+    @Override
+    public void objectKey(String key) {
+        if (this.needComma) {
+            this.append(", ");
+        }
+        this.appendQuoted(key);
+        this.append(": ");
+        this.afterKey = true;
+    }
+
+    @Override
+    public void endObject() {
+        this.append('}');
+        this.needComma = true;
+    }
+
+    @Override
+    public void startArray(int elementCount) {
+        this.beforeValue();
+        this.append('[');
+        this.needComma = false;
+    }
+
+    @Override
+    public void endArray() {
+        this.append(']');
+        this.needComma = true;
+    }
+
+    @Override
+    public void nullValue() {
+        this.scalar("null");
+    }
+
+    @Override
+    public void booleanValue(boolean value) {
+        this.scalar(value ? "true" : "false");
+    }
+
+    @Override
+    public void longValue(long value) {
+        this.scalar(Long.toString(value));
+    }
+
+    @Override
+    public void unsignedLongValue(long value) {
+        this.scalar(Long.toUnsignedString(value));
+    }
+
+    @Override
+    public void doubleValue(double value) {
+        this.scalar(Double.toString(value));
+    }
+
+    @Override
+    public void stringValue(byte[] bytes, int offset, int length) {
+        this.beforeValue();
+        this.append('"');
+        int end = offset + length;
+        int i = offset;
+        // ASCII字符直接按字节输出，遇到非ASCII字符时剩下的部分整体解码
+        for (; i < end && bytes[i] >= 0; i++) {
+            this.appendEscaped((char) bytes[i]);
+        }
+        if (i < end) {
+            String rest = JsonBinary.decodeString(bytes, i, end - i);
+            for (int j = 0; j < rest.length(); j++) {
+                this.appendEscaped(rest.charAt(j));
+            }
+        }
+        this.append('"');
+        this.needComma = true;
+    }
+
+    @Override
+    public void opaqueValue(TableMapColumnTypeEnum fieldType, byte[] bytes, int offset, int length) {
+        if (fieldType == TableMapColumnTypeEnum.MYSQL_TYPE_NEWDECIMAL) {
+            this.scalar(decodeDecimal(bytes, offset, length).toPlainString());
+            return;
+        }
+        StringBuilder text = new StringBuilder(32);
+        if (fieldType == TableMapColumnTypeEnum.MYSQL_TYPE_DATE) {
+            appendPackedDateTime(text, JsonBinary.readLong(bytes, offset), false);
+        } else if (fieldType == TableMapColumnTypeEnum.MYSQL_TYPE_TIME) {
+            appendPackedTime(text, JsonBinary.readLong(bytes, offset));
+        } else if (fieldType == TableMapColumnTypeEnum.MYSQL_TYPE_DATETIME || fieldType == TableMapColumnTypeEnum.MYSQL_TYPE_TIMESTAMP) {
+            appendPackedDateTime(text, JsonBinary.readLong(bytes, offset), true);
+        } else {
+            byte[] value = new byte[length];
+            System.arraycopy(bytes, offset, value, 0, length);
+            text.append("base64:type").append(fieldType == null ? 0 : fieldType.getIdentifier()).append(':')
+                    .append(Base64.getEncoder().encodeToString(value));
+        }
+        this.beforeValue();
+        this.appendQuoted(text);
+        this.needComma = true;
+    }
+
+    /**
+     * 不透明的DECIMAL：precision（1个字节） + scale（1个字节） + DECIMAL字段的二进制格式
+     */
+    static BigDecimal decodeDecimal(byte[] bytes, int offset, int length) {
+        int precision = bytes[offset] & 0xFF;
+        int scale = bytes[offset + 1] & 0xFF;
+        NewDecimalColumnDecoder decoder = new NewDecimalColumnDecoder(TableMapColumnTypeEnum.MYSQL_TYPE_NEWDECIMAL, precision | (scale << 8));
+        try {
+            return (BigDecimal) decoder.decode(new ByteArrayIndexInputStream(bytes, offset + 2, length - 2));
+        } catch (IOException e) {
+            throw new IllegalStateException("json中的decimal格式错误", e);
+        }
+    }
+
+    /**
+     * <a href="https://github.com/mysql/mysql-server/blob/8.0/mysys/my_time.cc">源码：搜TIME_from_longlong_datetime_packed</a>
+     */
+    static void appendPackedDateTime(StringBuilder text, long packed, boolean withTime) {
+        if (packed < 0) {
+            packed = -packed;
+        }
+        long frac = packed % (1L << 24);
+        long ymdhms = packed >> 24;
+        long ymd = ymdhms >> 17;
+        long ym = ymd >> 5;
+        long hms = ymdhms % (1L << 17);
+        pad(text, ym / 13, 4).append('-');
+        pad(text, ym % 13, 2).append('-');
+        pad(text, ymd % (1L << 5), 2);
+        if (withTime) {
+            text.append(' ');
+            pad(text, hms >> 12, 2).append(':');
+            pad(text, (hms >> 6) % (1L << 6), 2).append(':');
+            pad(text, hms % (1L << 6), 2).append('.');
+            pad(text, frac, 6);
+        }
+    }
+
+    /**
+     * <a href="https://github.com/mysql/mysql-server/blob/8.0/mysys/my_time.cc">源码：搜TIME_from_longlong_time_packed</a>
+     */
+    static void appendPackedTime(StringBuilder text, long packed) {
+        if (packed < 0) {
+            text.append('-');
+            packed = -packed;
+        }
+        long hms = packed >> 24;
+        pad(text, (hms >> 12) % (1L << 10), 2).append(':');
+        pad(text, (hms >> 6) % (1L << 6), 2).append(':');
+        pad(text, hms % (1L << 6), 2).append('.');
+        pad(text, packed % (1L << 24), 6);
+    }
+
+    private static StringBuilder pad(StringBuilder text, long value, int width) {
+        String digits = Long.toString(value);
+        for (int i = digits.length(); i < width; i++) {
+            text.append('0');
+        }
+        return text.append(digits);
+    }
+
+    private void scalar(String text) {
+        this.beforeValue();
+        this.append(text);
+        this.needComma = true;
+    }
+
+    private void beforeValue() {
+        if (this.afterKey) {
+            this.afterKey = false;
+        } else if (this.needComma) {
+            this.append(", ");
+        }
+    }
+
+    private void appendQuoted(CharSequence text) {
+        this.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            this.appendEscaped(text.charAt(i));
+        }
+        this.append('"');
+    }
+
+    /**
+     * 转义规则与mysql一致：" \ 以及控制字符
+     */
+    private void appendEscaped(char c) {
+        switch (c) {
+            case '"':
+                this.append("\\\"");
+                break;
+            case '\\':
+                this.append("\\\\");
+                break;
+            case '\b':
+                this.append("\\b");
+                break;
+            case '\f':
+                this.append("\\f");
+                break;
+            case '\n':
+                this.append("\\n");
+                break;
+            case '\r':
+                this.append("\\r");
+                break;
+            case '\t':
+                this.append("\\t");
+                break;
+            default:
+                if (c < 0x20) {
+                    this.append("\\u00");
+                    this.append(HEX[c >> 4]);
+                    this.append(HEX[c & 0xF]);
+                } else {
+                    this.append(c);
+                }
+        }
+    }
+
+    private void append(char c) {
+        try {
+            this.out.append(c);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void append(CharSequence text) {
+        try {
+            this.out.append(text);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -1,16 +1,23 @@
 package com.cl.mysql.binlog.network;
 
 import cn.hutool.core.util.StrUtil;
+import com.cl.mysql.binlog.binlogEvent.BinlogEventFactoryRegistry;
 import com.cl.mysql.binlog.binlogEvent.TableMapEvent;
 import com.cl.mysql.binlog.constant.BinlogCheckSumEnum;
+import com.cl.mysql.binlog.constant.BinlogEventTypeEnum;
+import com.cl.mysql.binlog.constant.ChecksumVerifyModeEnum;
+import com.cl.mysql.binlog.entity.ChecksumStatistics;
 import com.cl.mysql.binlog.exception.EnvironmentException;
 import lombok.AccessLevel;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.regex.PatternSyntaxException;
 
 /**
  * @description: binlog环境配置
@@ -22,12 +29,164 @@ import java.util.concurrent.ConcurrentHashMap;
 @Setter(value = AccessLevel.PROTECTED)
 public class BinlogEnvironment extends ClientProperties {
 
-    private Map<Long, TableMapEvent> tableInfo = new ConcurrentHashMap<>();
+    /**
+     * 连接器自身需要用到的事件，不管有没有订阅都要解析
+     */
+    private static final Set<BinlogEventTypeEnum> INTERNAL_EVENT_TYPES = Collections.unmodifiableSet(EnumSet.of(
+            BinlogEventTypeEnum.TABLE_MAP_EVENT,
+            BinlogEventTypeEnum.ROTATE_EVENT,
+            BinlogEventTypeEnum.FORMAT_DESCRIPTION_EVENT,
+            BinlogEventTypeEnum.TRANSACTION_PAYLOAD_EVENT
+    ));
+
+    /**
+     * TableMapEvent的缓存，大小见{@link ClientProperties#getTableMapCacheSize()}
+     */
+    private TableMapCache tableMapCache = new TableMapCache(TableMapCache.DEFAULT_MAX_SIZE);
 
     private boolean successLogin;
 
     private BinlogCheckSumEnum checkSum;
 
+    /**
+     * 事件体解析器
+     */
+    private BinlogEventFactoryRegistry eventFactoryRegistry = BinlogEventFactoryRegistry.createDefault();
+
+    /**
+     * 订阅的事件类型，为空表示订阅全部
+     */
+    private Set<BinlogEventTypeEnum> subscribedEventTypes;
+
+    /**
+     * 不管有没有订阅都要解析的事件类型，见{@link #requireDecode(BinlogEventTypeEnum...)}
+     */
+    @Getter(AccessLevel.NONE)
+    private final Set<BinlogEventTypeEnum> requiredEventTypes = EnumSet.copyOf(INTERNAL_EVENT_TYPES);
+
+    /**
+     * 以事件类型的code为下标，记录该类型的事件体是否需要解析，为空表示全部解析
+     */
+    private boolean[] decodeMask;
+
+    /**
+     * 库表过滤器，为空表示不过滤
+     */
+    private TableFilter tableFilter;
+
+    /**
+     * 事件校验和的统计
+     */
+    private final ChecksumStatistics checksumStatistics = new ChecksumStatistics();
+
+    /**
+     * 抽样校验的计数器，只在解析线程里使用
+     */
+    @Getter(AccessLevel.NONE)
+    private long checksumSampleCounter;
+
+    /**
+     * 设置订阅的事件类型，订阅之外的事件只解析common header，事件体直接跳过
+     *
+     * @param eventTypes 事件类型，为空表示订阅全部
+     */
+    public void subscribe(Set<BinlogEventTypeEnum> eventTypes) {
+        if (eventTypes == null || eventTypes.isEmpty()) {
+            this.subscribedEventTypes = null;
+            this.decodeMask = null;
+            return;
+        }
+        boolean[] mask = new boolean[BinlogEventTypeEnum.MAX_CODE + 1];
+        for (BinlogEventTypeEnum e : eventTypes) {
+            if (e.getCode() >= 0) {
+                mask[e.getCode()] = true;
+            }
+        }
+        for (BinlogEventTypeEnum e : this.requiredEventTypes) {
+            mask[e.getCode()] = true;
+        }
+        this.subscribedEventTypes = Collections.unmodifiableSet(EnumSet.copyOf(eventTypes));
+        this.decodeMask = mask;
+    }
+
+    /**
+     * 连接器自身需要用到的事件类型，不管有没有订阅都解析事件体（但只有订阅了的才分发给监听者），例如按GTID监听时需要GTID、XID、QUERY事件
+     */
+    public void requireDecode(BinlogEventTypeEnum... eventTypes) {
+        for (BinlogEventTypeEnum e : eventTypes) {
+            this.requiredEventTypes.add(e);
+            if (this.decodeMask != null && e.getCode() >= 0) {
+                this.decodeMask[e.getCode()] = true;
+            }
+        }
+    }
+
+    /**
+     * @return 该类型的事件体是否需要解析
+     */
+    public boolean isDecodeRequired(BinlogEventTypeEnum eventType) {
+        return this.decodeMask == null || (eventType.getCode() >= 0 && this.decodeMask[eventType.getCode()]);
+    }
+
+    /**
+     * @return 该类型的事件是否需要分发给监听者
+     */
+    public boolean isSubscribed(BinlogEventTypeEnum eventType) {
+        return this.subscribedEventTypes == null || this.subscribedEventTypes.contains(eventType);
+    }
+
+    /**
+     * 用库表过滤器匹配一张表，每个TableMapEvent只会调用一次
+     */
+    public boolean acceptTable(String dataBaseName, String tableName) {
+        return this.tableFilter == null || this.tableFilter.accept(dataBaseName, tableName);
+    }
+
+    /**
+     * 换算一张表的字段投影，每个TableMapEvent只会调用一次
+     *
+     * @return 需要解析的字段下标，为空表示解析全部字段
+     */
+    public BitSet resolveProjection(TableMapEvent tableMapEvent) {
+        if (this.getColumnProjections() == null) {
+            return null;
+        }
+        ColumnProjection projection = this.getColumnProjections().get(tableMapEvent.getDataBaseName() + "." + tableMapEvent.getTableName());
+        return projection == null ? null : projection.resolve(tableMapEvent);
+    }
+
+    /**
+     * 行事件按tableId取TableMapEvent上记录的匹配结果，没见过的tableId一律放行
+     */
+    public boolean isTableAccepted(long tableId) {
+        if (this.tableFilter == null) {
+            return true;
+        }
+        TableMapCache.Entry entry = this.tableMapCache.getEntry(tableId);
+        return entry == null || entry.getTableMapEvent().isAccepted();
+    }
+
+    /**
+     * 按校验方式决定这个事件要不要校验checksum，抽样没抽中的会计入统计
+     *
+     * @param checkSum 事件末尾checksum的类型
+     */
+    public boolean shouldVerifyChecksum(BinlogCheckSumEnum checkSum) {
+        if (checkSum != BinlogCheckSumEnum.CRC32) {
+            return false;
+        }
+        ChecksumVerifyModeEnum mode = this.getChecksumVerifyMode();
+        if (mode == ChecksumVerifyModeEnum.VERIFY) {
+            return true;
+        } else if (mode == ChecksumVerifyModeEnum.SAMPLE) {
+            if (this.checksumSampleCounter++ % this.getChecksumSampleInterval() == 0) {
+                return true;
+            }
+            this.checksumStatistics.recordSampledOut();
+        }
+        return false;
+    }
+
     public void checkValue() {
         if (StrUtil.isBlank(this.getHost())) {
             throw new EnvironmentException("host cannot be blank");
@@ -37,6 +196,36 @@ public class BinlogEnvironment extends ClientProperties {
             throw new EnvironmentException("userName cannot be blank");
         } else if (StrUtil.isBlank(this.getPassword())) {
             throw new EnvironmentException("password cannot be blank");
+        } else if (this.getChecksumVerifyMode() == null || this.getChecksumFailurePolicy() == null) {
+            throw new EnvironmentException("checksumVerifyMode and checksumFailurePolicy cannot be null");
+        } else if (this.getChecksumSampleInterval() <= 0) {
+            throw new EnvironmentException("checksumSampleInterval must be greater than 0");
+        } else if (this.getTableMapCacheSize() <= 0) {
+            throw new EnvironmentException("tableMapCacheSize must be greater than 0");
+        } else if (this.getReconnectInitialDelayMillis() < 0 || this.getReconnectMaxDelayMillis() < this.getReconnectInitialDelayMillis()) {
+            throw new EnvironmentException("reconnectInitialDelayMillis must be between 0 and reconnectMaxDelayMillis");
+        } else if (this.getReconnectJitter() < 0 || this.getReconnectJitter() >= 1) {
+            throw new EnvironmentException("reconnectJitter must between 0 and 1");
+        } else if (this.getReconnectFatalErrorCodes() == null) {
+            throw new EnvironmentException("reconnectFatalErrorCodes cannot be null");
+        } else if (this.getPipelineBufferSize() <= 0 || Integer.bitCount(this.getPipelineBufferSize()) != 1) {
+            throw new EnvironmentException("pipelineBufferSize must be a power of 2");
+        } else if (this.getPipelineWaitStrategy() == null) {
+            throw new EnvironmentException("pipelineWaitStrategy cannot be null");
+        } else if (this.getParallelRowDecodeThreads() < 0) {
+            throw new EnvironmentException("parallelRowDecodeThreads cannot be negative");
+        } else if (this.getParallelRowDecodeMaxPending() <= 0) {
+            throw new EnvironmentException("parallelRowDecodeMaxPending must be greater than 0");
+        } else if (this.getParallelRowDecodeMinBytes() < 0) {
+            throw new EnvironmentException("parallelRowDecodeMinBytes cannot be negative");
+        }
+        if (this.getTableMapCacheSize() != this.tableMapCache.getMaxSize()) {
+            this.tableMapCache = new TableMapCache(this.getTableMapCacheSize());
+        }
+        try {
+            this.tableFilter = TableFilter.compile(this.getIncludeTables(), this.getExcludeTables());
+        } catch (PatternSyntaxException e) {
+            throw new EnvironmentException("includeTables or excludeTables is not a valid regex: " + e.getMessage());
         }
     }
 }
@@ -2,10 +2,24 @@ package com.cl.mysql.binlog.network;
 
 import cn.hutool.core.bean.BeanUtil;
 import com.cl.mysql.binlog.constant.CapabilitiesFlagsEnum;
+import com.cl.mysql.binlog.constant.ChecksumFailurePolicyEnum;
+import com.cl.mysql.binlog.constant.ChecksumVerifyModeEnum;
+import com.cl.mysql.binlog.constant.RowDecodeModeEnum;
+import com.cl.mysql.binlog.constant.TemporalDecodeModeEnum;
+import com.cl.mysql.binlog.constant.TransportTypeEnum;
+import com.cl.mysql.binlog.constant.WaitStrategyEnum;
 import lombok.AccessLevel;
 import lombok.Data;
 import lombok.Setter;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 /**
  * @description: 客户端参数配置
  * @author: liuzijian
@@ -14,6 +28,14 @@ import lombok.Setter;
 @Data
 public class ClientProperties {
 
+    /**
+     * 重连也不会恢复的错误：1044、1045、1698、1862、3118 账号或权限问题，1049 库不存在，1251 认证协议不支持，
+     * 1236 binlog已被清理或找不到
+     */
+    public static final Set<Integer> DEFAULT_RECONNECT_FATAL_ERROR_CODES = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            1044, 1045, 1049, 1236, 1251, 1698, 1862, 3118
+    )));
+
     private String host;
 
     private int port;
@@ -26,6 +48,139 @@ public class ClientProperties {
 
     private String dataBaseScram;
 
+    /**
+     * 传输方式，默认为阻塞socket
+     */
+    private TransportTypeEnum transportType = TransportTypeEnum.SOCKET;
+
+    /**
+     * 传输方式为{@link TransportTypeEnum#NIO}时读缓冲区的大小（直接内存），默认256k
+     */
+    private int readBufferSize = 256 * 1024;
+
+    /**
+     * 需要监听的表，正则表达式，匹配的是 库名.表名，例如：order_db\.t_order_\d+<br>
+     * 为空表示监听全部表
+     */
+    private List<String> includeTables;
+
+    /**
+     * 需要排除的表，正则表达式，匹配的是 库名.表名，优先级高于{@link #includeTables}
+     */
+    private List<String> excludeTables;
+
+    /**
+     * 字段投影，key为 库名.表名，不在投影内的字段不会解析，值为null
+     */
+    private Map<String, ColumnProjection> columnProjections;
+
+    /**
+     * 行值的解析方式，默认创建Row时全部解析
+     */
+    private RowDecodeModeEnum rowDecodeMode = RowDecodeModeEnum.EAGER;
+
+    /**
+     * 时间类型字段的解析方式，默认与旧版本一致转成java.util.Date系列的对象，需要java.time对象或者原始long时再切换
+     */
+    private TemporalDecodeModeEnum temporalDecodeMode = TemporalDecodeModeEnum.LEGACY;
+
+    /**
+     * CHAR、VARCHAR字段是否延迟解码，为true时字段值是{@link com.cl.mysql.binlog.entity.LazyString}，
+     * 只保存原始字节，toString()时才按字段字符集解码，适合大部分字符串字段只做转发或比较的场景
+     */
+    private boolean lazyString;
+
+    /**
+     * mysql开启binlog_row_value_options=PARTIAL_JSON后，JSON字段的局部更新只记录操作列表（PARTIAL_UPDATE_ROWS_EVENT），
+     * 为true时解析事件时就在前镜像上执行，后镜像直接是完整的JSON；为false时后镜像的值为{@link com.cl.mysql.binlog.json.JsonDiffVector}
+     */
+    private boolean applyPartialJson;
+
+    /**
+     * 事件CRC32校验和的校验方式，默认不校验，只有服务端binlog_checksum=CRC32时生效<br>
+     * 校验直接在收到的报文上计算，不拷贝数据，只校验需要解析的事件
+     */
+    private ChecksumVerifyModeEnum checksumVerifyMode = ChecksumVerifyModeEnum.OFF;
+
+    /**
+     * 校验方式为{@link ChecksumVerifyModeEnum#SAMPLE}时，每多少个需要解析的事件校验一个，默认16
+     */
+    private int checksumSampleInterval = 16;
+
+    /**
+     * 校验和不一致时的处理方式，默认抛出异常
+     */
+    private ChecksumFailurePolicyEnum checksumFailurePolicy = ChecksumFailurePolicyEnum.THROW;
+
+    /**
+     * TableMapEvent缓存最多保存的表数，按最近使用淘汰，默认4096，不能小于一个事务里涉及的表数
+     */
+    private int tableMapCacheSize = TableMapCache.DEFAULT_MAX_SIZE;
+
+    /**
+     * 连接断开后是否自动重连，重连后从最后一个完整的事务之后继续监听（按GTID监听时用已处理完的GTID集合，否则用事务结束的binlog位点），
+     * 没处理完的事务会重新分发给监听者
+     */
+    private boolean autoReconnect;
+
+    /**
+     * 第一次重连前的等待时间（毫秒），之后每次翻倍，默认1秒
+     */
+    private long reconnectInitialDelayMillis = 1000;
+
+    /**
+     * 重连等待时间的上限（毫秒），默认30秒
+     */
+    private long reconnectMaxDelayMillis = 30000;
+
+    /**
+     * 重连等待时间的随机抖动比例，0.2表示在计算出的等待时间上下浮动20%，避免多个客户端同时重连，默认0.2
+     */
+    private double reconnectJitter = 0.2;
+
+    /**
+     * 连续重连失败多少次后放弃，抛出最后一次的异常，小于等于0表示一直重连，默认0
+     */
+    private int reconnectMaxAttempts;
+
+    /**
+     * 不重连、直接抛出的服务端错误码，其余错误（例如服务端关闭、重启时发来的1053、1927）按退避时间重连，
+     * 默认是{@link #DEFAULT_RECONNECT_FATAL_ERROR_CODES}
+     */
+    private Set<Integer> reconnectFatalErrorCodes = new HashSet<>(DEFAULT_RECONNECT_FATAL_ERROR_CODES);
+
+    /**
+     * 是否把读取和解析分到两个线程：读取线程只从socket读报文放进环形缓冲区，解析线程解析事件并分发给监听者，
+     * 监听者处理得慢时不会马上卡住tcp读取，事件顺序不变
+     */
+    private boolean pipelineEnabled;
+
+    /**
+     * 流水线环形缓冲区能放下的报文数，必须是2的幂，默认1024；缓冲区满了读取线程才等待，内存占用最多是这么多个事件
+     */
+    private int pipelineBufferSize = 1024;
+
+    /**
+     * 流水线两个线程互相等待的方式，默认挂起等待
+     */
+    private WaitStrategyEnum pipelineWaitStrategy = WaitStrategyEnum.BLOCKING;
+
+    /**
+     * 行事件并行解析的线程数，默认0表示不开启：大于0时行事件的表结构按顺序取好，行数据交给线程池解析，
+     * 解析完再按binlog的顺序分发给监听者，适合批量导入、数据回填时大量的行事件
+     */
+    private int parallelRowDecodeThreads;
+
+    /**
+     * 并行解析时最多有多少个事件在等待解析或分发，超过后读取等待，默认1024
+     */
+    private int parallelRowDecodeMaxPending = 1024;
+
+    /**
+     * 行数据不小于这么多字节的行事件才交给线程池，更小的事件直接解析，默认1024
+     */
+    private int parallelRowDecodeMinBytes = 1024;
+
     @Setter(value = AccessLevel.PROTECTED)
     private int clientCapabilities;
 
@@ -33,6 +188,20 @@ public class ClientProperties {
         this.clientCapabilities = CapabilitiesFlagsEnum.add(this.clientCapabilities, e);
     }
 
+    /**
+     * 声明一张表需要解析的字段
+     *
+     * @param dataBaseName 库名
+     * @param tableName    表名
+     * @param projection   {@link ColumnProjection#ofNames(String...)}或{@link ColumnProjection#ofIndexes(int...)}
+     */
+    public void projectColumns(String dataBaseName, String tableName, ColumnProjection projection) {
+        if (this.columnProjections == null) {
+            this.columnProjections = new HashMap<>();
+        }
+        this.columnProjections.put(dataBaseName + "." + tableName, projection);
+    }
+
     protected BinlogEnvironment convertToEnvironment() {
         BinlogEnvironment e = new BinlogEnvironment();
         BeanUtil.copyProperties(this, e);
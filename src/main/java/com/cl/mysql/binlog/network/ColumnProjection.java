@@ -0,0 +1,82 @@
+package com.cl.mysql.binlog.network;
+
+import com.cl.mysql.binlog.binlogEvent.TableMapEvent;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @description: 一张表需要解析的字段，可以按字段名或者字段下标（从0开始）声明
+ * <p>
+ * 每个TableMapEvent只换算一次，结果记在{@link TableMapEvent#getProjection()}上，
+ * 行值解析时不在投影内的字段只根据编码长度跳过，不会生成字段值
+ * @author: liuzijian
+ * @time: 2023-09-22 16:40
+ */
+@Slf4j
+public class ColumnProjection {
+
+    private final Set<String> columnNames;
+
+    private final BitSet columnIndexes;
+
+    /**
+     * 已经提示过没有字段名的表（库名.表名），每张表只提示一次，避免每次解析TableMapEvent都打日志
+     */
+    private final Set<String> warnedTables = ConcurrentHashMap.newKeySet();
+
+    private ColumnProjection(Set<String> columnNames, BitSet columnIndexes) {
+        this.columnNames = columnNames;
+        this.columnIndexes = columnIndexes;
+    }
+
+    /**
+     * 按字段名投影，需要mysql开启binlog_row_metadata=FULL，否则TableMapEvent中没有字段名，会退化为解析全部字段
+     */
+    public static ColumnProjection ofNames(String... columnNames) {
+        Set<String> names = new HashSet<>(columnNames.length);
+        Collections.addAll(names, columnNames);
+        return new ColumnProjection(names, null);
+    }
+
+    /**
+     * 按字段下标投影，下标从0开始
+     */
+    public static ColumnProjection ofIndexes(int... columnIndexes) {
+        BitSet indexes = new BitSet();
+        for (int index : columnIndexes) {
+            indexes.set(index);
+        }
+        return new ColumnProjection(null, indexes);
+    }
+
+    /**
+     * 换算成需要解析的字段下标
+     *
+     * @return 为空表示解析全部字段
+     */
+    public BitSet resolve(TableMapEvent tableMapEvent) {
+        if (this.columnIndexes != null) {
+            return this.columnIndexes;
+        }
+        List<String> names = tableMapEvent.getOptionalMetadataFields() == null ? null : tableMapEvent.getOptionalMetadataFields().getColumnName();
+        if (names == null) {
+            if (this.warnedTables.add(tableMapEvent.getDataBaseName() + "." + tableMapEvent.getTableName())) {
+                log.warn("表{}.{}没有字段名信息（binlog_row_metadata不为FULL），字段投影不生效", tableMapEvent.getDataBaseName(), tableMapEvent.getTableName());
+            }
+            return null;
+        }
+        BitSet result = new BitSet(names.size());
+        for (int i = 0; i < names.size(); i++) {
+            if (this.columnNames.contains(names.get(i))) {
+                result.set(i);
+            }
+        }
+        return result;
+    }
+}
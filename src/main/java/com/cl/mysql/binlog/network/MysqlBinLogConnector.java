@@ -1,23 +1,42 @@
 package com.cl.mysql.binlog.network;
 
 import cn.hutool.core.util.StrUtil;
+import com.cl.mysql.binlog.binlogEvent.BinlogEventFactory;
 import com.cl.mysql.binlog.binlogEvent.Event;
+import com.cl.mysql.binlog.binlogEvent.GtidEvent;
+import com.cl.mysql.binlog.binlogEvent.QueryEvent;
+import com.cl.mysql.binlog.binlogEvent.RotateEvent;
+import com.cl.mysql.binlog.binlogEvent.TransactionPayloadEvent;
 import com.cl.mysql.binlog.constant.*;
 import com.cl.mysql.binlog.entity.BinlogInfo;
+import com.cl.mysql.binlog.entity.ChecksumStatistics;
+import com.cl.mysql.binlog.entity.GtidSet;
+import com.cl.mysql.binlog.exception.ServerException;
 import com.cl.mysql.binlog.listener.EventListener;
 import com.cl.mysql.binlog.network.command.*;
 import com.cl.mysql.binlog.network.protocol.InitialHandshakeProtocol;
 import com.cl.mysql.binlog.network.protocol.packet.TextResultSetPacket;
+import com.cl.mysql.binlog.pipeline.EventPipeline;
+import com.cl.mysql.binlog.pipeline.OrderedRowDecoder;
 import com.cl.mysql.binlog.stream.ByteArrayIndexInputStream;
+import com.cl.mysql.binlog.util.PacketUtil;
 import lombok.AccessLevel;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.security.KeyManagementException;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * @description: 连接器
@@ -29,7 +48,7 @@ public class MysqlBinLogConnector {
 
 
     @Setter(AccessLevel.PRIVATE)
-    private PacketChannel channel;
+    private volatile PacketChannel channel;
 
     @Setter(AccessLevel.PRIVATE)
     private InitialHandshakeProtocol handshakeProtocol;
@@ -40,6 +59,60 @@ public class MysqlBinLogConnector {
 
     private final BinlogEnvironment environment;
 
+    /**
+     * 按GTID监听时已经处理完的GTID集合，每个事务分发完之后加入，其他线程读取时需要对它加锁
+     */
+    private volatile GtidSet gtidSet;
+
+    /**
+     * 当前事务的GTID事件，事务结束（XID_EVENT或非BEGIN的QUERY_EVENT）时加入{@link #gtidSet}
+     */
+    private GtidEvent pendingGtid;
+
+    /**
+     * 收到BEGIN之后、事务结束之前为true，只在解析（分发）线程里访问
+     */
+    private boolean inTransaction;
+
+    /**
+     * 监听结束时完成，见{@link #getTerminationFuture()}
+     */
+    private final CompletableFuture<Void> terminationFuture = new CompletableFuture<>();
+
+    /**
+     * {@link #start()}创建的后台监听线程
+     */
+    private Thread readerThread;
+
+    /**
+     * 已经开始接收事件（包括在调用者线程里阻塞的{@link #listen()}）
+     */
+    private volatile boolean streaming;
+
+    private volatile boolean stopping;
+
+    /**
+     * 等待重连时在这个锁上等待，停止时唤醒
+     */
+    private final Object lifecycleLock = new Object();
+
+    /**
+     * 读取和解析分开的流水线，开启{@link ClientProperties#isPipelineEnabled()}时第一次监听创建，重连时复用
+     */
+    private EventPipeline pipeline;
+
+    /**
+     * 行数据并行解析，开启{@link ClientProperties#getParallelRowDecodeThreads()}时第一次监听创建，监听结束时关闭线程池
+     */
+    private OrderedRowDecoder rowDecoder;
+
+    /**
+     * 最后一个完整的事务结束时所在的binlog文件名和位点，由ROTATE_EVENT和事务结束事件更新，自动重连时从这里继续
+     */
+    private volatile String binlogFileName;
+
+    private volatile long binlogPosition;
+
     protected MysqlBinLogConnector(ClientProperties properties) {
         this.environment = properties.convertToEnvironment();
     }
@@ -68,13 +141,31 @@ public class MysqlBinLogConnector {
         tempProperties.setSsl(ssl);
         tempProperties.setDataBaseScram(dataBaseScram);
 
-        MysqlBinLogConnector mysqlBinLogConnector = new MysqlBinLogConnector(tempProperties);
+        return openConnect(tempProperties);
+    }
+
+    /**
+     * 开启连接
+     *
+     * @param properties 客户端参数配置
+     * @return
+     * @throws IOException
+     * @throws NoSuchAlgorithmException
+     * @throws KeyManagementException
+     */
+    public static MysqlBinLogConnector openConnect(ClientProperties properties) throws IOException, NoSuchAlgorithmException, KeyManagementException {
+        MysqlBinLogConnector mysqlBinLogConnector = new MysqlBinLogConnector(properties);
         mysqlBinLogConnector.loginToMysql();
         return mysqlBinLogConnector;
     }
 
     protected void loginToMysql() throws IOException, NoSuchAlgorithmException, KeyManagementException {
-        this.channel = new PacketChannel(this.environment.getHost(), this.environment.getPort());
+        this.channel = new PacketChannel(
+                this.environment.getHost(),
+                this.environment.getPort(),
+                this.environment.getTransportType(),
+                this.environment.getReadBufferSize()
+        );
         // 解析握手协议
         byte[] bytes = this.readDataContent();
         this.checkPacket(bytes);
@@ -140,6 +231,156 @@ public class MysqlBinLogConnector {
         this.sendComBingLogDump(binlogFileName, binlogPosition);
     }
 
+    /**
+     * 按GTID集合监听（COM_BINLOG_DUMP_GTID），服务端会跳过集合里已经执行过的事务，主从切换后在新的主库上用同一个集合也能接着监听<br>
+     * 监听过程中每个事务分发给监听者之后，它的GTID会加入集合，断开后用{@link #getGtidSet()}的结果可以接着监听，需要服务端开启gtid_mode
+     *
+     * @param gtidSet 已经处理过的GTID集合，例如GtidSet.parse("3E11FA47-71CA-11E1-9E33-C80AA9429562:1-5")，传空集合表示从最早的binlog开始
+     */
+    public void listen(GtidSet gtidSet) throws IOException {
+        this.gtidSet = gtidSet.copy();
+        this.environment.requireDecode(BinlogEventTypeEnum.GTID_LOG_EVENT, BinlogEventTypeEnum.XID_EVENT, BinlogEventTypeEnum.QUERY_EVENT);
+        this.stream();
+    }
+
+    /**
+     * 在后台线程里监听，立即返回，效果与{@link #listen()}相同
+     *
+     * @return 监听结束时完成，见{@link #getTerminationFuture()}
+     */
+    public CompletableFuture<Void> start() {
+        return this.start(this::listen);
+    }
+
+    /**
+     * 在后台线程里从指定的binlog位点监听，立即返回
+     */
+    public CompletableFuture<Void> start(String binlogFileName, int binlogPosition) {
+        return this.start(() -> this.listen(binlogFileName, binlogPosition));
+    }
+
+    /**
+     * 在后台线程里按GTID集合监听，立即返回
+     */
+    public CompletableFuture<Void> start(GtidSet gtidSet) {
+        return this.start(() -> this.listen(gtidSet));
+    }
+
+    private synchronized CompletableFuture<Void> start(ListenAction action) {
+        if (this.readerThread != null || this.streaming) {
+            throw new IllegalStateException("连接器已经在监听了");
+        } else if (this.stopping) {
+            throw new IllegalStateException("连接器已经停止，不能再次启动");
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                action.run();
+            } catch (Throwable e) {
+                if (this.terminationFuture.completeExceptionally(e)) {
+                    log.error("binlog监听异常结束", e);
+                }
+            } finally {
+                this.terminationFuture.complete(null);
+            }
+        }, "binlog-reader-" + this.environment.getHost() + ":" + this.environment.getPort());
+        this.readerThread = thread;
+        thread.start();
+        return this.terminationFuture;
+    }
+
+    /**
+     * 停止监听：正在分发的事件会分发完，然后关闭连接，正在等待重连的话立即结束；停止后连接器不能再次启动<br>
+     * {@link #listen()}阻塞的线程会正常返回，{@link #getTerminationFuture()}正常完成
+     *
+     * @param timeout 等待监听线程结束的最长时间
+     * @return false：超时了监听线程还没结束（例如监听者的处理一直没有返回）
+     */
+    public boolean stop(long timeout, TimeUnit unit) throws InterruptedException {
+        this.stopping = true;
+        synchronized (this.lifecycleLock) {
+            this.lifecycleLock.notifyAll();
+        }
+        // 关闭连接让阻塞的读取立即返回
+        this.closeChannelQuietly();
+        synchronized (this) {
+            if (this.readerThread == null && !this.streaming) {
+                // 还没开始监听
+                this.terminationFuture.complete(null);
+            }
+        }
+        return this.awaitTermination(timeout, unit);
+    }
+
+    /**
+     * 等待监听结束，正常停止和异常结束都算结束
+     *
+     * @return false：超时
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        try {
+            this.terminationFuture.get(timeout, unit);
+        } catch (ExecutionException e) {
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return 监听结束时完成：调用{@link #stop(long, TimeUnit)}后正常完成，出现无法恢复的异常时异常完成
+     */
+    public CompletableFuture<Void> getTerminationFuture() {
+        return this.terminationFuture;
+    }
+
+    public boolean isRunning() {
+        return this.streaming && !this.terminationFuture.isDone();
+    }
+
+    private void closeChannelQuietly() {
+        PacketChannel current = this.channel;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (IOException e) {
+                log.debug("关闭连接失败", e);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface ListenAction {
+        void run() throws IOException;
+    }
+
+    /**
+     * @return 按GTID监听时已经处理完的GTID集合（副本），没有按GTID监听时返回null
+     */
+    public GtidSet getGtidSet() {
+        GtidSet current = this.gtidSet;
+        if (current == null) {
+            return null;
+        }
+        synchronized (current) {
+            return current.copy();
+        }
+    }
+
+    /**
+     * @return 最后一个完整的事务结束时所在的binlog文件名，自动重连时从这里继续
+     */
+    public String getBinlogFileName() {
+        return this.binlogFileName;
+    }
+
+    /**
+     * @return 最后一个完整的事务结束时的binlog位点，自动重连时从这里继续
+     */
+    public long getBinlogPosition() {
+        return this.binlogPosition;
+    }
+
     /**
      * 请求mysql服务器获取binlog的dump线程
      */
@@ -152,37 +393,300 @@ public class MysqlBinLogConnector {
             binlogFileName = binlogInfo.getFileName();
             binlogPosition = binlogInfo.getPosition();
         }
-        // 查询当前mysql服务器的checkSum
-        BinlogCheckSumEnum checkSum = this.fecthCheckSum();
-        environment.setCheckSum(checkSum);
+        this.binlogFileName = binlogFileName;
+        this.binlogPosition = binlogPosition;
+        this.stream();
+    }
+
+    /**
+     * 发送dump指令并持续接收事件，直到{@link #stop(long, TimeUnit)}或出现无法恢复的异常，结束时关闭连接并完成{@link #getTerminationFuture()}
+     */
+    private void stream() throws IOException {
+        this.streaming = true;
+        try {
+            this.streamWithReconnect();
+            this.terminationFuture.complete(null);
+        } catch (IOException | RuntimeException e) {
+            if (this.stopping) {
+                // 停止时关闭连接导致的读取异常
+                this.terminationFuture.complete(null);
+                return;
+            }
+            this.terminationFuture.completeExceptionally(e);
+            throw e;
+        } finally {
+            this.closeChannelQuietly();
+            if (this.rowDecoder != null) {
+                this.rowDecoder.shutdown();
+            }
+        }
+    }
+
+    /**
+     * 开启{@link ClientProperties#isAutoReconnect()}时，连接断开后按退避时间重连，从最后一个完整的事务之后继续监听，监听者不变
+     */
+    private void streamWithReconnect() throws IOException {
+        // 需要知道事务在哪里结束，不管是否自动重连，getBinlogPosition()都要跟着事务边界前进；没订阅的话只解析不分发
+        this.environment.requireDecode(BinlogEventTypeEnum.XID_EVENT, BinlogEventTypeEnum.QUERY_EVENT);
+        int attempt = 0;
+        while (!this.stopping) {
+            try {
+                if (attempt > 0) {
+                    this.reconnect();
+                    if (this.stopping) {
+                        return;
+                    }
+                }
+                this.sendDumpCommand();
+                attempt = 0;
+                this.listenBinlog();
+            } catch (IOException e) {
+                attempt++;
+                if (this.stopping) {
+                    return;
+                }
+                if (!this.environment.isAutoReconnect() || this.isFatal(e)
+                        || (this.environment.getReconnectMaxAttempts() > 0 && attempt > this.environment.getReconnectMaxAttempts())) {
+                    throw e;
+                }
+                long delay = this.reconnectDelayMillis(attempt);
+                log.warn("binlog连接断开（{}），{}毫秒后第{}次重连，从{}继续监听", e.getMessage(), delay, attempt, this.describeResumePoint());
+                this.awaitReconnectDelay(delay);
+            }
+        }
+    }
+
+    /**
+     * @return 服务端返回了{@link ClientProperties#getReconnectFatalErrorCodes()}里的错误，重连也不会恢复
+     */
+    private boolean isFatal(IOException e) {
+        return e instanceof ServerException && this.environment.getReconnectFatalErrorCodes().contains(((ServerException) e).getErrorCode());
+    }
+
+    /**
+     * 等待重连，{@link #stop(long, TimeUnit)}会立即唤醒
+     */
+    private void awaitReconnectDelay(long delayMillis) throws InterruptedIOException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis);
+        synchronized (this.lifecycleLock) {
+            try {
+                long remaining;
+                while (!this.stopping && (remaining = deadline - System.nanoTime()) > 0) {
+                    TimeUnit.NANOSECONDS.timedWait(this.lifecycleLock, remaining);
+                }
+            } catch (InterruptedException interrupted) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("等待重连时线程被中断");
+            }
+        }
+    }
+
+    /**
+     * 指数退避加随机抖动：initial * 2^(attempt - 1)，不超过上限，再上下浮动jitter比例
+     */
+    private long reconnectDelayMillis(int attempt) {
+        long initial = this.environment.getReconnectInitialDelayMillis();
+        long max = this.environment.getReconnectMaxDelayMillis();
+        long delay = initial;
+        for (int i = 1; i < attempt && delay < max; i++) {
+            delay <<= 1;
+        }
+        delay = Math.min(delay, max);
+        double jitter = this.environment.getReconnectJitter();
+        if (jitter > 0) {
+            delay = (long) (delay * (1 - jitter + 2 * jitter * ThreadLocalRandom.current().nextDouble()));
+        }
+        return delay;
+    }
+
+    /**
+     * 关闭旧连接重新登录，服务端的checksum、row metadata沿用第一次查询的结果，会话变量在发送dump指令前重新设置
+     */
+    private void reconnect() throws IOException {
+        this.closeChannelQuietly();
+        // 新的dump线程会在事务开头重新发送TableMapEvent
+        this.environment.getTableMapCache().clear();
+        // 新的dump从事务边界开始，丢掉断开时没结束的事务状态，否则之后的DDL会被当成事务中间的语句，位点停在原地
+        this.pendingGtid = null;
+        this.inTransaction = false;
+        this.environment.setSuccessLogin(false);
+        try {
+            this.loginToMysql();
+        } catch (NoSuchAlgorithmException | KeyManagementException e) {
+            throw new IllegalStateException("重连时ssl初始化失败", e);
+        }
+        log.info("binlog重连成功，从{}继续监听", this.describeResumePoint());
+    }
+
+    private String describeResumePoint() {
+        if (this.gtidSet != null) {
+            return "GTID集合 " + this.getGtidSet();
+        }
+        return this.binlogFileName + ":" + this.binlogPosition;
+    }
+
+    private void sendDumpCommand() throws IOException {
+        this.prepareDump();
+        if (this.gtidSet != null) {
+            GtidSet executed = this.getGtidSet();
+            channel.sendCommand(new ComBinlogDumpGtidCommand(this.handshakeProtocol.getThreadId(), "", 4, executed));
+        } else {
+            // 向dump线程发送注册指令
+            channel.sendCommand(new ComBinglogDumpCommand(this.binlogFileName, (int) this.binlogPosition, this.handshakeProtocol.getThreadId()));
+        }
+    }
+
+    /**
+     * 发送dump指令前的会话设置，服务端的checksum、row metadata只在第一次查询，重连时沿用
+     */
+    private void prepareDump() throws IOException {
+        BinlogCheckSumEnum checkSum = this.environment.getCheckSum();
+        if (checkSum == null) {
+            // 查询当前mysql服务器的checkSum
+            checkSum = this.fecthCheckSum();
+            environment.setCheckSum(checkSum);
+        }
         if (checkSum != BinlogCheckSumEnum.NONE) {
             // 设置会话checkSum
             this.setCheckSum(checkSum);
         }
-        this.rowMetadata = this.fecthBinlogRowMetadata();
+        if (this.rowMetadata == null) {
+            this.rowMetadata = this.fecthBinlogRowMetadata();
+        }
         // 设置从服务器连接的uuid
         this.setSlaveUUID();
-        // 向dump线程发送注册指令
-        ComBinglogDumpCommand command = new ComBinglogDumpCommand(binlogFileName, binlogPosition, this.handshakeProtocol.getThreadId());
-        channel.sendCommand(command);
-        this.listenBinlog();
     }
 
+    /**
+     * 每次读取报文前检查是否停止，已经读到的事件（包括压缩事务里的全部事件）会分发完<br>
+     * 开启{@link ClientProperties#isPipelineEnabled()}时读取和解析在两个线程里进行；开启{@link ClientProperties#getParallelRowDecodeThreads()}时
+     * 行数据在线程池里解析。两种情况返回前读到的事件都已经分发完
+     */
     private void listenBinlog() throws IOException {
-        while (true) {
-            byte[] bytes = channel.readBinlogStream();
-            ByteArrayIndexInputStream indexInputStream = this.checkBinlogPacket(bytes);
-            Event event = Event.V4Deserialization(this.environment, indexInputStream);
-            for (EventListener listener : this.eventListenerList) {
-                listener.listenAll(event);
-                if (BinlogEventTypeEnum.isUpdateEvent(event.getEventType())) {
-                    listener.listenUpdateEvent(event);
-                } else if (BinlogEventTypeEnum.isInsertEvent(event.getEventType())) {
-                    listener.listenInsertEvent(event);
-                } else if (BinlogEventTypeEnum.isDelteEvent(event.getEventType())) {
-                    listener.listenDeleteEvent(event);
+        if (this.environment.getParallelRowDecodeThreads() > 0 && this.rowDecoder == null) {
+            this.rowDecoder = new OrderedRowDecoder(this.environment.getParallelRowDecodeThreads(), this.environment.getParallelRowDecodeMaxPending(),
+                    this::handle, "binlog-row-decoder-" + this.environment.getHost() + ":" + this.environment.getPort());
+        }
+        try {
+            if (this.environment.isPipelineEnabled()) {
+                if (this.pipeline == null) {
+                    this.pipeline = new EventPipeline(this.environment.getPipelineBufferSize(), this.environment.getPipelineWaitStrategy(),
+                            "binlog-decoder-" + this.environment.getHost() + ":" + this.environment.getPort());
+                }
+                this.pipeline.run(this::readEventPacket, this::decodeAndHandle, () -> this.stopping, this::closeChannelQuietly);
+                return;
+            }
+            while (!this.stopping) {
+                this.decodeAndHandle(this.readEventPacket());
+            }
+        } finally {
+            if (this.rowDecoder != null) {
+                // 解析的异常优先于读取的异常抛出
+                this.rowDecoder.flush();
+            }
+        }
+    }
+
+    private ByteArrayIndexInputStream readEventPacket() throws IOException {
+        return this.checkBinlogPacket(this.channel.readBinlogPacket());
+    }
+
+    private void decodeAndHandle(ByteArrayIndexInputStream indexInputStream) throws IOException {
+        Event event = Event.V4Deserialization(this.environment, indexInputStream);
+        if (event != null && event.getBody() instanceof TransactionPayloadEvent) {
+            // 压缩的事务，把里面的事件逐个分发，和没开压缩时收到的一样
+            for (Event innerEvent : ((TransactionPayloadEvent) event.getBody()).getEvents()) {
+                this.submit(innerEvent);
+            }
+        }
+        this.submit(event);
+    }
+
+    private void submit(Event event) throws IOException {
+        if (event == null) {
+            return;
+        }
+        if (this.rowDecoder != null) {
+            this.rowDecoder.submit(event);
+        } else {
+            this.handle(event);
+        }
+    }
+
+    private void handle(Event event) {
+        if (event.getBody() instanceof TransactionPayloadEvent) {
+            // 一个TRANSACTION_PAYLOAD_EVENT就是一个完整的事务，里面事件的logPos都是0，本身不分发
+            this.commitPosition(event);
+            return;
+        }
+        this.dispatch(event);
+        this.trackTransactionBoundary(event);
+    }
+
+    /**
+     * 事务分发完之后才记录它的GTID和结束位点，断开重连时不会漏掉没处理完的事务
+     */
+    private void trackTransactionBoundary(Event event) {
+        BinlogEventTypeEnum eventType = event.getEventType();
+        if (eventType == BinlogEventTypeEnum.ROTATE_EVENT) {
+            RotateEvent rotateEvent = (RotateEvent) event.getBody();
+            this.binlogFileName = rotateEvent.getNewLogIdent();
+            this.binlogPosition = rotateEvent.getPosition();
+        } else if (eventType == BinlogEventTypeEnum.GTID_LOG_EVENT) {
+            // GTID_LOG_EVENT总是在新事务的开头
+            this.pendingGtid = (GtidEvent) event.getBody();
+            this.inTransaction = false;
+        } else if (eventType == BinlogEventTypeEnum.QUERY_EVENT && "BEGIN".equalsIgnoreCase(((QueryEvent) event.getBody()).getMQuery().trim())) {
+            this.inTransaction = true;
+        } else if (this.isTransactionEnd(event)) {
+            if (this.gtidSet != null && this.pendingGtid != null) {
+                synchronized (this.gtidSet) {
+                    this.gtidSet.add(this.pendingGtid.getSID(), this.pendingGtid.getGNO());
                 }
             }
+            this.pendingGtid = null;
+            this.inTransaction = false;
+            this.commitPosition(event);
+        }
+    }
+
+    /**
+     * BEGIN之后只有XID_EVENT或者COMMIT、ROLLBACK语句才结束事务，事务中间的SAVEPOINT、ROLLBACK TO也是QUERY_EVENT；
+     * 没有BEGIN时QUERY_EVENT自己就是一个事务（DDL）
+     */
+    private boolean isTransactionEnd(Event event) {
+        BinlogEventTypeEnum eventType = event.getEventType();
+        if (eventType == BinlogEventTypeEnum.XID_EVENT) {
+            return true;
+        } else if (eventType != BinlogEventTypeEnum.QUERY_EVENT) {
+            return false;
+        } else if (!this.inTransaction) {
+            return true;
+        }
+        String query = ((QueryEvent) event.getBody()).getMQuery().trim();
+        return "COMMIT".equalsIgnoreCase(query) || "ROLLBACK".equalsIgnoreCase(query);
+    }
+
+    private void commitPosition(Event event) {
+        long logPos = event.getHeader().getLogPos() & 0xFFFFFFFFL;
+        if (logPos > 0) {
+            this.binlogPosition = logPos;
+        }
+    }
+
+    private void dispatch(Event event) {
+        if (event == null || !this.environment.isSubscribed(event.getEventType())) {
+            return;
+        }
+        for (EventListener listener : this.eventListenerList) {
+            listener.listenAll(event);
+            if (BinlogEventTypeEnum.isUpdateEvent(event.getEventType())) {
+                listener.listenUpdateEvent(event);
+            } else if (BinlogEventTypeEnum.isInsertEvent(event.getEventType())) {
+                listener.listenInsertEvent(event);
+            } else if (BinlogEventTypeEnum.isDelteEvent(event.getEventType())) {
+                listener.listenDeleteEvent(event);
+            }
         }
     }
 
@@ -270,9 +774,17 @@ public class MysqlBinLogConnector {
         this.channel.checkPacket(bytes, this.environment.getClientCapabilities());
     }
 
-    private ByteArrayIndexInputStream checkBinlogPacket(byte[] bytes) throws IOException {
-        this.checkPacket(bytes);
-        ByteArrayIndexInputStream indexInputStream = new ByteArrayIndexInputStream(bytes);
+    /**
+     * binlog事件报文以ok byte（0x00）开头，只有错误包和eof包才需要拿出完整报文做检查
+     */
+    private ByteArrayIndexInputStream checkBinlogPacket(ByteArrayIndexInputStream indexInputStream) throws IOException {
+        indexInputStream.mark(0);
+        byte firstByte = (byte) indexInputStream.read();
+        indexInputStream.reset();
+        if (PacketUtil.isErrorPacket(firstByte) || PacketUtil.isEOFPacket(firstByte)) {
+            this.checkPacket(indexInputStream.readBytes(indexInputStream.available()));
+            indexInputStream.reset();
+        }
         return indexInputStream;
     }
 
@@ -280,6 +792,40 @@ public class MysqlBinLogConnector {
         eventListenerList.add(eventListener);
     }
 
+    /**
+     * 订阅事件类型，只有订阅了的事件才会解析事件体并分发给监听者，其余事件只解析19个字节的common header就跳过<br>
+     * 不调用或者传空表示订阅全部事件，需要在listen之前调用
+     *
+     * @param eventTypes 事件类型
+     */
+    public void subscribe(BinlogEventTypeEnum... eventTypes) {
+        this.environment.subscribe(eventTypes.length == 0 ? null : EnumSet.copyOf(Arrays.asList(eventTypes)));
+    }
+
+    /**
+     * 注册或覆盖某个事件类型的事件体解析器，需要在listen之前调用
+     *
+     * @param eventType 事件类型
+     * @param factory   解析器，例如 RotateEvent::new
+     */
+    public void registerEventFactory(BinlogEventTypeEnum eventType, BinlogEventFactory factory) {
+        this.environment.getEventFactoryRegistry().register(eventType, factory);
+    }
+
+    /**
+     * @return 事件校验和的统计，校验方式见{@link ClientProperties#getChecksumVerifyMode()}
+     */
+    public ChecksumStatistics getChecksumStatistics() {
+        return this.environment.getChecksumStatistics();
+    }
+
+    /**
+     * @return TableMapEvent的缓存，可以查看命中、淘汰、表结构变化的次数
+     */
+    public TableMapCache getTableMapCache() {
+        return this.environment.getTableMapCache();
+    }
+
     public TextResultSetPacket getTableColumns(String dbName, String tableName) throws IOException {
         ComQueryCommand command = new ComQueryCommand(StrUtil.indexedFormat(Sql.show_columns_from_db_table, dbName, tableName));
         channel.sendCommand(command);
@@ -2,6 +2,7 @@ package com.cl.mysql.binlog.network;
 
 import com.cl.mysql.binlog.constant.CapabilitiesFlagsEnum;
 import com.cl.mysql.binlog.constant.ResultSetMetadataEnum;
+import com.cl.mysql.binlog.constant.TransportTypeEnum;
 import com.cl.mysql.binlog.exception.ServerException;
 import com.cl.mysql.binlog.network.command.Command;
 import com.cl.mysql.binlog.network.protocol.packet.*;
@@ -13,8 +14,11 @@ import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.net.ssl.*;
+import java.io.EOFException;
 import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.nio.channels.SocketChannel;
 import java.security.KeyManagementException;
 import java.security.NoSuchAlgorithmException;
 import java.security.cert.CertificateException;
@@ -31,12 +35,22 @@ import java.util.List;
 @Slf4j
 public class PacketChannel {
 
+    /**
+     * 单个报文体的最大长度
+     */
+    private static final int MAX_PACKET_LENGTH = 0xFFFFFF;
+
     private Socket socket;
 
     private ByteArrayIndexInputStream inputStream;
 
     private ByteArrayIndexOutputStream outputStream;
 
+    /**
+     * 传输方式为{@link TransportTypeEnum#NIO}时使用，转为ssl之后置空
+     */
+    private SocketChannelPacketReader channelReader;
+
     /**
      * @描述 包序号 <br>
      * mysql包序号就是一个完整流程的发包序号，就是由该流程的发出的第一包是从0x00开始的，以后不管回复的包还是分包的包都会在上面加1，直到包序号达到0xff，再从0x001开始计数。
@@ -55,8 +69,22 @@ public class PacketChannel {
     private boolean sslSocket;
 
     public PacketChannel(String host, int port) throws IOException {
-        this.socket = new Socket(host, port);
-        this.inputStream = new ByteArrayIndexInputStream(this.socket.getInputStream());
+        this(host, port, TransportTypeEnum.SOCKET, 0);
+    }
+
+    /**
+     * @param transportType  传输方式
+     * @param readBufferSize 传输方式为{@link TransportTypeEnum#NIO}时，读缓冲区的大小
+     */
+    public PacketChannel(String host, int port, TransportTypeEnum transportType, int readBufferSize) throws IOException {
+        if (transportType == TransportTypeEnum.NIO) {
+            SocketChannel socketChannel = SocketChannel.open(new InetSocketAddress(host, port));
+            this.socket = socketChannel.socket();
+            this.channelReader = new SocketChannelPacketReader(socketChannel, readBufferSize);
+        } else {
+            this.socket = new Socket(host, port);
+            this.inputStream = new ByteArrayIndexInputStream(this.socket.getInputStream());
+        }
         this.outputStream = new ByteArrayIndexOutputStream(this.socket.getOutputStream());
     }
 
@@ -66,25 +94,85 @@ public class PacketChannel {
      * <p> mysql 报文顺序 | Data Length（3 bytes）| Package Sequence（1 byte）| Data Content |
      */
     public byte[] readDataContent() throws IOException {
-        int length = this.inputStream.readInt(3);
-        int sequence = this.inputStream.read();
+        int length = this.readPacketInt(3);
+        int sequence = this.readPacketInt(1);
         if (sequence != this.sequence) {
             throw new RuntimeException("包序号不一致 当前报文包序号为：" + sequence + "，当前存储序号为：" + this.sequence);
         } else {
             this.sequence++;
         }
-        return this.inputStream.readBytes(length);
+        return this.readPacketBytes(length);
     }
 
     public byte[] readBinlogStream() throws IOException {
-        int length = this.inputStream.readInt(3);
+        byte[] payload = this.readBinlogPayload();
+        if (payload.length < MAX_PACKET_LENGTH) {
+            return payload;
+        }
+        ByteArrayIndexInputStream in = this.readBinlogContinuation(payload);
+        return in.readBytes(in.available());
+    }
+
+    /**
+     * 读取一个binlog事件报文
+     * <p>
+     * 报文体长度达到0xFFFFFF（16M - 1）时，mysql会把剩下的内容放在后续的报文中继续发送，直到某个报文的长度小于0xFFFFFF为止
+     * （<a href="https://dev.mysql.com/doc/dev/mysql-server/latest/page_protocol_basic_packets.html#sect_protocol_basic_packets_sending_mt_16mb">文档</a>）。
+     * 这种情况下每个报文体作为一个分片，由输入流按顺序跨分片读取，不再拼接成一个大数组。
+     *
+     * @return 事件报文的输入流
+     */
+    public ByteArrayIndexInputStream readBinlogPacket() throws IOException {
+        byte[] payload = this.readBinlogPayload();
+        if (payload.length < MAX_PACKET_LENGTH) {
+            return new ByteArrayIndexInputStream(payload);
+        }
+        return this.readBinlogContinuation(payload);
+    }
+
+    private ByteArrayIndexInputStream readBinlogContinuation(byte[] first) throws IOException {
+        List<byte[]> fragments = new ArrayList<>();
+        fragments.add(first);
+        byte[] payload;
+        do {
+            payload = this.readBinlogPayload();
+            if (payload.length > 0) {
+                fragments.add(payload);
+            }
+        } while (payload.length == MAX_PACKET_LENGTH);
+        return new ByteArrayIndexInputStream(fragments);
+    }
+
+    private byte[] readBinlogPayload() throws IOException {
+        int length = this.readPacketInt(3);
         if (length == -1) {
-            throw new RuntimeException("mysql服务器已断开连接");
+            throw new EOFException("mysql服务器已断开连接");
+        }
+        int sequence = this.readPacketInt(1);
+        return this.readPacketBytes(length);
+    }
+
+    private int readPacketInt(int length) throws IOException {
+        if (this.channelReader != null) {
+            return this.channelReader.readInt(length);
+        }
+        return this.inputStream.readInt(length);
+    }
+
+    private byte[] readPacketBytes(int length) throws IOException {
+        if (this.channelReader != null) {
+            return this.channelReader.readBytes(length);
         }
-        int sequence = this.inputStream.read();
         return this.inputStream.readBytes(length);
     }
 
+    /**
+     * 关闭连接，NIO方式下关闭socket也会关闭对应的SocketChannel
+     */
+    public void close() throws IOException {
+        this.socket.close();
+    }
+
     /**
      * 读取结果包<a href="https://dev.mysql.com/doc/dev/mysql-server/latest/page_protocol_com_query_response_text_resultset.html">相关文档</a><br>
      * <li>第一个包：列长度包 只有一个列的长度</li>
@@ -197,6 +285,13 @@ public class PacketChannel {
         );
         SSLSocketFactory socketFactory = sslContext.getSocketFactory();
         SSLSocket sslSocket = (SSLSocket) socketFactory.createSocket(this.socket, this.socket.getInetAddress().getHostName(), this.socket.getPort(), true);
+        if (this.channelReader != null) {
+            if (this.channelReader.buffered() > 0) {
+                throw new IllegalStateException("转为ssl时读缓冲区内还有未处理的报文");
+            }
+            // ssl由SSLSocket负责读写 之后不再走channel的缓冲区
+            this.channelReader = null;
+        }
         sslSocket.startHandshake();
         this.socket = sslSocket;
         this.inputStream = new ByteArrayIndexInputStream(sslSocket.getInputStream());
@@ -0,0 +1,108 @@
+package com.cl.mysql.binlog.network;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.SocketChannel;
+
+/**
+ * @description: 基于SocketChannel的报文读取器
+ * <p>
+ * 每次从socket读取时都尽可能多地填满一个可复用的直接内存缓冲区，报文头直接在缓冲区内读取，
+ * 只有缓冲区内的数据不够一个完整字段时才会再次发起系统调用，多个小报文共用一次系统调用。
+ * <p>
+ * 报文体会整段拷贝成独立的byte[]（一次批量拷贝，不是逐字节），不直接返回缓冲区上的视图：下一次读取就会覆盖缓冲区，
+ * 而解析出来的事件要活得更久——延迟解码的行（{@link com.cl.mysql.binlog.entity.Row}）、TableMapEvent缓存、
+ * 读取/解析分线程的流水线以及并行解析的行数据都直接引用报文内存。这里省掉的是系统调用次数，不是每个报文的分配。
+ * @author: liuzijian
+ * @time: 2023-09-21 10:30
+ */
+public class SocketChannelPacketReader {
+
+    private final SocketChannel channel;
+
+    /**
+     * 读缓冲区，平时处于读模式（flip之后），position为下一个待读取的字节
+     */
+    private final ByteBuffer buffer;
+
+    public SocketChannelPacketReader(SocketChannel channel, int bufferSize) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(bufferSize).order(ByteOrder.LITTLE_ENDIAN);
+        this.buffer.flip();
+    }
+
+    /**
+     * 以小端模式读取int，与{@link com.cl.mysql.binlog.stream.ByteArrayIndexInputStream#readInt(int)}保持一致：连接已断开时返回-1
+     *
+     * @param length 字节数
+     * @return int数字
+     */
+    public int readInt(int length) throws IOException {
+        if (!this.ensure(length)) {
+            return -1;
+        }
+        int result = 0;
+        for (int i = 0; i < length; i++) {
+            result |= (this.buffer.get() & 0xFF) << (i << 3);
+        }
+        return result;
+    }
+
+    /**
+     * 读取定长数组，超过缓冲区大小的报文体会分多次从缓冲区拷出<br>
+     * 有意拷贝而不是返回缓冲区视图，原因见类注释：返回的数组在下一次读取之后仍然有效
+     *
+     * @param length 读取长度
+     * @return bytes
+     */
+    public byte[] readBytes(int length) throws IOException {
+        byte[] b = new byte[length];
+        int offset = 0;
+        while (offset < length) {
+            if (!this.buffer.hasRemaining() && !this.fill()) {
+                throw new EOFException();
+            }
+            int n = Math.min(this.buffer.remaining(), length - offset);
+            this.buffer.get(b, offset, n);
+            offset += n;
+        }
+        return b;
+    }
+
+    /**
+     * @return 缓冲区内还未被读取的字节数
+     */
+    public int buffered() {
+        return this.buffer.remaining();
+    }
+
+    /**
+     * 保证缓冲区内至少有length个字节可读
+     *
+     * @return false：连接已断开
+     */
+    private boolean ensure(int length) throws IOException {
+        while (this.buffer.remaining() < length) {
+            if (!this.fill()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 把未读完的数据移到缓冲区头部，再从socket读取一次
+     *
+     * @return false：连接已断开
+     */
+    private boolean fill() throws IOException {
+        this.buffer.compact();
+        try {
+            return this.channel.read(this.buffer) != -1;
+        } finally {
+            this.buffer.flip();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.cl.mysql.binlog.network;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * @description: 库表过滤器，用 库名.表名 匹配{@link ClientProperties#getIncludeTables()}、{@link ClientProperties#getExcludeTables()}
+ * <p>
+ * 每个TableMapEvent只匹配一次，结果记在{@link com.cl.mysql.binlog.binlogEvent.TableMapEvent#isAccepted()}上，
+ * 后面的行事件按tableId直接取结果，被排除的表的行事件不会解析
+ * @author: liuzijian
+ * @time: 2023-09-22 10:05
+ */
+public class TableFilter {
+
+    private final List<Pattern> includes;
+
+    private final List<Pattern> excludes;
+
+    private TableFilter(List<Pattern> includes, List<Pattern> excludes) {
+        this.includes = includes;
+        this.excludes = excludes;
+    }
+
+    /**
+     * @return 两个列表都为空时返回null，表示不过滤
+     */
+    public static TableFilter compile(List<String> includeTables, List<String> excludeTables) {
+        List<Pattern> includes = compile(includeTables);
+        List<Pattern> excludes = compile(excludeTables);
+        if (includes.isEmpty() && excludes.isEmpty()) {
+            return null;
+        }
+        return new TableFilter(includes, excludes);
+    }
+
+    private static List<Pattern> compile(List<String> regexList) {
+        if (regexList == null || regexList.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Pattern> result = new ArrayList<>(regexList.size());
+        for (String regex : regexList) {
+            result.add(Pattern.compile(regex));
+        }
+        return result;
+    }
+
+    /**
+     * @param dataBaseName 库名
+     * @param tableName    表名
+     * @return 是否需要解析这张表的行事件
+     */
+    public boolean accept(String dataBaseName, String tableName) {
+        String fullName = dataBaseName + "." + tableName;
+        for (Pattern exclude : this.excludes) {
+            if (exclude.matcher(fullName).matches()) {
+                return false;
+            }
+        }
+        if (this.includes.isEmpty()) {
+            return true;
+        }
+        for (Pattern include : this.includes) {
+            if (include.matcher(fullName).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
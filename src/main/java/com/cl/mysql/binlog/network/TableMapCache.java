@@ -0,0 +1,193 @@
+package com.cl.mysql.binlog.network;
+
+import com.cl.mysql.binlog.binlogEvent.TableMapEvent;
+import com.cl.mysql.binlog.stream.ByteArrayIndexInputStream;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * @description: TableMapEvent的缓存，key为tableId，按最近使用淘汰，最多保存{@link ClientProperties#getTableMapCacheSize()}张表
+ * <p>
+ * mysql每次打开表（包括临时表、分区交换后的表）都可能分配新的tableId，tableId只增不减，不限制大小的话缓存会一直变大。
+ * 行事件总是紧跟在自己的TableMapEvent后面，只要缓存大小不小于一个事务里涉及的表数，淘汰就不会影响解析
+ * </p>
+ * 每个缓存项记录表结构指纹（TableMapEvent除tableId、flags外的内容的CRC32）和版本号，
+ * 同一个tableId再次出现并且指纹变了，版本号加一，计入{@link #getSchemaChanges()}；
+ * 同时保存表定义的原始字节，事件体完全一致时复用已解析的对象，见{@link #reuse(long, ByteArrayIndexInputStream, int)}
+ * @author: liuzijian
+ * @time: 2023-09-26 14:10
+ */
+public class TableMapCache {
+
+    public static final int DEFAULT_MAX_SIZE = 4096;
+
+    private final int maxSize;
+
+    private final LinkedHashMap<Long, Entry> entries;
+
+    private long hits;
+
+    private long misses;
+
+    private long evictions;
+
+    private long schemaChanges;
+
+    private long reuses;
+
+    public TableMapCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be greater than 0");
+        }
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<Long, TableMapCache.Entry>(Math.min(maxSize, 256), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, TableMapCache.Entry> eldest) {
+                if (size() > TableMapCache.this.maxSize) {
+                    TableMapCache.this.evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Getter
+    public static class Entry {
+
+        private final TableMapEvent tableMapEvent;
+
+        /**
+         * 表结构指纹，见{@link TableMapEvent#getSchemaFingerprint()}
+         */
+        private final long fingerprint;
+
+        /**
+         * 表结构版本号，从1开始，同一个tableId的指纹变化一次加一
+         */
+        private final long version;
+
+        /**
+         * 事件体除tableId、flags外的原始字节
+         */
+        @Getter(AccessLevel.NONE)
+        private final byte[] definition;
+
+        private Entry(TableMapEvent tableMapEvent, byte[] definition, long version) {
+            this.tableMapEvent = tableMapEvent;
+            this.definition = definition;
+            this.fingerprint = tableMapEvent.getSchemaFingerprint();
+            this.version = version;
+        }
+    }
+
+    /**
+     * 放入缓存，同一个tableId已存在时覆盖
+     *
+     * @param definition 事件体除tableId、flags外的原始字节
+     * @return 新的缓存项
+     */
+    public synchronized Entry put(TableMapEvent tableMapEvent, byte[] definition) {
+        Entry previous = this.entries.get(tableMapEvent.getTableId());
+        long version = 1;
+        if (previous != null) {
+            version = previous.version;
+            if (previous.fingerprint != tableMapEvent.getSchemaFingerprint()) {
+                version++;
+                this.schemaChanges++;
+            }
+        }
+        Entry entry = new Entry(tableMapEvent, definition, version);
+        this.entries.put(tableMapEvent.getTableId(), entry);
+        return entry;
+    }
+
+    /**
+     * 输入流接下来的length个字节与同一个tableId缓存的表定义逐字节一致时，返回缓存的对象，读取位置不变
+     *
+     * @param in     位于tableId、flags之后的事件体
+     * @param length 表定义的长度
+     * @return 不一致或没有缓存时返回null
+     */
+    public synchronized TableMapEvent reuse(long tableId, ByteArrayIndexInputStream in, int length) throws IOException {
+        Entry entry = this.entries.get(tableId);
+        if (entry == null || entry.definition.length != length || !in.regionMatches(entry.definition)) {
+            return null;
+        }
+        this.reuses++;
+        return entry.tableMapEvent;
+    }
+
+    /**
+     * 行事件取表结构，计入命中率并刷新最近使用时间
+     *
+     * @return 没有缓存时返回null
+     */
+    public synchronized TableMapEvent get(long tableId) {
+        Entry entry = this.entries.get(tableId);
+        if (entry == null) {
+            this.misses++;
+            return null;
+        }
+        this.hits++;
+        return entry.tableMapEvent;
+    }
+
+    /**
+     * 取缓存项，不计入命中统计，用于行事件解析前的库表过滤等辅助判断
+     *
+     * @return 没有缓存时返回null
+     */
+    public synchronized Entry getEntry(long tableId) {
+        return this.entries.get(tableId);
+    }
+
+    public synchronized void clear() {
+        this.entries.clear();
+    }
+
+    public synchronized int size() {
+        return this.entries.size();
+    }
+
+    public int getMaxSize() {
+        return this.maxSize;
+    }
+
+    public synchronized long getHits() {
+        return this.hits;
+    }
+
+    public synchronized long getMisses() {
+        return this.misses;
+    }
+
+    public synchronized long getEvictions() {
+        return this.evictions;
+    }
+
+    public synchronized long getSchemaChanges() {
+        return this.schemaChanges;
+    }
+
+    /**
+     * @return 事件体与缓存一致、直接复用已解析对象的次数
+     */
+    public synchronized long getReuses() {
+        return this.reuses;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "TableMapCache{size=" + this.entries.size() + "/" + this.maxSize
+                + ", hits=" + this.hits
+                + ", misses=" + this.misses
+                + ", evictions=" + this.evictions
+                + ", schemaChanges=" + this.schemaChanges
+                + ", reuses=" + this.reuses + "}";
+    }
+}
@@ -1,28 +1,41 @@
 package com.cl.mysql.binlog.network.command;
 
 import com.cl.mysql.binlog.constant.CommandTypeEnum;
+import com.cl.mysql.binlog.entity.GtidSet;
 import com.cl.mysql.binlog.stream.ByteArrayIndexOutputStream;
 
 import java.io.IOException;
 
 /**
+ * <a href="https://dev.mysql.com/doc/dev/mysql-server/latest/page_protocol_com_binlog_dump_gtid.html">文档</a>
  * <a href="https://github.com/mysql/mysql-server/blob/8.0/sql/rpl_source.cc">源码第984行~1046行</a>
  *
- * @description: TODO 未完成 主要是gtidSet的数据结构没搞清楚
+ * @description: 按GTID集合请求binlog的dump线程，服务端会跳过集合里已经执行过的事务
  * @author: liuzijian
  * @time: 2023-09-20 14:09
  */
 public class ComBinlogDumpGtidCommand implements Command {
 
-    private final Integer serverId;
+    /**
+     * 按GTID集合定位，命令末尾带上GTID集合
+     */
+    private static final int BINLOG_THROUGH_GTID = 0x04;
+
+    private final int serverId;
 
     private final String binlogFileName;
 
-    private final Long binlogPos;
+    private final long binlogPos;
 
-    private Object gtidSet;
+    private final GtidSet gtidSet;
 
-    public ComBinlogDumpGtidCommand(Integer serverId, String binlogFileName, long binlogPos, Object gtidSet) {
+    /**
+     * @param serverId       该服务器的服务器id，与{@link ComBinglogDumpCommand}一样用握手协议返回的threadId
+     * @param binlogFileName 一般为空字符串，由服务端按GTID集合定位
+     * @param binlogPos      一般为4（跳过binlog文件开头的魔数）
+     * @param gtidSet        已经执行过的GTID集合
+     */
+    public ComBinlogDumpGtidCommand(int serverId, String binlogFileName, long binlogPos, GtidSet gtidSet) {
         this.serverId = serverId;
         this.binlogFileName = binlogFileName;
         this.binlogPos = binlogPos;
@@ -33,11 +46,15 @@ public class ComBinlogDumpGtidCommand implements Command {
     public byte[] toByteArray() throws IOException {
         ByteArrayIndexOutputStream out = new ByteArrayIndexOutputStream();
         out.writeInt(CommandTypeEnum.COM_BINLOG_DUMP_GTID.ordinal(), 1);
-        out.writeInt(0, 2);// flags always 0
+        out.writeInt(BINLOG_THROUGH_GTID, 2);
         out.writeInt(this.serverId, 4);
-        out.writeInt(this.binlogFileName.length(), 4);
-        out.write(this.binlogFileName.getBytes());
+        byte[] fileName = this.binlogFileName.getBytes();
+        out.writeInt(fileName.length, 4);
+        out.write(fileName);
         out.writeLong(this.binlogPos, 8);
-        return new byte[0];
+        byte[] data = this.gtidSet.encode();
+        out.writeInt(data.length, 4);
+        out.write(data);
+        return out.toByteArray();
     }
 }
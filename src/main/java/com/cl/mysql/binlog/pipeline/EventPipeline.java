@@ -0,0 +1,166 @@
+package com.cl.mysql.binlog.pipeline;
+
+import com.cl.mysql.binlog.constant.WaitStrategyEnum;
+import com.cl.mysql.binlog.stream.ByteArrayIndexInputStream;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.function.BooleanSupplier;
+
+/**
+ * @description: 读取和解析分开的事件流水线
+ * <p>
+ * 调用{@link #run}的线程只负责从socket读取报文，放进预先分配好的{@link RingBuffer}；解析线程按顺序取出报文，解析事件并分发给监听者。
+ * 监听者处理得慢时，读取线程可以继续读满缓冲区，不会马上卡住tcp读取和服务端的dump线程；缓冲区满了才等待<br>
+ * 只有一个解析线程，事件的顺序和binlog里一致，解析用到的状态（TableMapEvent缓存、当前事务的GTID等）都只在解析线程里访问
+ * </p>
+ * @author: liuzijian
+ * @time: 2023-09-28 11:00
+ */
+@Slf4j
+public class EventPipeline {
+
+    @FunctionalInterface
+    public interface PacketReader {
+
+        /**
+         * 读取下一个事件报文，会阻塞
+         */
+        ByteArrayIndexInputStream read() throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface PacketHandler {
+
+        /**
+         * 解析事件报文并分发，在解析线程里调用
+         */
+        void handle(ByteArrayIndexInputStream packet) throws IOException;
+    }
+
+    private static class PacketSlot {
+
+        private ByteArrayIndexInputStream packet;
+    }
+
+    private final RingBuffer<PacketSlot> ringBuffer;
+
+    private final String decoderThreadName;
+
+    /**
+     * 解析线程的异常，读取线程结束时抛出
+     */
+    private volatile Throwable decodeFailure;
+
+    /**
+     * @param bufferSize   缓冲区能放下的报文数，必须是2的幂
+     * @param waitStrategy 两个线程互相等待的方式
+     */
+    public EventPipeline(int bufferSize, WaitStrategyEnum waitStrategy, String decoderThreadName) {
+        this.ringBuffer = new RingBuffer<>(bufferSize, PacketSlot::new, WaitStrategy.create(waitStrategy));
+        this.decoderThreadName = decoderThreadName;
+    }
+
+    /**
+     * 在当前线程读取报文，同时启动解析线程，直到stopping成立、读取出现异常或者解析出现异常<br>
+     * 返回或抛出异常前会等解析线程处理完已经读到的报文并退出，所以返回后可以安全地重连、清理解析状态
+     *
+     * @param reader          读取报文
+     * @param handler         解析并分发报文
+     * @param stopping        每次读取报文前检查是否需要停止
+     * @param onDecodeFailure 解析出现异常时在解析线程里调用，用来关闭连接让阻塞的读取立即返回
+     * @throws IOException 解析线程的异常优先抛出，其次是读取的异常
+     */
+    public void run(PacketReader reader, PacketHandler handler, BooleanSupplier stopping, Runnable onDecodeFailure) throws IOException {
+        this.ringBuffer.reset();
+        this.decodeFailure = null;
+        Thread decoder = new Thread(() -> this.decode(handler, onDecodeFailure), this.decoderThreadName);
+        decoder.start();
+        Throwable readFailure = null;
+        try {
+            while (!stopping.getAsBoolean()) {
+                ByteArrayIndexInputStream packet = reader.read();
+                long sequence = this.ringBuffer.next();
+                if (sequence < 0) {
+                    // 解析线程已经出错退出
+                    break;
+                }
+                this.ringBuffer.get(sequence).packet = packet;
+                this.ringBuffer.publish(sequence);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            readFailure = new InterruptedIOException("等待解析线程时被中断");
+        } catch (IOException | RuntimeException | Error e) {
+            readFailure = e;
+        } finally {
+            this.ringBuffer.halt();
+            joinUninterruptibly(decoder);
+            // 解析线程出错退出时没处理的报文不会再用，释放引用，重连后缓冲区里不会一直留着大事件
+            for (long sequence = this.ringBuffer.getConsumed() + 1; sequence <= this.ringBuffer.getCursor(); sequence++) {
+                this.ringBuffer.get(sequence).packet = null;
+            }
+        }
+        Throwable failure = this.decodeFailure != null ? this.decodeFailure : readFailure;
+        if (failure instanceof IOException) {
+            throw (IOException) failure;
+        } else if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        } else if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+    }
+
+    private void decode(PacketHandler handler, Runnable onDecodeFailure) {
+        long next = this.ringBuffer.getConsumed() + 1;
+        try {
+            while (true) {
+                long available = this.ringBuffer.waitFor(next);
+                if (available < next) {
+                    // 已经停止并且处理完了
+                    return;
+                }
+                for (; next <= available; next++) {
+                    PacketSlot slot = this.ringBuffer.get(next);
+                    ByteArrayIndexInputStream packet = slot.packet;
+                    // 尽早释放报文，不让缓冲区一直引用大事件
+                    slot.packet = null;
+                    handler.handle(packet);
+                    this.ringBuffer.release(next);
+                }
+            }
+        } catch (Throwable e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+                e = new InterruptedIOException("解析线程被中断");
+            }
+            this.decodeFailure = e;
+            this.ringBuffer.halt();
+            try {
+                onDecodeFailure.run();
+            } catch (RuntimeException closeFailure) {
+                log.debug("解析异常后关闭连接失败", closeFailure);
+            }
+        }
+    }
+
+    private static void joinUninterruptibly(Thread thread) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                thread.join();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getBufferSize() {
+        return this.ringBuffer.getBufferSize();
+    }
+}
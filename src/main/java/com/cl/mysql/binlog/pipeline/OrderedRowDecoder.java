@@ -0,0 +1,191 @@
+package com.cl.mysql.binlog.pipeline;
+
+import com.cl.mysql.binlog.binlogEvent.AbstractRowEvent;
+import com.cl.mysql.binlog.binlogEvent.Event;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @description: 行事件的并行解析，解析完按提交顺序分发
+ * <p>
+ * 事件按binlog顺序{@link #submit(Event)}，行数据还没解析的行事件（见{@link AbstractRowEvent#decodeRows()}）交给线程池，其余事件直接视为完成。
+ * 提交的事件排成一个队列，队头完成了才分发，所以监听者看到的顺序和binlog一致；分发由提交线程或者刚解析完的线程进行，
+ * 同一时刻只有一个线程在分发，不同事件的分发之间有happens-before关系<br>
+ * 行事件的表结构在提交前就按顺序取好了，后面同一个tableId的TableMapEvent变化不影响已经提交的事件
+ * </p>
+ * @author: liuzijian
+ * @time: 2023-09-28 15:00
+ */
+public class OrderedRowDecoder {
+
+    @FunctionalInterface
+    public interface EventHandler {
+
+        /**
+         * 按顺序处理解析完的事件
+         */
+        void handle(Event event) throws IOException;
+    }
+
+    private static class Slot {
+
+        private final Event event;
+
+        /**
+         * 在{@link #done}之前写入，读到done为true之后读取
+         */
+        private Throwable failure;
+
+        private volatile boolean done;
+
+        private Slot(Event event) {
+            this.event = event;
+        }
+    }
+
+    private final ExecutorService executor;
+
+    private final EventHandler handler;
+
+    /**
+     * 等待解析或分发的事件，只有提交线程入队，只有正在分发的线程出队
+     */
+    private final ConcurrentLinkedQueue<Slot> pending = new ConcurrentLinkedQueue<>();
+
+    private final Semaphore permits;
+
+    private final int maxPending;
+
+    /**
+     * 分发的进入次数，从0变成1的线程负责分发，分发期间其他线程的进入只增加次数，由分发线程再检查一轮
+     */
+    private final AtomicInteger drainCount = new AtomicInteger();
+
+    /**
+     * 第一个解析或分发的异常，之后的事件不再分发
+     */
+    private volatile Throwable failure;
+
+    /**
+     * @param threads    解析线程数
+     * @param maxPending 最多有多少个事件在等待解析或分发，超过后{@link #submit(Event)}等待
+     * @param handler    分发事件
+     */
+    public OrderedRowDecoder(int threads, int maxPending, EventHandler handler, String threadNamePrefix) {
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, threadNamePrefix + "-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.handler = handler;
+        this.maxPending = maxPending;
+        this.permits = new Semaphore(maxPending);
+    }
+
+    /**
+     * 按binlog顺序提交事件，等待中的事件太多时阻塞
+     *
+     * @throws IOException 之前的事件解析或分发出现了异常
+     */
+    public void submit(Event event) throws IOException {
+        this.throwIfFailed();
+        try {
+            this.permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("等待行事件解析时被中断");
+        }
+        Slot slot = new Slot(event);
+        this.pending.offer(slot);
+        if (event.getBody() instanceof AbstractRowEvent && !((AbstractRowEvent) event.getBody()).isRowsDecoded()) {
+            try {
+                this.executor.execute(() -> this.decode(slot));
+            } catch (RejectedExecutionException e) {
+                slot.failure = e;
+                slot.done = true;
+            }
+        } else {
+            slot.done = true;
+        }
+        this.drain();
+        this.throwIfFailed();
+    }
+
+    private void decode(Slot slot) {
+        try {
+            ((AbstractRowEvent) slot.event.getBody()).decodeRows();
+        } catch (Throwable e) {
+            slot.failure = e;
+        }
+        slot.done = true;
+        this.drain();
+    }
+
+    private void drain() {
+        if (this.drainCount.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            Slot head;
+            while ((head = this.pending.peek()) != null && head.done) {
+                this.pending.poll();
+                try {
+                    if (this.failure == null) {
+                        if (head.failure != null) {
+                            this.failure = head.failure;
+                        } else {
+                            this.handler.handle(head.event);
+                        }
+                    }
+                } catch (Throwable e) {
+                    this.failure = e;
+                } finally {
+                    this.permits.release();
+                }
+            }
+            missed = this.drainCount.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    /**
+     * 等待已经提交的事件全部解析并分发完，重连、停止之前调用
+     *
+     * @throws IOException 解析或分发出现了异常，异常只抛出一次
+     */
+    public void flush() throws IOException {
+        this.permits.acquireUninterruptibly(this.maxPending);
+        this.permits.release(this.maxPending);
+        Throwable e = this.failure;
+        this.failure = null;
+        rethrow(e);
+    }
+
+    public void shutdown() {
+        this.executor.shutdown();
+    }
+
+    private void throwIfFailed() throws IOException {
+        rethrow(this.failure);
+    }
+
+    private static void rethrow(Throwable e) throws IOException {
+        if (e instanceof IOException) {
+            throw (IOException) e;
+        } else if (e instanceof RuntimeException) {
+            throw (RuntimeException) e;
+        } else if (e instanceof Error) {
+            throw (Error) e;
+        } else if (e != null) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
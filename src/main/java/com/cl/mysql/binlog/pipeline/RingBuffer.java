@@ -0,0 +1,150 @@
+package com.cl.mysql.binlog.pipeline;
+
+import java.util.function.Supplier;
+
+/**
+ * @description: 单生产者、单消费者的环形缓冲区，槽位在创建时一次性分配好并反复使用
+ * <p>
+ * 生产者：{@link #next()}申请序号 → {@link #get(long)}填充槽位 → {@link #publish(long)}发布<br>
+ * 消费者：{@link #waitFor(long)}等待发布 → {@link #get(long)}读取槽位 → {@link #release(long)}归还<br>
+ * {@link #halt()}之后生产者不能再申请序号，消费者处理完已经发布的槽位后结束
+ * </p>
+ * @author: liuzijian
+ * @time: 2023-09-28 10:40
+ */
+public class RingBuffer<E> {
+
+    private final Object[] entries;
+
+    private final int mask;
+
+    private final WaitStrategy waitStrategy;
+
+    /**
+     * 已经发布的最大序号
+     */
+    private final Sequence cursor = new Sequence(-1);
+
+    /**
+     * 消费者已经处理完的最大序号
+     */
+    private final Sequence consumed = new Sequence(-1);
+
+    /**
+     * 生产者下一个要申请的序号，只在生产者线程里使用
+     */
+    private long nextSequence;
+
+    /**
+     * 生产者缓存的消费者序号，大部分时候不用读volatile
+     */
+    private long cachedConsumed = -1;
+
+    private volatile boolean halted;
+
+    /**
+     * @param bufferSize   槽位数，必须是2的幂
+     * @param entryFactory 槽位对象的创建方法
+     */
+    public RingBuffer(int bufferSize, Supplier<E> entryFactory, WaitStrategy waitStrategy) {
+        if (bufferSize <= 0 || Integer.bitCount(bufferSize) != 1) {
+            throw new IllegalArgumentException("bufferSize必须是2的幂：" + bufferSize);
+        }
+        this.entries = new Object[bufferSize];
+        for (int i = 0; i < bufferSize; i++) {
+            this.entries[i] = entryFactory.get();
+        }
+        this.mask = bufferSize - 1;
+        this.waitStrategy = waitStrategy;
+    }
+
+    /**
+     * 申请下一个槽位，缓冲区满时按等待方式等待消费者
+     *
+     * @return 序号，已经{@link #halt()}时返回-1
+     */
+    public long next() throws InterruptedException {
+        long sequence = this.nextSequence;
+        long wrapPoint = sequence - this.entries.length;
+        if (wrapPoint > this.cachedConsumed) {
+            this.waitStrategy.waitFor(() -> this.halted || this.consumed.get() >= wrapPoint);
+            if (this.halted) {
+                return -1;
+            }
+            this.cachedConsumed = this.consumed.get();
+        } else if (this.halted) {
+            return -1;
+        }
+        this.nextSequence = sequence + 1;
+        return sequence;
+    }
+
+    @SuppressWarnings("unchecked")
+    public E get(long sequence) {
+        return (E) this.entries[(int) sequence & this.mask];
+    }
+
+    public void publish(long sequence) {
+        this.cursor.set(sequence);
+        this.waitStrategy.signalAll();
+    }
+
+    /**
+     * 等待sequence被发布
+     *
+     * @return 已经发布的最大序号，可以一次处理到这个序号；小于sequence表示已经{@link #halt()}并且没有剩余的槽位
+     */
+    public long waitFor(long sequence) throws InterruptedException {
+        long available = this.cursor.get();
+        if (available >= sequence) {
+            return available;
+        }
+        this.waitStrategy.waitFor(() -> this.halted || this.cursor.get() >= sequence);
+        return this.cursor.get();
+    }
+
+    public void release(long sequence) {
+        this.consumed.set(sequence);
+        this.waitStrategy.signalAll();
+    }
+
+    /**
+     * 停止生产，唤醒两端的等待
+     */
+    public void halt() {
+        this.halted = true;
+        this.waitStrategy.signalAll();
+    }
+
+    public boolean isHalted() {
+        return this.halted;
+    }
+
+    /**
+     * 已经发布的最大序号
+     */
+    public long getCursor() {
+        return this.cursor.get();
+    }
+
+    /**
+     * 消费者已经处理完的最大序号
+     */
+    public long getConsumed() {
+        return this.consumed.get();
+    }
+
+    public int getBufferSize() {
+        return this.entries.length;
+    }
+
+    /**
+     * 丢弃没处理的槽位，恢复到可以继续生产的状态，调用时两端都不能在使用
+     */
+    public void reset() {
+        this.consumed.set(this.cursor.get());
+        this.cachedConsumed = this.cursor.get();
+        this.nextSequence = this.cursor.get() + 1;
+        this.halted = false;
+    }
+}
@@ -0,0 +1,30 @@
+package com.cl.mysql.binlog.pipeline;
+
+/**
+ * @description: 环形缓冲区的序号，前后填充缓存行，避免生产者和消费者的序号落在同一个缓存行上互相失效
+ * @author: liuzijian
+ * @time: 2023-09-28 10:10
+ */
+class Sequence {
+
+    protected long p1, p2, p3, p4, p5, p6, p7;
+
+    private volatile long value;
+
+    protected long p9, p10, p11, p12, p13, p14, p15;
+
+    Sequence(long initialValue) {
+        this.value = initialValue;
+    }
+
+    long get() {
+        return this.value;
+    }
+
+    /**
+     * volatile写：读写两端都是先写自己的序号再读对方的状态，{@link WaitStrategy}靠这个顺序保证不漏掉唤醒
+     */
+    void set(long value) {
+        this.value = value;
+    }
+}
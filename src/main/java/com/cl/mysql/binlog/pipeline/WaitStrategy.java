@@ -0,0 +1,124 @@
+package com.cl.mysql.binlog.pipeline;
+
+import com.cl.mysql.binlog.constant.WaitStrategyEnum;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * @description: 环形缓冲区两端的等待方式，见{@link WaitStrategyEnum}
+ * @author: liuzijian
+ * @time: 2023-09-28 10:20
+ */
+public abstract class WaitStrategy {
+
+    public static WaitStrategy create(WaitStrategyEnum type) {
+        switch (type) {
+            case BLOCKING:
+                return new BlockingWaitStrategy();
+            case YIELDING:
+                return new YieldingWaitStrategy();
+            case BUSY_SPIN:
+                return new BusySpinWaitStrategy();
+            default:
+                throw new IllegalArgumentException("不支持的等待方式：" + type);
+        }
+    }
+
+    /**
+     * 等到condition成立才返回
+     */
+    abstract void waitFor(BooleanSupplier condition) throws InterruptedException;
+
+    /**
+     * 另一端的序号变化之后调用，唤醒挂起的线程
+     */
+    abstract void signalAll();
+
+    /**
+     * 挂起的线程数用volatile记录：序号的volatile写在前、读waiters在后，等待的一端先写waiters、后读序号，不会漏掉唤醒，
+     * 没有线程挂起时不用加锁
+     */
+    private static class BlockingWaitStrategy extends WaitStrategy {
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private final Condition notEmpty = this.lock.newCondition();
+
+        private volatile int waiters;
+
+        @Override
+        void waitFor(BooleanSupplier condition) throws InterruptedException {
+            if (condition.getAsBoolean()) {
+                return;
+            }
+            this.lock.lock();
+            try {
+                this.waiters++;
+                try {
+                    while (!condition.getAsBoolean()) {
+                        this.notEmpty.await();
+                    }
+                } finally {
+                    this.waiters--;
+                }
+            } finally {
+                this.lock.unlock();
+            }
+        }
+
+        @Override
+        void signalAll() {
+            if (this.waiters == 0) {
+                return;
+            }
+            this.lock.lock();
+            try {
+                this.notEmpty.signalAll();
+            } finally {
+                this.lock.unlock();
+            }
+        }
+    }
+
+    private static class YieldingWaitStrategy extends WaitStrategy {
+
+        private static final int SPIN_TRIES = 100;
+
+        @Override
+        void waitFor(BooleanSupplier condition) throws InterruptedException {
+            int counter = SPIN_TRIES;
+            while (!condition.getAsBoolean()) {
+                if (counter > 0) {
+                    counter--;
+                } else {
+                    if (Thread.interrupted()) {
+                        throw new InterruptedException();
+                    }
+                    Thread.yield();
+                }
+            }
+        }
+
+        @Override
+        void signalAll() {
+        }
+    }
+
+    private static class BusySpinWaitStrategy extends WaitStrategy {
+
+        @Override
+        void waitFor(BooleanSupplier condition) throws InterruptedException {
+            while (!condition.getAsBoolean()) {
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+        }
+
+        @Override
+        void signalAll() {
+        }
+    }
+}
@@ -1,28 +1,152 @@
 package com.cl.mysql.binlog.stream;
 
-import java.io.ByteArrayInputStream;
+import com.cl.mysql.binlog.util.CharsetUtil;
+
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
 
 /**
  * @描述 msql协议为小端协议 输入流要从小端转为正常输入
- * @description:
+ * @description: 读取窗口为 [pos, limit) ，数据来源有三种：
+ * <li>byte[]：直接在数组上按下标读取，不再经过ByteArrayInputStream（它的每个方法都是synchronized的）</li>
+ * <li>ByteBuffer：堆内存的ByteBuffer直接取其底层数组，直接内存的ByteBuffer按绝对下标读取</li>
+ * <li>InputStream：带一个内部缓冲区，一次从输入流读入一批数据，避免socket输入流被逐个字节地读取</li>
+ * <li>多个byte[]分片：超过16M的binlog事件会被mysql拆成多个报文，各报文体作为分片按顺序读取，读完一个分片自动切换到下一个，不需要拼接成一个大数组</li>
+ * 数组与ByteBuffer来源可以通过{@link #slice(int)}切出一段子窗口，子窗口与原数据共享同一份内存，不发生拷贝。
+ * <p>
+ * 注意：该类不是线程安全的
  * @author: liuzijian
  * @time: 2023-08-10 09:54
  */
 public class ByteArrayIndexInputStream extends InputStream {
 
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    /**
+     * 数据来源为输入流时不为空
+     */
     private final InputStream in;
 
+    /**
+     * 数据来源为直接内存的ByteBuffer时不为空，此时pos、limit为ByteBuffer的绝对下标
+     */
+    private final ByteBuffer directBuffer;
+
+    /**
+     * 当前读取窗口所在的数组，数据来源为直接内存时为空
+     */
+    private byte[] buf;
+
+    /**
+     * 下一个待读取字节的下标
+     */
+    private int pos;
+
+    /**
+     * 窗口结束下标（不包含）
+     */
+    private int limit;
+
+    /**
+     * 数据来源为多个分片时不为空，fragmentStart、fragmentEnd为每个分片的读取窗口
+     */
+    private byte[][] fragments;
+
+    private int[] fragmentStart;
+
+    private int[] fragmentEnd;
+
+    private int fragmentIndex;
+
+    /**
+     * 当前分片之后的分片还剩余的字节数
+     */
+    private int fragmentRemaining;
+
+    private int markPos = -1;
+
+    private int markFragmentIndex;
+
     public ByteArrayIndexInputStream(InputStream in) {
+        this(in, DEFAULT_BUFFER_SIZE);
+    }
+
+    public ByteArrayIndexInputStream(InputStream in, int bufferSize) {
         this.in = in;
+        this.directBuffer = null;
+        this.buf = new byte[bufferSize];
+        this.pos = 0;
+        this.limit = 0;
     }
 
     public ByteArrayIndexInputStream(byte[] bytes) {
-        this(new ByteArrayInputStream(bytes));
+        this(bytes, 0, bytes.length);
     }
 
+    public ByteArrayIndexInputStream(byte[] bytes, int offset, int length) {
+        this.in = null;
+        this.directBuffer = null;
+        this.buf = bytes;
+        this.pos = offset;
+        this.limit = offset + length;
+    }
+
+    /**
+     * 读取窗口为ByteBuffer的 [position, limit) ，不会改变ByteBuffer本身的position
+     */
+    public ByteArrayIndexInputStream(ByteBuffer buffer) {
+        this.in = null;
+        if (buffer.hasArray()) {
+            this.directBuffer = null;
+            this.buf = buffer.array();
+            this.pos = buffer.arrayOffset() + buffer.position();
+            this.limit = buffer.arrayOffset() + buffer.limit();
+        } else {
+            // 另建一个视图按小端读取，不改变调用方ByteBuffer的字节序
+            this.directBuffer = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+            this.pos = buffer.position();
+            this.limit = buffer.limit();
+        }
+    }
+
+    private ByteArrayIndexInputStream(ByteBuffer directBuffer, int pos, int limit) {
+        this.in = null;
+        this.directBuffer = directBuffer;
+        this.pos = pos;
+        this.limit = limit;
+    }
+
+    /**
+     * 按顺序读取多个分片，分片之间不做拷贝
+     *
+     * @param fragments 分片
+     */
+    public ByteArrayIndexInputStream(List<byte[]> fragments) {
+        this(fragments.toArray(new byte[0][]), null, null);
+    }
+
+    private ByteArrayIndexInputStream(byte[][] fragments, int[] fragmentStart, int[] fragmentEnd) {
+        this.in = null;
+        this.directBuffer = null;
+        this.fragments = fragments;
+        if (fragmentStart == null) {
+            fragmentStart = new int[fragments.length];
+            fragmentEnd = new int[fragments.length];
+            for (int i = 0; i < fragments.length; i++) {
+                fragmentEnd[i] = fragments[i].length;
+            }
+        }
+        this.fragmentStart = fragmentStart;
+        this.fragmentEnd = fragmentEnd;
+        this.switchFragment(0);
+    }
 
     /**
      * @param length 读取字节数组的长度
@@ -52,18 +176,110 @@ public class ByteArrayIndexInputStream extends InputStream {
      * <p> 原文链接：https://blog.csdn.net/PlutoZuo/article/details/131204030
      */
     public int readInt(int length) throws IOException {
+        if (this.limit - this.pos < length) {
+            return this.readIntSlowly(length);
+        }
+        int result = 0;
+        if (this.buf != null) {
+            byte[] b = this.buf;
+            int p = this.pos;
+            for (int i = 0; i < length; i++) {
+                //小端转换算法 转成十进制
+                result |= (b[p + i] & 0xFF) << (i << 3);
+            }
+        } else {
+            result = (int) this.directLong(this.pos, length);
+        }
+        this.pos += length;
+        return result;
+    }
+
+    public long readLong(int length) throws IOException {
+        if (this.limit - this.pos < length) {
+            return this.readLongSlowly(length);
+        }
+        long result = 0;
+        if (this.buf != null) {
+            byte[] b = this.buf;
+            int p = this.pos;
+            for (int i = 0; i < length; i++) {
+                //小端转换算法 转成十进制
+                result |= ((long) (b[p + i] & 0xFF)) << (i << 3);
+            }
+        } else {
+            result = this.directLong(this.pos, length);
+        }
+        this.pos += length;
+        return result;
+    }
+
+    /**
+     * 在小端的直接内存上按绝对位置读取，常见的1、2、4、8个字节用一次getShort/getInt/getLong，其余长度拆成这几种拼起来
+     */
+    private long directLong(int p, int length) {
+        ByteBuffer b = this.directBuffer;
+        switch (length) {
+            case 1:
+                return b.get(p) & 0xFFL;
+            case 2:
+                return b.getShort(p) & 0xFFFFL;
+            case 3:
+                return (b.getShort(p) & 0xFFFFL) | ((b.get(p + 2) & 0xFFL) << 16);
+            case 4:
+                return b.getInt(p) & 0xFFFFFFFFL;
+            case 6:
+                return (b.getInt(p) & 0xFFFFFFFFL) | ((b.getShort(p + 4) & 0xFFFFL) << 32);
+            case 8:
+                return b.getLong(p);
+            default:
+                long result = 0;
+                for (int i = 0; i < length; i++) {
+                    result |= ((long) (b.get(p + i) & 0xFF)) << (i << 3);
+                }
+                return result;
+        }
+    }
+
+    /**
+     * 以大端模式读取long，mysql的DATETIME2、TIME2、TIMESTAMP2、DECIMAL等字段是大端存储的
+     *
+     * @param length 字节数，最多8个
+     */
+    public long readLongBigEndian(int length) throws IOException {
+        long result = 0;
+        if (this.limit - this.pos >= length && this.buf != null) {
+            byte[] b = this.buf;
+            int p = this.pos;
+            for (int i = 0; i < length; i++) {
+                result = (result << 8) | (b[p + i] & 0xFF);
+            }
+            this.pos += length;
+            return result;
+        }
+        for (int i = 0; i < length; i++) {
+            int b = this.read();
+            if (b < 0) {
+                throw new EOFException();
+            }
+            result = (result << 8) | b;
+        }
+        return result;
+    }
+
+    /**
+     * 窗口内剩余字节不够时逐个字节读取，读到流末尾时与原来的实现一样返回-1
+     */
+    private int readIntSlowly(int length) throws IOException {
         int result = 0;
         for (int i = 0; i < length; i++) {
-            //小端转换算法 转成十进制
             result |= (this.read() << (i << 3));
         }
         return result;
     }
 
-    public long readLong(int length) throws IOException {
+    private long readLongSlowly(int length) throws IOException {
         long result = 0;
         for (int i = 0; i < length; i++) {
-            //小端转换算法 转成十进制
             result |= (((long) this.read()) << (i << 3));
         }
         return result;
@@ -78,9 +294,28 @@ public class ByteArrayIndexInputStream extends InputStream {
      * @throws IOException
      */
     public String readString(int length) throws IOException {
-        byte[] b = new byte[length];
-        this.fillBytes(b, 0, length);
-        return new String(b);
+        if (this.buf != null && this.limit - this.pos >= length) {
+            String result = new String(this.buf, this.pos, length);
+            this.pos += length;
+            return result;
+        }
+        return new String(this.readBytes(length));
+    }
+
+    /**
+     * 按指定字符集读取固定长度的string，数组来源且窗口内数据足够时直接从数组解码，不先拷贝出来
+     *
+     * @param length          字节数
+     * @param charset         字符集
+     * @param asciiCompatible 字符集是否兼容ASCII，见{@link CharsetUtil#isAsciiCompatible(Charset)}
+     */
+    public String readString(int length, Charset charset, boolean asciiCompatible) throws IOException {
+        if (this.buf != null && this.limit - this.pos >= length) {
+            String result = CharsetUtil.decode(this.buf, this.pos, length, charset, asciiCompatible);
+            this.pos += length;
+            return result;
+        }
+        return CharsetUtil.decode(this.readBytes(length), 0, length, charset, asciiCompatible);
     }
 
     public String readLenencString() throws IOException {
@@ -101,10 +336,18 @@ public class ByteArrayIndexInputStream extends InputStream {
      * 即mysql通讯协议数据类型：string(NUL) 就是string+'0x00',这里的'0x00'是作为结尾符的。
      */
     public String readStringTerminatedByZero() throws IOException {
+        if (this.buf != null) {
+            for (int i = this.pos; i < this.limit; i++) {
+                if (this.buf[i] == 0) {
+                    String result = new String(this.buf, this.pos, i - this.pos);
+                    this.pos = i + 1;
+                    return result;
+                }
+            }
+        }
         ByteArrayIndexOutputStream outputStream = new ByteArrayIndexOutputStream();
         int num;
-        int available = in.available();
-        while (available > 0 && (num = this.read()) != 0) {
+        while ((num = this.read()) > 0) {
             outputStream.writeInt(num, 1);
         }
         return new String(outputStream.toByteArray());
@@ -133,25 +376,197 @@ public class ByteArrayIndexInputStream extends InputStream {
         throw new IOException("Unexpected packed number byte " + b);
     }
 
+    /**
+     * 切出接下来length个字节作为一个新的输入流，并让当前流跳过这些字节<br>
+     * 数组与ByteBuffer来源的新流与当前流共享内存，不发生拷贝；输入流来源只能拷贝出来
+     *
+     * @param length 长度
+     * @return 子窗口
+     */
+    public ByteArrayIndexInputStream slice(int length) throws IOException {
+        if (this.in != null) {
+            return new ByteArrayIndexInputStream(this.readBytes(length));
+        }
+        if (this.limit - this.pos < length) {
+            if (this.fragments != null) {
+                return this.sliceFragments(length);
+            }
+            throw new EOFException();
+        }
+        ByteArrayIndexInputStream result = this.buf != null
+                ? new ByteArrayIndexInputStream(this.buf, this.pos, length)
+                : new ByteArrayIndexInputStream(this.directBuffer, this.pos, this.pos + length);
+        this.pos += length;
+        return result;
+    }
+
+    /**
+     * 把接下来length个字节计入CRC32，不移动读取位置<br>
+     * 直接在原数组、ByteBuffer上计算，不发生拷贝；直接内存的ByteBuffer走{@link CRC32#update(ByteBuffer)}，同样不拷贝到堆内存<br>
+     * 仅数组、ByteBuffer与分片来源支持，输入流来源需要先{@link #slice(int)}
+     *
+     * @param crc    校验和
+     * @param length 长度
+     */
+    public void updateCrc32(CRC32 crc, int length) throws IOException {
+        if (this.in != null) {
+            throw new IOException("输入流来源不支持原地计算校验和");
+        }
+        int buffered = this.limit - this.pos;
+        if (buffered >= length) {
+            if (this.buf != null) {
+                crc.update(this.buf, this.pos, length);
+            } else {
+                ByteBuffer region = this.directBuffer.duplicate();
+                region.limit(this.pos + length);
+                region.position(this.pos);
+                crc.update(region);
+            }
+            return;
+        }
+        if (this.fragments == null || this.available() < length) {
+            throw new EOFException();
+        }
+        crc.update(this.buf, this.pos, buffered);
+        int rest = length - buffered;
+        for (int i = this.fragmentIndex + 1; rest > 0; i++) {
+            int n = Math.min(rest, this.fragmentEnd[i] - this.fragmentStart[i]);
+            crc.update(this.fragments[i], this.fragmentStart[i], n);
+            rest -= n;
+        }
+    }
+
+    /**
+     * 比较接下来的字节与expected是否完全一致，不移动读取位置，也不拷贝数据<br>
+     * 仅数组、ByteBuffer与分片来源支持，输入流来源需要先{@link #slice(int)}
+     *
+     * @return 剩余字节不足expected.length时返回false
+     */
+    public boolean regionMatches(byte[] expected) throws IOException {
+        if (this.in != null) {
+            throw new IOException("输入流来源不支持原地比较");
+        }
+        int length = expected.length;
+        if (this.limit - this.pos >= length) {
+            if (this.buf != null) {
+                for (int i = 0; i < length; i++) {
+                    if (this.buf[this.pos + i] != expected[i]) {
+                        return false;
+                    }
+                }
+            } else {
+                for (int i = 0; i < length; i++) {
+                    if (this.directBuffer.get(this.pos + i) != expected[i]) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        if (this.fragments == null || this.available() < length) {
+            return false;
+        }
+        int index = this.fragmentIndex;
+        int p = this.pos;
+        int end = this.limit;
+        for (int i = 0; i < length; i++) {
+            while (p >= end) {
+                index++;
+                p = this.fragmentStart[index];
+                end = this.fragmentEnd[index];
+            }
+            if (this.fragments[index][p++] != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 跨分片的切片，新流的分片数组引用原来的分片，只重新记录每个分片的读取窗口
+     */
+    private ByteArrayIndexInputStream sliceFragments(int length) throws IOException {
+        if (this.available() < length) {
+            throw new EOFException();
+        }
+        int count = 0;
+        int[] start = new int[this.fragments.length - this.fragmentIndex];
+        int[] end = new int[start.length];
+        byte[][] parts = new byte[start.length][];
+        int rest = length;
+        while (rest > 0) {
+            if (this.pos >= this.limit) {
+                this.fill();
+                continue;
+            }
+            int n = Math.min(rest, this.limit - this.pos);
+            parts[count] = this.buf;
+            start[count] = this.pos;
+            end[count] = this.pos + n;
+            count++;
+            this.pos += n;
+            rest -= n;
+        }
+        if (count < parts.length) {
+            parts = Arrays.copyOf(parts, count);
+            start = Arrays.copyOf(start, count);
+            end = Arrays.copyOf(end, count);
+        }
+        return new ByteArrayIndexInputStream(parts, start, end);
+    }
 
     @Override
     public int read() throws IOException {
-        return in.read();
+        if (this.pos >= this.limit && !this.fill()) {
+            return -1;
+        }
+        if (this.buf != null) {
+            return this.buf[this.pos++] & 0xFF;
+        }
+        return this.directBuffer.get(this.pos++) & 0xFF;
     }
 
     @Override
     public int available() throws IOException {
-        return in.available();
+        int buffered = this.limit - this.pos + this.fragmentRemaining;
+        return this.in != null ? buffered + this.in.available() : buffered;
     }
 
     @Override
     public void close() throws IOException {
-        in.close();
+        if (this.in != null) {
+            this.in.close();
+        }
     }
 
+    /**
+     * 与{@link InputStream#skip(long)}不同，这里会尽量跳过n个字节，只有到了流末尾才会少跳
+     */
     @Override
     public long skip(long n) throws IOException {
-        return in.skip(n);
+        if (n <= 0) {
+            return 0;
+        }
+        long skipped = Math.min(n, this.limit - this.pos);
+        this.pos += (int) skipped;
+        while (skipped < n && this.fragments != null && this.fill()) {
+            int s = (int) Math.min(n - skipped, this.limit - this.pos);
+            this.pos += s;
+            skipped += s;
+        }
+        if (this.in != null) {
+            while (skipped < n) {
+                long s = this.in.skip(n - skipped);
+                if (s <= 0) {
+                    if (this.in.read() == -1) {
+                        break;
+                    }
+                    s = 1;
+                }
+                skipped += s;
+            }
+        }
+        return skipped;
     }
 
     /**
@@ -174,38 +589,124 @@ public class ByteArrayIndexInputStream extends InputStream {
      * @param offset 数组起始位
      * @param length 读取长度
      * @return
-     * @描述 读取字节并填充数组
+     * @描述 读取字节并填充数组，读不满length个字节时抛出EOFException
      */
     public int fillBytes(byte[] b, int offset, int length) throws IOException {
-        int result = this.read(b, offset, length);
-        if (result == -1) {
-            throw new EOFException();
+        int read = 0;
+        while (read < length) {
+            int n = this.read(b, offset + read, length - read);
+            if (n == -1) {
+                throw new EOFException();
+            }
+            read += n;
         }
-        return result;
+        return read;
     }
 
     @Override
     public int read(byte[] b) throws IOException {
-        return in.read(b);
+        return this.read(b, 0, b.length);
     }
 
     @Override
     public int read(byte[] b, int off, int len) throws IOException {
-        return in.read(b, off, len);
+        if (len == 0) {
+            return 0;
+        }
+        int buffered = this.limit - this.pos;
+        if (buffered <= 0) {
+            if (this.fragments != null) {
+                if (!this.fill()) {
+                    return -1;
+                }
+                return this.read(b, off, len);
+            }
+            if (this.in == null) {
+                return -1;
+            }
+            if (len >= this.buf.length) {
+                // 大块数据直接读进目标数组 不经过内部缓冲区
+                return this.in.read(b, off, len);
+            }
+            if (!this.fill()) {
+                return -1;
+            }
+            buffered = this.limit - this.pos;
+        }
+        int n = Math.min(buffered, len);
+        if (this.buf != null) {
+            System.arraycopy(this.buf, this.pos, b, off, n);
+        } else {
+            ByteBuffer region = this.directBuffer.duplicate();
+            region.position(this.pos);
+            region.get(b, off, n);
+        }
+        this.pos += n;
+        return n;
+    }
+
+    /**
+     * 数据来源为分片时切换到下一个分片；数据来源为输入流时，从输入流读取一批数据到内部缓冲区
+     *
+     * @return false：没有更多的数据
+     */
+    private boolean fill() throws IOException {
+        if (this.fragments != null) {
+            while (this.fragmentIndex + 1 < this.fragments.length) {
+                this.switchFragment(this.fragmentIndex + 1);
+                if (this.pos < this.limit) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        if (this.in == null) {
+            return false;
+        }
+        this.markPos = -1;
+        int n = this.in.read(this.buf, 0, this.buf.length);
+        if (n <= 0) {
+            return false;
+        }
+        this.pos = 0;
+        this.limit = n;
+        return true;
+    }
+
+    private void switchFragment(int index) {
+        this.fragmentIndex = index;
+        this.buf = this.fragments[index];
+        this.pos = this.fragmentStart[index];
+        this.limit = this.fragmentEnd[index];
+        int remaining = 0;
+        for (int i = index + 1; i < this.fragments.length; i++) {
+            remaining += this.fragmentEnd[i] - this.fragmentStart[i];
+        }
+        this.fragmentRemaining = remaining;
     }
 
+    /**
+     * 仅数组、ByteBuffer与分片来源支持
+     */
     @Override
-    public synchronized void reset() throws IOException {
-        in.reset();
+    public void reset() throws IOException {
+        if (this.markPos < 0) {
+            throw new IOException("Resetting to invalid mark");
+        }
+        if (this.fragments != null && this.markFragmentIndex != this.fragmentIndex) {
+            this.switchFragment(this.markFragmentIndex);
+        }
+        this.pos = this.markPos;
     }
 
     @Override
-    public synchronized void mark(int readlimit) {
-        in.mark(readlimit);
+    public void mark(int readlimit) {
+        this.markPos = this.pos;
+        this.markFragmentIndex = this.fragmentIndex;
     }
 
     @Override
     public boolean markSupported() {
-        return in.markSupported();
+        return this.in == null;
     }
 }
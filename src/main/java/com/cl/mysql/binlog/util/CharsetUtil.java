@@ -0,0 +1,124 @@
+package com.cl.mysql.binlog.util;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * @description: mysql collation id 与 java Charset 的对应关系，数组在类加载时建好，按下标直接取
+ * <p>
+ * collation id可以在mysql执行 SELECT id, collation_name, character_set_name FROM information_schema.collations ORDER BY id; 去查，
+ * mysql的charset与java charset的对应关系参考mysql-connector-j的CharsetMapping
+ * @author: liuzijian
+ * @time: 2023-09-24 14:00
+ */
+public class CharsetUtil {
+
+    /**
+     * 二进制字符集（BINARY、VARBINARY、BLOB），按ISO-8859-1解码可以一个字节对应一个字符，不丢信息
+     */
+    public static final int BINARY_COLLATION = 63;
+
+    private static final Charset[] COLLATION_CHARSETS = new Charset[1024];
+
+    static {
+        register("Big5", 1, 84);
+        register("ISO-8859-2", 2, 9, 21, 27, 77);
+        register("IBM850", 4, 80);
+        register("windows-1252", 5, 8, 15, 31, 47, 48, 49, 94);// mysql的latin1实际上是cp1252
+        register("KOI8-R", 7, 74);
+        register("US-ASCII", 11, 65);
+        register("EUC-JP", 12, 91);
+        register("Shift_JIS", 13, 88);
+        register("windows-1251", 14, 23, 50, 51, 52);
+        register("ISO-8859-8", 16, 71);
+        register("TIS-620", 18, 89);
+        register("EUC-KR", 19, 85);
+        register("ISO-8859-13", 20, 41, 42, 79);
+        register("KOI8-U", 22, 75);
+        register("GB2312", 24, 86);
+        register("ISO-8859-7", 25, 70);
+        register("windows-1250", 26, 34, 44, 66, 99);
+        register("GBK", 28, 87);
+        register("windows-1257", 29, 58, 59);
+        register("ISO-8859-9", 30, 78);
+        register("UTF-8", 33, 45, 46, 76, 83);// utf8mb3、utf8mb4
+        registerRange("UTF-8", 192, 215);// utf8mb3_*
+        register("UTF-8", 223);
+        registerRange("UTF-8", 224, 247);// utf8mb4_*
+        registerRange("UTF-8", 255, 323);// mysql8.0的utf8mb4_0900_*等
+        register("UTF-16BE", 35, 90, 159);// ucs2
+        registerRange("UTF-16BE", 128, 151);
+        register("IBM866", 36, 68);
+        register("x-MacCentralEurope", 38, 43);
+        register("x-MacRoman", 39, 53);
+        register("IBM852", 40, 81);
+        register("UTF-16BE", 54, 55, 327);// utf16
+        registerRange("UTF-16BE", 101, 124);
+        register("UTF-16LE", 56, 62);
+        register("windows-1256", 57, 67);
+        register("UTF-32BE", 60, 61);
+        registerRange("UTF-32BE", 160, 183);
+        register("ISO-8859-1", BINARY_COLLATION);
+        register("windows-31j", 95, 96);
+        register("x-eucJP-Open", 97, 98);
+        register("GB18030", 248, 249, 250);
+    }
+
+    private static void register(String charsetName, int... collationIds) {
+        if (!Charset.isSupported(charsetName)) {
+            return;
+        }
+        Charset charset = Charset.forName(charsetName);
+        for (int id : collationIds) {
+            COLLATION_CHARSETS[id] = charset;
+        }
+    }
+
+    private static void registerRange(String charsetName, int from, int to) {
+        for (int id = from; id <= to; id++) {
+            register(charsetName, id);
+        }
+    }
+
+    /**
+     * @param collationId mysql collation id
+     * @return 对应的java Charset，未知的collation id返回UTF-8
+     */
+    public static Charset getCharsetByCollation(int collationId) {
+        Charset charset = collationId >= 0 && collationId < COLLATION_CHARSETS.length ? COLLATION_CHARSETS[collationId] : null;
+        return charset == null ? StandardCharsets.UTF_8 : charset;
+    }
+
+    /**
+     * @return 是否兼容ASCII（0x00 ~ 0x7F的字节就是对应的ASCII字符），UTF-16、UTF-32这类多字节定长编码不兼容
+     */
+    public static boolean isAsciiCompatible(Charset charset) {
+        String name = charset.name();
+        return !name.startsWith("UTF-16") && !name.startsWith("UTF-32");
+    }
+
+    /**
+     * 字节数组是否全部都是ASCII字符
+     */
+    public static boolean isAscii(byte[] bytes, int offset, int length) {
+        for (int i = offset, end = offset + length; i < end; i++) {
+            if (bytes[i] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 解码字符串，ISO-8859-1以及全是ASCII字符的ASCII兼容编码直接按字节转成字符，不经过CharsetDecoder
+     *
+     * @param asciiCompatible {@link #isAsciiCompatible(Charset)}的结果，由调用方缓存
+     */
+    @SuppressWarnings("deprecation")
+    public static String decode(byte[] bytes, int offset, int length, Charset charset, boolean asciiCompatible) {
+        if (charset == StandardCharsets.ISO_8859_1 || (asciiCompatible && isAscii(bytes, offset, length))) {
+            return new String(bytes, 0, offset, length);
+        }
+        return new String(bytes, offset, length, charset);
+    }
+}
@@ -0,0 +1,80 @@
+package com.cl.mysql.binlog.decoder;
+
+import com.cl.mysql.binlog.constant.TableMapColumnTypeEnum;
+import com.cl.mysql.binlog.constant.TemporalDecodeModeEnum;
+import com.cl.mysql.binlog.stream.ByteArrayIndexInputStream;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @description: TIME2负数带小数时的借位，二进制按mysql的my_time_packed_to_binary构造
+ * @author: liuzijian
+ * @time: 2023-09-29 10:00
+ */
+public class Time2ColumnDecoderTest {
+
+    @Test
+    public void negativeTime1() throws IOException {
+        // -00:00:01.5：整数部分-2，小数字节0xCE
+        assertEquals(-((1L << 24) + 500000), decode(1, new byte[]{(byte) 0x7F, (byte) 0xFF, (byte) 0xFE, (byte) 0xCE}));
+        assertDecoded(1, -((1L << 24) + 500000));
+        assertDecoded(1, -((((1L << 12) | (2 << 6) | 3) << 24) + 100000));
+        assertDecoded(1, (1L << 24) + 500000);
+    }
+
+    @Test
+    public void negativeTime2() throws IOException {
+        assertDecoded(2, -((1L << 24) + 250000));
+        assertDecoded(2, -10000);
+        assertDecoded(2, -(5L << 24));
+    }
+
+    @Test
+    public void negativeTime3() throws IOException {
+        assertDecoded(3, -((1L << 24) + 123000));
+        assertDecoded(3, -((59L << 24) + 999000));
+        assertDecoded(4, -((1L << 24) + 1200));
+        assertDecoded(3, (1L << 24) + 123000);
+    }
+
+    @Test
+    public void toDuration() throws IOException {
+        Time2ColumnDecoder decoder = new Time2ColumnDecoder(TableMapColumnTypeEnum.MYSQL_TYPE_TIME2, 1, TemporalDecodeModeEnum.JAVA_TIME);
+        Object value = decoder.decode(new ByteArrayIndexInputStream(new byte[]{(byte) 0x7F, (byte) 0xFF, (byte) 0xFE, (byte) 0xCE}));
+        assertEquals(Duration.ofMillis(-1500), value);
+    }
+
+    private static void assertDecoded(int precision, long packed) throws IOException {
+        assertEquals(packed, decode(precision, encode(precision, packed)));
+    }
+
+    private static long decode(int precision, byte[] bytes) throws IOException {
+        Time2ColumnDecoder decoder = new Time2ColumnDecoder(TableMapColumnTypeEnum.MYSQL_TYPE_TIME2, precision, TemporalDecodeModeEnum.RAW);
+        return decoder.decodeLong(new ByteArrayIndexInputStream(bytes));
+    }
+
+    /**
+     * 与mysql的my_time_packed_to_binary一致：整数部分是算术右移，小数部分是带符号的余数
+     */
+    private static byte[] encode(int precision, long packed) {
+        long intPart = 0x800000L + (packed >> 24);
+        long frac = packed % (1L << 24);
+        int fractionalLength = (precision + 1) / 2;
+        byte[] bytes = new byte[3 + fractionalLength];
+        bytes[0] = (byte) (intPart >> 16);
+        bytes[1] = (byte) (intPart >> 8);
+        bytes[2] = (byte) intPart;
+        if (fractionalLength == 1) {
+            bytes[3] = (byte) (frac / 10000);
+        } else {
+            long v = frac / 100;
+            bytes[3] = (byte) (v >> 8);
+            bytes[4] = (byte) v;
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,121 @@
+package com.cl.mysql.binlog.entity;
+
+import com.cl.mysql.binlog.stream.ByteArrayIndexInputStream;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.UUID;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @description: gtid集合的区间合并、文本格式与COM_BINLOG_DUMP_GTID中的二进制格式
+ * @author: liuzijian
+ * @time: 2023-09-29 15:00
+ */
+public class GtidSetTest {
+
+    private static final String SID = "3e11fa47-71ca-11e1-9e33-c80aa9429562";
+
+    private static final UUID UUID_ = UUID.fromString(SID);
+
+    @Test
+    public void addInOrder() {
+        GtidSet gtidSet = new GtidSet();
+        for (long gno = 1; gno <= 5; gno++) {
+            assertTrue(gtidSet.add(UUID_, gno));
+        }
+        assertFalse(gtidSet.add(UUID_, 3));
+        assertEquals(SID + ":1-5", gtidSet.toString());
+        assertEquals(1, gtidSet.getUuidSet(UUID_).getIntervalCount());
+    }
+
+    @Test
+    public void addOutOfOrder() {
+        GtidSet gtidSet = new GtidSet();
+        for (long gno : new long[]{7, 3, 1, 9, 2}) {
+            assertTrue(gtidSet.add(UUID_, gno));
+        }
+        assertEquals(SID + ":1-3:7:9", gtidSet.toString());
+
+        assertTrue(gtidSet.add(UUID_, 8));
+        assertEquals(SID + ":1-3:7-9", gtidSet.toString());
+        assertFalse(gtidSet.contains(UUID_, 4));
+        assertTrue(gtidSet.contains(UUID_, 8));
+    }
+
+    @Test
+    public void addBridgesIntervals() {
+        GtidSet gtidSet = GtidSet.parse(SID + ":1-2:4-5:7-8");
+        assertEquals(3, gtidSet.getUuidSet(UUID_).getIntervalCount());
+
+        gtidSet.add(UUID_, 3);
+        assertEquals(SID + ":1-5:7-8", gtidSet.toString());
+        gtidSet.add(UUID_, 6);
+        assertEquals(SID + ":1-8", gtidSet.toString());
+        assertEquals(1, gtidSet.getUuidSet(UUID_).getIntervalCount());
+    }
+
+    @Test
+    public void parseMergesOverlappingIntervals() {
+        GtidSet gtidSet = GtidSet.parse(SID + ":10-12:1-3:20:5-6:4-11");
+        assertEquals(SID + ":1-12:20", gtidSet.toString());
+    }
+
+    @Test
+    public void addAllBridgesIntervals() {
+        String other = "4a5e3c1b-0000-11e1-8000-000000000001";
+        GtidSet gtidSet = GtidSet.parse(SID + ":1-2:5-6:9-10");
+        gtidSet.addAll(GtidSet.parse(SID + ":3-4:7-8," + other + ":1"));
+
+        assertEquals(SID + ":1-10," + other + ":1", gtidSet.toString());
+        assertEquals(1, gtidSet.getUuidSet(UUID_).getIntervalCount());
+        assertEquals(2, gtidSet.getUuids().size());
+    }
+
+    @Test
+    public void parseToStringRoundTrip() {
+        String text = SID + ":1-5:7:9-100,4a5e3c1b-0000-11e1-8000-000000000001:3";
+        GtidSet gtidSet = GtidSet.parse(text.toUpperCase());
+        assertEquals(text, gtidSet.toString());
+        assertEquals(gtidSet, GtidSet.parse(gtidSet.toString()));
+    }
+
+    @Test
+    public void encodeLayout() throws IOException {
+        ByteBuffer expected = ByteBuffer.allocate(8 + 16 + 8 + 2 * 16).order(ByteOrder.LITTLE_ENDIAN);
+        expected.putLong(1);
+        expected.order(ByteOrder.BIG_ENDIAN)
+                .putLong(UUID_.getMostSignificantBits())
+                .putLong(UUID_.getLeastSignificantBits());
+        expected.order(ByteOrder.LITTLE_ENDIAN);
+        expected.putLong(2);
+        // 区间终点在二进制格式中是开区间
+        expected.putLong(1).putLong(6);
+        expected.putLong(7).putLong(8);
+
+        byte[] bytes = GtidSet.parse(SID + ":1-5:7").encode();
+        assertArrayEquals(expected.array(), bytes);
+    }
+
+    @Test
+    public void encodeDecodeRoundTrip() throws IOException {
+        GtidSet gtidSet = GtidSet.parse(SID + ":1-5:7");
+        GtidSet decoded = GtidSet.decode(new ByteArrayIndexInputStream(gtidSet.encode()));
+
+        assertEquals(gtidSet, decoded);
+        GtidSet.UuidSet uuidSet = decoded.getUuidSet(UUID_);
+        assertEquals(2, uuidSet.getIntervalCount());
+        assertEquals(1, uuidSet.getStart(0));
+        assertEquals(5, uuidSet.getEnd(0));
+        assertEquals(7, uuidSet.getStart(1));
+        assertEquals(7, uuidSet.getEnd(1));
+        assertFalse(uuidSet.contains(6));
+    }
+
+}
@@ -0,0 +1,35 @@
+package com.cl.mysql.binlog.json;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * @description: 路径查找遇到标量时返回null
+ * @author: liuzijian
+ * @time: 2023-09-29 10:30
+ */
+public class JsonBinaryTest {
+
+    @Test
+    public void pathOnScalarDocument() {
+        for (Object scalar : new Object[]{null, true, false, 1, "a"}) {
+            byte[] bytes = JsonBinaryEncoder.encode(scalar);
+            assertNull(JsonBinary.extract(bytes, JsonPath.compile("$.a")));
+            assertNull(JsonBinary.extract(bytes, JsonPath.compile("$[0]")));
+        }
+    }
+
+    @Test
+    public void pathThroughScalarInsideContainer() {
+        byte[] bytes = JsonBinaryEncoder.encode(Collections.singletonMap("a", Arrays.asList(true, 7)));
+        assertNull(JsonBinary.extract(bytes, JsonPath.compile("$.a[0].b")));
+        assertNull(JsonBinary.extract(bytes, JsonPath.compile("$.a[1][0]")));
+        assertNull(JsonBinary.extract(bytes, JsonPath.compile("$.a.b")));
+        assertEquals("7", JsonBinary.extract(bytes, JsonPath.compile("$.a[1]")));
+    }
+}
@@ -0,0 +1,215 @@
+package com.cl.mysql.binlog.pipeline;
+
+import com.cl.mysql.binlog.binlogEvent.AbstractRowEvent;
+import com.cl.mysql.binlog.binlogEvent.Event;
+import com.cl.mysql.binlog.binlogEvent.WriteRowsEvent;
+import com.cl.mysql.binlog.constant.BinlogCheckSumEnum;
+import com.cl.mysql.binlog.constant.BinlogEventTypeEnum;
+import com.cl.mysql.binlog.network.BinlogEnvironment;
+import com.cl.mysql.binlog.stream.ByteArrayIndexInputStream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @description: 行数据解析耗时随机时，事件仍按提交顺序分发，解析异常只在flush时抛出一次
+ * @author: liuzijian
+ * @time: 2023-09-29 16:00
+ */
+public class OrderedRowDecoderTest {
+
+    /**
+     * 解析失败的表
+     */
+    private static final long BROKEN_TABLE_ID = 2;
+
+    /**
+     * 行数据解析前随机等待一段时间，让后提交的事件有机会先解析完
+     */
+    public static class SlowWriteRowsEvent extends WriteRowsEvent {
+
+        public SlowWriteRowsEvent(BinlogEnvironment environment, BinlogEventTypeEnum binlogEvent, ByteArrayIndexInputStream in, int bodyLength, BinlogCheckSumEnum checkSum) throws IOException {
+            super(environment, binlogEvent, in, bodyLength, checkSum);
+        }
+
+        @Override
+        public void parseColumnImageAndRows(ByteArrayIndexInputStream in) throws IOException {
+            try {
+                Thread.sleep(ThreadLocalRandom.current().nextInt(20));
+            } catch (InterruptedException e) {
+                throw new InterruptedIOException();
+            }
+            if (this.tableId == BROKEN_TABLE_ID) {
+                throw new IOException("broken rows");
+            }
+            super.parseColumnImageAndRows(in);
+        }
+    }
+
+    private BinlogEnvironment environment;
+
+    private List<Event> handled;
+
+    private OrderedRowDecoder decoder;
+
+    @Before
+    public void setUp() {
+        this.environment = new BinlogEnvironment();
+        this.environment.setParallelRowDecodeThreads(4);
+        this.environment.setParallelRowDecodeMinBytes(0);
+        this.environment.getEventFactoryRegistry().register(BinlogEventTypeEnum.WRITE_ROWS_EVENT_V2, SlowWriteRowsEvent::new);
+        this.handled = Collections.synchronizedList(new ArrayList<>());
+        this.decoder = new OrderedRowDecoder(4, 4, event -> {
+            if (event.getBody() instanceof AbstractRowEvent) {
+                assertTrue(((AbstractRowEvent) event.getBody()).isRowsDecoded());
+            }
+            this.handled.add(event);
+        }, "row-decoder-test");
+    }
+
+    @After
+    public void tearDown() {
+        this.decoder.shutdown();
+    }
+
+    @Test
+    public void handOffInSubmitOrder() throws IOException {
+        List<Event> submitted = new ArrayList<>();
+        submitted.add(this.deserialize(tableMap(1)));
+        for (int i = 0; i < 10; i++) {
+            submitted.add(this.deserialize(writeRows(1, i)));
+        }
+        submitted.add(this.deserialize(tableMap(1)));
+        for (int i = 10; i < 20; i++) {
+            submitted.add(this.deserialize(writeRows(1, i)));
+        }
+        // 行数据留给了解析线程池
+        assertFalse(((AbstractRowEvent) submitted.get(1).getBody()).isRowsDecoded());
+        for (Event event : submitted) {
+            this.decoder.submit(event);
+        }
+        this.decoder.flush();
+
+        assertEquals(submitted.size(), this.handled.size());
+        for (int i = 0; i < submitted.size(); i++) {
+            assertSame(submitted.get(i), this.handled.get(i));
+        }
+        for (int i = 1; i <= 10; i++) {
+            WriteRowsEvent rowsEvent = (WriteRowsEvent) submitted.get(i).getBody();
+            assertFalse(rowsEvent.getRows().isEmpty());
+        }
+    }
+
+    @Test
+    public void flushRethrowsFailureOnce() throws IOException {
+        List<Event> submitted = new ArrayList<>();
+        submitted.add(this.deserialize(tableMap(1)));
+        submitted.add(this.deserialize(writeRows(1, 1)));
+        submitted.add(this.deserialize(tableMap(BROKEN_TABLE_ID)));
+        submitted.add(this.deserialize(writeRows(BROKEN_TABLE_ID, 2)));
+        submitted.add(this.deserialize(writeRows(1, 3)));
+        submitted.add(this.deserialize(writeRows(1, 4)));
+        try {
+            for (Event event : submitted) {
+                this.decoder.submit(event);
+            }
+        } catch (IOException e) {
+            // 解析得快的话提交时就能看到异常，flush同样会抛出
+            assertEquals("broken rows", e.getMessage());
+        }
+
+        try {
+            this.decoder.flush();
+            fail("flush should rethrow the decode failure");
+        } catch (IOException e) {
+            assertEquals("broken rows", e.getMessage());
+        }
+        this.decoder.flush();
+
+        // 失败事件之前的事件照常分发，之后的不再分发
+        assertEquals(3, this.handled.size());
+        for (int i = 0; i < 3; i++) {
+            assertSame(submitted.get(i), this.handled.get(i));
+        }
+    }
+
+    private Event deserialize(byte[] bytes) throws IOException {
+        return Event.deserialize(this.environment, new ByteArrayIndexInputStream(bytes), BinlogCheckSumEnum.NONE);
+    }
+
+    private static void writeLittleEndian(ByteArrayOutputStream out, long value, int length) {
+        for (int i = 0; i < length; i++) {
+            out.write((int) (value >> (8 * i)));
+        }
+    }
+
+    private static byte[] event(BinlogEventTypeEnum type, byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeLittleEndian(out, 1695600000, 4);
+        out.write(type.getCode());
+        writeLittleEndian(out, 1, 4);
+        writeLittleEndian(out, 19 + body.length, 4);
+        writeLittleEndian(out, 0, 4);
+        writeLittleEndian(out, 0, 2);
+        out.write(body, 0, body.length);
+        return out.toByteArray();
+    }
+
+    /**
+     * db.t (id int, name varchar(100))
+     */
+    private static byte[] tableMap(long tableId) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeLittleEndian(out, tableId, 6);
+        writeLittleEndian(out, 0, 2);
+        out.write(2);
+        out.write('d');
+        out.write('b');
+        out.write(0);
+        out.write(1);
+        out.write('t');
+        out.write(0);
+        // 列数、列类型：LONG、VARCHAR
+        out.write(2);
+        out.write(3);
+        out.write(15);
+        // 列元数据：VARCHAR的最大长度
+        out.write(2);
+        writeLittleEndian(out, 100, 2);
+        // null bitmap
+        out.write(0);
+        return event(BinlogEventTypeEnum.TABLE_MAP_EVENT, out.toByteArray());
+    }
+
+    private static byte[] writeRows(long tableId, int id) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeLittleEndian(out, tableId, 6);
+        writeLittleEndian(out, 0, 2);
+        // extra data长度，包含自身的2个字节
+        writeLittleEndian(out, 2, 2);
+        out.write(2);
+        out.write(0b11);
+        // 一行：null bitmap、id、name
+        out.write(0);
+        writeLittleEndian(out, id, 4);
+        out.write(2);
+        out.write('a');
+        out.write('b');
+        return event(BinlogEventTypeEnum.WRITE_ROWS_EVENT_V2, out.toByteArray());
+    }
+
+}
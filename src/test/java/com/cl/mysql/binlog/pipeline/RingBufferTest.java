@@ -0,0 +1,134 @@
+package com.cl.mysql.binlog.pipeline;
+
+import com.cl.mysql.binlog.constant.WaitStrategyEnum;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @description: 环形缓冲区绕圈后的顺序，以及halt之后两端的行为
+ * @author: liuzijian
+ * @time: 2023-09-29 16:30
+ */
+public class RingBufferTest {
+
+    private static class Slot {
+
+        private long value;
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void bufferSizeMustBePowerOfTwo() {
+        new RingBuffer<>(6, Slot::new, WaitStrategy.create(WaitStrategyEnum.BLOCKING));
+    }
+
+    @Test
+    public void consumeInOrderAcrossWrapAround() throws Exception {
+        RingBuffer<Slot> ringBuffer = new RingBuffer<>(4, Slot::new, WaitStrategy.create(WaitStrategyEnum.BLOCKING));
+        int count = 1000;
+        List<Long> consumed = new ArrayList<>();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread consumer = new Thread(() -> {
+            try {
+                long next = 0;
+                while (true) {
+                    long available = ringBuffer.waitFor(next);
+                    if (available < next) {
+                        return;
+                    }
+                    for (; next <= available; next++) {
+                        consumed.add(ringBuffer.get(next).value);
+                        if (ThreadLocalRandom.current().nextInt(50) == 0) {
+                            Thread.sleep(1);
+                        }
+                    }
+                    ringBuffer.release(available);
+                }
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        });
+        consumer.start();
+
+        for (long i = 0; i < count; i++) {
+            long sequence = ringBuffer.next();
+            assertEquals(i, sequence);
+            ringBuffer.get(sequence).value = i * 10;
+            ringBuffer.publish(sequence);
+        }
+        ringBuffer.halt();
+        consumer.join(10_000);
+
+        assertFalse(consumer.isAlive());
+        assertNull(failure.get());
+        assertEquals(count, consumed.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(i * 10L, consumed.get(i).longValue());
+        }
+        assertEquals(count - 1, ringBuffer.getConsumed());
+    }
+
+    @Test
+    public void haltDrainsPublishedSlots() throws Exception {
+        RingBuffer<Slot> ringBuffer = new RingBuffer<>(4, Slot::new, WaitStrategy.create(WaitStrategyEnum.BLOCKING));
+        for (int i = 0; i < 3; i++) {
+            ringBuffer.publish(ringBuffer.next());
+        }
+        ringBuffer.halt();
+
+        assertTrue(ringBuffer.isHalted());
+        assertEquals(-1, ringBuffer.next());
+        // 已经发布的槽位在halt之后仍然可以处理完
+        assertEquals(2, ringBuffer.waitFor(0));
+        ringBuffer.release(2);
+        assertTrue(ringBuffer.waitFor(3) < 3);
+    }
+
+    @Test
+    public void haltWakesBlockedProducer() throws Exception {
+        RingBuffer<Slot> ringBuffer = new RingBuffer<>(2, Slot::new, WaitStrategy.create(WaitStrategyEnum.BLOCKING));
+        ringBuffer.publish(ringBuffer.next());
+        ringBuffer.publish(ringBuffer.next());
+
+        long[] sequence = {0};
+        Thread producer = new Thread(() -> {
+            try {
+                // 缓冲区已满，等待消费者或者halt
+                sequence[0] = ringBuffer.next();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        producer.start();
+        producer.join(50);
+        assertTrue(producer.isAlive());
+
+        ringBuffer.halt();
+        producer.join(10_000);
+        assertFalse(producer.isAlive());
+        assertEquals(-1, sequence[0]);
+    }
+
+    @Test
+    public void resetDiscardsUnconsumedSlots() throws Exception {
+        RingBuffer<Slot> ringBuffer = new RingBuffer<>(2, Slot::new, WaitStrategy.create(WaitStrategyEnum.BLOCKING));
+        ringBuffer.publish(ringBuffer.next());
+        ringBuffer.publish(ringBuffer.next());
+        ringBuffer.halt();
+        ringBuffer.reset();
+
+        assertFalse(ringBuffer.isHalted());
+        assertEquals(1, ringBuffer.getConsumed());
+        // 不需要等待消费者就能继续申请
+        assertEquals(2, ringBuffer.next());
+    }
+
+}
@@ -0,0 +1,68 @@
+package com.cl.mysql.binlog.stream;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @description: 直接内存来源的批量读取与数组来源结果一致
+ * @author: liuzijian
+ * @time: 2023-09-29 11:00
+ */
+public class ByteArrayIndexInputStreamTest {
+
+    private static byte[] bytes() {
+        byte[] bytes = new byte[64];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (0xF1 - i * 7);
+        }
+        return bytes;
+    }
+
+    private static ByteBuffer direct(byte[] bytes, int offset) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length + offset);
+        buffer.position(offset);
+        buffer.put(bytes);
+        buffer.position(offset);
+        return buffer;
+    }
+
+    @Test
+    public void fixedWidthReads() throws IOException {
+        byte[] bytes = bytes();
+        for (int length = 1; length <= 8; length++) {
+            ByteArrayIndexInputStream heap = new ByteArrayIndexInputStream(bytes);
+            ByteArrayIndexInputStream direct = new ByteArrayIndexInputStream(direct(bytes, 3));
+            while (heap.available() >= length) {
+                if (length <= 4) {
+                    assertEquals(heap.readInt(length), direct.readInt(length));
+                } else {
+                    assertEquals(heap.readLong(length), direct.readLong(length));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void bulkReadBytes() throws IOException {
+        byte[] bytes = bytes();
+        ByteBuffer buffer = direct(bytes, 5);
+        ByteArrayIndexInputStream direct = new ByteArrayIndexInputStream(buffer);
+        direct.readInt(3);
+        ByteArrayIndexInputStream slice = direct.slice(20);
+        byte[] expected = new byte[20];
+        System.arraycopy(bytes, 3, expected, 0, 20);
+        assertArrayEquals(expected, slice.readBytes(20));
+        byte[] rest = new byte[bytes.length - 23];
+        System.arraycopy(bytes, 23, rest, 0, rest.length);
+        assertArrayEquals(rest, direct.readBytes(rest.length));
+        // 调用方的ByteBuffer不受影响
+        assertEquals(5, buffer.position());
+        assertEquals(ByteOrder.BIG_ENDIAN, buffer.order());
+    }
+}